@@ -0,0 +1,128 @@
+package dev.flur.commands.benchmarks;
+
+import dev.flur.commands.runtime.CommandSource;
+import dev.flur.commands.runtime.CompletionIndex;
+import dev.flur.commands.runtime.DispatchTable;
+import dev.flur.commands.runtime.PermissionCache;
+import dev.flur.commands.runtime.PermissionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tab-completion prefix queries over every command name and alias of the module.
+ * <p>
+ * The prefixes get longer like a player typing: {@code "c"} matches every candidate,
+ * {@code "cmd1"} a decade of them and a full name a single one. The runtime filter every handler
+ * implements today is compared with the generated {@code CompletionIndex}, which also checks the
+ * permission of every candidate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompletionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int commands;
+
+    @Param({"c", "cmd1", "cmd42"})
+    public String prefix;
+
+    private SyntheticModule module;
+    private String[] labels;
+    private URLClassLoader loader;
+    private CompletionIndex index;
+    private long[] permissions;
+    private final List<String> reused = new ArrayList<>();
+
+    private final CommandSource source = new CommandSource() {
+        @Override
+        public boolean hasPermission(String permission) {
+            return true;
+        }
+
+        @Override
+        public void sendMessage(String message) {
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException, IOException {
+        module = SyntheticModule.compile(commands);
+        labels = module.labels().toArray(new String[0]);
+        loader = module.newClassLoader();
+        index = (CompletionIndex) Class.forName(SyntheticModule.REGISTRY, true, loader)
+                .getMethod("completionIndex").invoke(null);
+        PermissionTable table = (PermissionTable) Class.forName(SyntheticModule.REGISTRY, true, loader)
+                .getMethod("permissionTable").invoke(null);
+        permissions = new PermissionCache(table).bits(source);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        loader.close();
+        module.close();
+    }
+
+    /**
+     * The filter every handler implements today: a scan over all labels into a new list.
+     */
+    @Benchmark
+    public void filterLabels(Blackhole blackhole) {
+        List<String> matches = new ArrayList<>();
+        for (String label : labels) {
+            if (label.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                matches.add(label);
+            }
+        }
+        blackhole.consume(matches);
+    }
+
+    /**
+     * A query of the generated index into a list reused across keystrokes.
+     */
+    @Benchmark
+    public void completionIndex(Blackhole blackhole) {
+        reused.clear();
+        index.complete(prefix, source, reused);
+        blackhole.consume(reused);
+    }
+
+    /**
+     * A query of the generated index testing permissions in a cached bitset instead of the source.
+     */
+    @Benchmark
+    public void completionIndexBitset(Blackhole blackhole) {
+        reused.clear();
+        index.complete(prefix, permissions, reused);
+        blackhole.consume(reused);
+    }
+
+    /**
+     * Finds the range of the candidates with two binary searches, without collecting them.
+     */
+    @Benchmark
+    public long completionRange() {
+        return index.range(DispatchTable.ROOT, prefix, 0, prefix.length());
+    }
+}
@@ -0,0 +1,105 @@
+package dev.flur.commands.benchmarks;
+
+import dev.flur.commands.runtime.DispatchTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving command lines through the generated dispatch table.
+ * <p>
+ * Each invocation resolves a batch of {@value #BATCH} lines picked at random from the module,
+ * so the table is probed across its whole range instead of a single hot slot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    static final int BATCH = 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int commands;
+
+    private SyntheticModule module;
+    private URLClassLoader loader;
+    private DispatchTable table;
+
+    private final String[] names = new String[BATCH];
+    private final String[] aliases = new String[BATCH];
+    private final String[] subcommands = new String[BATCH];
+    private final String[] unknown = new String[BATCH];
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException, IOException {
+        module = SyntheticModule.compile(commands);
+        loader = module.newClassLoader();
+        table = (DispatchTable) Class.forName(SyntheticModule.REGISTRY, true, loader)
+                .getMethod("dispatchTable").invoke(null);
+
+        Random random = new Random(42);
+        for (int i = 0; i < BATCH; i++) {
+            int command = random.nextInt(commands);
+            names[i] = SyntheticModule.nameLine(command);
+            aliases[i] = SyntheticModule.aliasLine(command);
+            subcommands[i] = SyntheticModule.subcommandLine(command);
+            unknown[i] = "/missing" + command + " arg";
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        loader.close();
+        module.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void resolveName(Blackhole blackhole) {
+        resolve(names, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void resolveAlias(Blackhole blackhole) {
+        resolve(aliases, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void resolveSubcommand(Blackhole blackhole) {
+        resolve(subcommands, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void resolveUnknown(Blackhole blackhole) {
+        resolve(unknown, blackhole);
+    }
+
+    private void resolve(String[] lines, Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(table.resolve(line));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package dev.flur.commands.benchmarks;
+
+import dev.flur.commands.runtime.CommandRegistrar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures plugin enable cost: loading a freshly compiled {@code GeneratedCommandRegistry} and
+ * registering all of its commands.
+ * <p>
+ * Every invocation uses a new class loader, so class loading and static initialization of the
+ * registry are part of the measurement, as they are when a plugin is enabled or reloaded. Handler
+ * classes are registered as lazy stubs and must not be loaded by registration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+public class RegistryBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int commands;
+
+    private SyntheticModule module;
+    private URLClassLoader loader;
+
+    @Setup(Level.Trial)
+    public void compile() throws IOException {
+        module = SyntheticModule.compile(commands);
+    }
+
+    @Setup(Level.Invocation)
+    public void newClassLoader() {
+        loader = module.newClassLoader();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeClassLoader() throws IOException {
+        loader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        module.close();
+    }
+
+    @Benchmark
+    public void registerAll(Blackhole blackhole) throws Throwable {
+        Class<?> registry = Class.forName(SyntheticModule.REGISTRY, true, loader);
+        MethodHandle registerAll = MethodHandles.publicLookup().findStatic(registry, "registerAll",
+                MethodType.methodType(void.class, CommandRegistrar.class));
+        CommandRegistrar registrar = (command, handler) -> {
+            blackhole.consume(command);
+            blackhole.consume(handler);
+        };
+        registerAll.invokeExact(registrar);
+    }
+}
@@ -0,0 +1,101 @@
+package dev.flur.commands.benchmarks;
+
+import dev.flur.commands.runtime.CommandSource;
+import dev.flur.commands.runtime.SuggestionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures "did you mean" suggestions for mistyped commands within an edit distance of two.
+ * <p>
+ * The typos range from one edit away from a name to nothing like any name. The fallback computing
+ * the edit distance to every name and alias is compared with the generated {@code SuggestionIndex},
+ * whose BK-tree skips most of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionBenchmark {
+
+    private static final int MAX_DISTANCE = 2;
+    private static final int LIMIT = 5;
+
+    @Param({"100", "1000", "10000"})
+    public int commands;
+
+    @Param({"cmd4x", "cnd42", "teleport"})
+    public String typo;
+
+    private SyntheticModule module;
+    private String[] labels;
+    private URLClassLoader loader;
+    private SuggestionIndex index;
+
+    private final CommandSource source = new CommandSource() {
+        @Override
+        public boolean hasPermission(String permission) {
+            return true;
+        }
+
+        @Override
+        public void sendMessage(String message) {
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException, IOException {
+        module = SyntheticModule.compile(commands);
+        labels = module.labels().toArray(new String[0]);
+        loader = module.newClassLoader();
+        index = (SuggestionIndex) Class.forName(SyntheticModule.REGISTRY, true, loader)
+                .getMethod("suggestionIndex").invoke(null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        loader.close();
+        module.close();
+    }
+
+    /**
+     * The fallback used today: the edit distance to every label, keeping those close enough.
+     */
+    @Benchmark
+    public List<String> scanLabels() {
+        List<String> matches = new ArrayList<>();
+        for (String label : labels) {
+            if (SuggestionIndex.distance(label, typo, 0, typo.length()) <= MAX_DISTANCE) {
+                matches.add(label);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * A query of the generated BK-tree returning the closest labels.
+     */
+    @Benchmark
+    public List<String> suggestionIndex() {
+        return index.suggest(typo, source, MAX_DISTANCE, LIMIT);
+    }
+}
@@ -0,0 +1,171 @@
+package dev.flur.commands.benchmarks;
+
+import dev.flur.commands.processor.CommandAnnotationProcessor;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A module of synthetic {@code @CommandInfo} classes compiled with the command annotation processor.
+ * <p>
+ * Every fourth command is a subcommand of the command before it; all other commands are top-level
+ * commands with one alias and a permission. Every command class implements {@code CommandHandler}.
+ * The sources are written like the {@code MultipleCommands} test resource, with many
+ * package-private command classes per file.
+ */
+final class SyntheticModule implements AutoCloseable {
+
+    static final String PACKAGE = "bench";
+    static final String REGISTRY = PACKAGE + ".GeneratedCommandRegistry";
+
+    private static final int COMMANDS_PER_FILE = 100;
+
+    private final Path directory;
+    private final Path classes;
+    private final int size;
+
+    private SyntheticModule(Path directory, int size) {
+        this.directory = directory;
+        this.classes = directory.resolve("classes");
+        this.size = size;
+    }
+
+    /**
+     * Generates and compiles a module with the given number of commands.
+     */
+    static SyntheticModule compile(int size) throws IOException {
+        SyntheticModule module = new SyntheticModule(Files.createTempDirectory("commands-bench"), size);
+        module.build();
+        return module;
+    }
+
+    /**
+     * Returns the command line invoking the top-level command {@code i} by name.
+     */
+    static String nameLine(int i) {
+        return "/cmd" + topLevel(i) + " arg";
+    }
+
+    /**
+     * Returns the command line invoking the top-level command {@code i} by alias.
+     */
+    static String aliasLine(int i) {
+        return "/C" + topLevel(i) + " arg";
+    }
+
+    /**
+     * Returns the command line invoking subcommand {@code i}.
+     */
+    static String subcommandLine(int i) {
+        int sub = i - i % 4 + 3;
+        return "/cmd" + (sub - 1) + " sub" + sub + " arg";
+    }
+
+    private static int topLevel(int i) {
+        return i % 4 == 3 ? i - 1 : i;
+    }
+
+    /**
+     * Returns every top-level command name and alias, the candidates of a first-token completion.
+     */
+    List<String> labels() {
+        List<String> labels = new ArrayList<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            if (i % 4 != 3) {
+                labels.add("cmd" + i);
+                labels.add("c" + i);
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Creates a fresh class loader for the compiled module, so every caller pays for class loading.
+     */
+    URLClassLoader newClassLoader() {
+        try {
+            return new URLClassLoader(new URL[]{classes.toUri().toURL()}, SyntheticModule.class.getClassLoader());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void build() throws IOException {
+        Path sources = Files.createDirectories(directory.resolve("src").resolve(PACKAGE));
+        Files.createDirectories(classes);
+
+        List<Path> files = new ArrayList<>();
+        for (int file = 0; file * COMMANDS_PER_FILE < size; file++) {
+            StringBuilder source = new StringBuilder(COMMANDS_PER_FILE * 320);
+            source.append("package ").append(PACKAGE).append(";\n\n");
+            source.append("import dev.flur.commands.CommandInfo;\n");
+            source.append("import dev.flur.commands.runtime.CommandHandler;\n");
+            source.append("import dev.flur.commands.runtime.CommandSource;\n\n");
+            source.append("public class Commands").append(file).append(" {\n}\n");
+            for (int i = file * COMMANDS_PER_FILE; i < Math.min(size, (file + 1) * COMMANDS_PER_FILE); i++) {
+                if (i % 4 == 3) {
+                    source.append("\n@CommandInfo(name = \"cmd").append(i - 1).append(".sub").append(i)
+                            .append("\", aliases = {\"s").append(i).append("\"})\n");
+                } else {
+                    source.append("\n@CommandInfo(name = \"cmd").append(i).append("\", description = \"Command ")
+                            .append(i).append("\", permission = \"bench.cmd").append(i)
+                            .append("\", aliases = {\"c").append(i).append("\"})\n");
+                }
+                source.append("class Command").append(i).append(" implements CommandHandler {\n");
+                source.append("    public boolean execute(CommandSource source, String label, String[] args) {\n");
+                source.append("        return args.length > 0;\n");
+                source.append("    }\n");
+                source.append("}\n");
+            }
+            Path path = sources.resolve("Commands" + file + ".java");
+            Files.writeString(path, source, StandardCharsets.UTF_8);
+            files.add(path);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            // Only keep errors; the processor notes every command it finds
+            StringBuilder errors = new StringBuilder();
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostic -> {
+                        if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                            errors.append('\n').append(diagnostic);
+                        }
+                    },
+                    List.of("-d", classes.toString(),
+                            "-s", Files.createDirectories(directory.resolve("generated")).toString(),
+                            "-classpath", System.getProperty("java.class.path"),
+                            "-nowarn", "-Xlint:none"),
+                    null, fileManager.getJavaFileObjectsFromPaths(files));
+            task.setProcessors(List.of(new CommandAnnotationProcessor()));
+            if (!task.call()) {
+                throw new IllegalStateException("Synthetic module with " + size + " commands failed to compile:"
+                        + errors);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.flur.commands;
+
+/**
+ * The key of the cached responses of a command, declared with {@link CommandInfo#cacheScope()}.
+ *
+ * @since 1.1.0
+ */
+public enum CacheScope {
+
+    /**
+     * One response is shared by all senders and arguments.
+     */
+    GLOBAL,
+
+    /**
+     * Every player gets their own response for every list of arguments. Sources without a unique
+     * id, such as the console, are never served from the cache.
+     */
+    SENDER,
+
+    /**
+     * Every list of arguments has its own response, shared by all senders.
+     */
+    ARGUMENTS
+}
@@ -31,12 +31,30 @@ import java.lang.annotation.Target;
  * }
  * </pre>
  * <p>
+ * Subcommands can be declared on methods of an annotated class. The name of a method
+ * subcommand is a single token relative to the enclosing command, and the method must accept
+ * {@code (CommandSource, String, String[])} and return {@code boolean} or {@code void}. The
+ * processor generates a dispatcher routing the subcommands with a {@code switch} on the
+ * subcommand token:
+ * <pre>
+ * {@code
+ * @CommandInfo(name = "home")
+ * public class HomeCommand {
+ *
+ *     @CommandInfo(name = "set", permission = "myserver.home.set")
+ *     public boolean set(CommandSource source, String label, String[] args) {
+ *         // Subcommand implementation
+ *     }
+ * }
+ * }
+ * </pre>
+ * <p>
  * Only the {@code name} attribute is required; all other attributes have default values.
  *
  * @since 1.0.0
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.TYPE)
+@Target({ElementType.TYPE, ElementType.METHOD})
 public @interface CommandInfo {
     /**
      * The name of the command, without any leading slash.
@@ -64,6 +82,10 @@ public @interface CommandInfo {
      * <p>
      * This description will be shown in help menus and command listings.
      * It should be concise but informative.
+     * <p>
+     * Like the other messages, it is compiled at build time: {@code &} followed by a color code
+     * such as {@code &a} becomes a color, {@code &&} is a literal ampersand as in
+     * {@code "Q&&A"}, and <code>{{</code> is a literal brace. Unknown color codes fail the build.
      * 
      * @return The command description, or an empty string if no description is provided
      */
@@ -74,7 +96,7 @@ public @interface CommandInfo {
      * <p>
      * This will be displayed to users when they use the command incorrectly.
      * If not specified, a default usage message in the format "/{command name}"
-     * will be generated.
+     * will be generated. Color codes are compiled like those of {@link #description()}.
      * 
      * @return The usage message, or an empty string to use the default format
      */
@@ -95,9 +117,105 @@ public @interface CommandInfo {
      * The message shown to users who attempt to use the command without
      * having the required permission.
      * <p>
-     * This message will only be used if a permission is specified.
+     * This message will only be used if a permission is specified. Color codes are compiled like
+     * those of {@link #description()}.
      * 
      * @return The permission denied message, or an empty string to use the system default
      */
     String permissionMessage() default "";
+
+    /**
+     * Whether the processor generates a typed argument parser from the {@link #usage()} string.
+     * <p>
+     * The usage starts with literal tokens such as the command name, followed by parameters.
+     * {@code <name>} declares a required and {@code [name]} an optional parameter; optional
+     * parameters must follow all required ones. A type can be given as {@code <amount:int>},
+     * where {@code string}, {@code int}, {@code long}, {@code double} and {@code boolean} are
+     * supported and {@code string} is the default. A trailing {@code ...}, as in
+     * {@code [reason...]}, makes the last parameter collect all remaining arguments.
+     * <p>
+     * For a class {@code Foo} the processor generates a {@code FooArguments} record with one
+     * component per parameter and a single-pass {@code parse(String[])} method. The annotated
+     * class implements {@code TypedCommandHandler<FooArguments>} to receive the parsed values.
+     * Usage strings the processor cannot parse fail the compilation.
+     *
+     * @return {@code true} to generate an argument parser from the usage
+     * @since 1.1.0
+     */
+    boolean parseArguments() default false;
+
+    /**
+     * The thread the command handler runs on.
+     * <p>
+     * With {@link Execution#ASYNC}, the generated registry wraps the handler so it runs on a
+     * virtual thread of the {@code CommandScheduler} passed to {@code registerAll}, keeping
+     * database or file I/O off the server's main thread. Tab completion always runs on the
+     * calling thread. Method subcommands run like their class, and a handler shared by
+     * concurrent executions must not declare mutable fields, which the processor reports as
+     * compilation errors.
+     *
+     * @return The execution mode, {@link Execution#SYNC} by default
+     * @since 1.1.0
+     */
+    Execution execution() default Execution.SYNC;
+
+    /**
+     * The time a player must wait between two uses of the command, such as {@code "5s"}.
+     * <p>
+     * Durations are one or more whole numbers, each followed by {@code ms}, {@code s}, {@code m}
+     * or {@code h}, such as {@code "1m30s"}. The same syntax is used by {@link #rateLimit()} and
+     * {@link #cacheTtl()}.
+     * The generated registry rejects uses within the cooldown with a message; sources without
+     * a unique id, such as the console, are never limited.
+     *
+     * @return The cooldown, or an empty string for none
+     * @since 1.1.0
+     */
+    String cooldown() default "";
+
+    /**
+     * The number of uses a player may make within a period, such as {@code "10/1m"}.
+     * <p>
+     * Uses are spread evenly: a player may use the command in bursts of up to the given count,
+     * after which one further use becomes available every period divided by the count.
+     *
+     * @return The rate limit as {@code count/duration}, or an empty string for none
+     * @since 1.1.0
+     */
+    String rateLimit() default "";
+
+    /**
+     * The message shown to players who use the command before its cooldown or rate limit allows
+     * it again.
+     * <p>
+     * The placeholders <code>{seconds}</code>, <code>{time}</code> and <code>{command}</code> are
+     * replaced by the whole seconds to wait, the same wait as {@code "1 second"} or
+     * {@code "30 seconds"}, and the command name.
+     *
+     * @return The cooldown message, or an empty string to use the system default
+     * @since 1.1.0
+     */
+    String cooldownMessage() default "";
+
+    /**
+     * How long the response of a read-only command is reused, such as {@code "10s"}.
+     * <p>
+     * The generated registry records the messages the handler sends and its result, and replays
+     * them to later uses with the same {@link #cacheScope()} key until the time elapses, without
+     * calling the handler. Cached handlers receive a wrapper of the command source, so they must
+     * not depend on its concrete type, and must only respond through
+     * {@code CommandSource.sendMessage}.
+     *
+     * @return The time to live of cached responses, or an empty string to disable caching
+     * @since 1.1.0
+     */
+    String cacheTtl() default "";
+
+    /**
+     * The key cached responses are shared by, when {@link #cacheTtl()} is set.
+     *
+     * @return The cache scope, {@link CacheScope#ARGUMENTS} by default
+     * @since 1.1.0
+     */
+    CacheScope cacheScope() default CacheScope.ARGUMENTS;
 }
@@ -0,0 +1,21 @@
+package dev.flur.commands;
+
+/**
+ * The thread a command handler runs on, declared with {@link CommandInfo#execution()}.
+ *
+ * @since 1.1.0
+ */
+public enum Execution {
+
+    /**
+     * The handler runs on the thread dispatching the command, usually the server's main thread.
+     */
+    SYNC,
+
+    /**
+     * The handler runs on a virtual thread of the plugin's {@code CommandScheduler}. Results are
+     * handed back to the main thread through the scheduler, and the handler must not touch
+     * server state directly.
+     */
+    ASYNC
+}
@@ -0,0 +1,121 @@
+package dev.flur.commands.processor;
+
+import java.util.List;
+
+/**
+ * Renders the source of the typed arguments record of a command with {@code parseArguments} enabled.
+ * <p>
+ * The record has one component per usage parameter and a {@code parse(String[])} method that
+ * checks the arity once and converts every argument in a single pass, without splitting or
+ * regular expressions. Optional parameters are {@code null} when omitted.
+ */
+final class ArgumentsWriter {
+
+    private static final String SUFFIX = "Arguments";
+
+    private final CommandData command;
+    private final UsageGrammar grammar;
+
+    ArgumentsWriter(CommandData command, UsageGrammar grammar) {
+        this.command = command;
+        this.grammar = grammar;
+    }
+
+    /**
+     * Returns the fully qualified name of the arguments record of the given command class.
+     */
+    static String qualifiedName(CommandData command) {
+        return command.generatedClassName(SUFFIX);
+    }
+
+    String qualifiedName() {
+        return qualifiedName(command);
+    }
+
+    String render() {
+        String qualifiedName = qualifiedName();
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        List<UsageGrammar.Parameter> parameters = grammar.parameters();
+        String commandName = command.name().replace("*/", "*&#47;");
+
+        StringBuilder out = new StringBuilder(1024 + parameters.size() * 256);
+        if (!command.handlerPackage().isEmpty()) {
+            out.append("package ").append(command.handlerPackage()).append(";\n\n");
+        }
+        out.append("import dev.flur.commands.runtime.ArgumentException;\n");
+        out.append("import dev.flur.commands.runtime.ArgumentParser;\n");
+        out.append("import dev.flur.commands.runtime.ArgumentParsers;\n\n");
+
+        out.append("/**\n");
+        out.append(" * Typed arguments of the {@code ").append(commandName).append("} command, parsed from its usage\n");
+        out.append(" * {@code ").append(command.usage().replace("*/", "*&#47;")).append("}.\n");
+        out.append(" * <p>\n");
+        out.append(" * Generated by {@code dev.flur.commands.processor.CommandAnnotationProcessor}; do not edit.\n");
+        out.append(" */\n");
+        out.append(command.handlerPublic() ? "public " : "").append("record ").append(simpleName).append("(");
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(parameters.get(i).javaType()).append(' ').append(parameters.get(i).name());
+        }
+        out.append(") {\n\n");
+
+        out.append("    /**\n");
+        out.append("     * The parser of the {@code ").append(commandName).append("} command.\n");
+        out.append("     */\n");
+        out.append("    public static final ArgumentParser<").append(simpleName).append("> PARSER = ")
+                .append(simpleName).append("::parse;\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Parses the arguments following the {@code ").append(commandName).append("} command.\n");
+        out.append("     *\n");
+        out.append("     * @throws ArgumentException if an argument is missing, superfluous or of the wrong type\n");
+        out.append("     */\n");
+        out.append("    public static ").append(simpleName).append(" parse(String[] args) throws ArgumentException {\n");
+
+        int required = grammar.required();
+        if (required > 0) {
+            out.append("        if (args.length < ").append(required).append(") {\n");
+            if (required == 1) {
+                out.append("            throw ArgumentParsers.missing(")
+                        .append(Sources.literal(parameters.get(0).name())).append(");\n");
+            } else {
+                out.append("            throw ArgumentParsers.missing(switch (args.length) {\n");
+                for (int i = 0; i < required - 1; i++) {
+                    out.append("                case ").append(i).append(" -> ")
+                            .append(Sources.literal(parameters.get(i).name())).append(";\n");
+                }
+                out.append("                default -> ").append(Sources.literal(parameters.get(required - 1).name()))
+                        .append(";\n");
+                out.append("            });\n");
+            }
+            out.append("        }\n");
+        }
+        if (!grammar.hasRest()) {
+            out.append("        if (args.length > ").append(parameters.size()).append(") {\n");
+            out.append("            throw ArgumentParsers.tooMany(").append(parameters.size()).append(");\n");
+            out.append("        }\n");
+        }
+
+        out.append("        return new ").append(simpleName).append("(");
+        for (int i = 0; i < parameters.size(); i++) {
+            UsageGrammar.Parameter parameter = parameters.get(i);
+            out.append(i > 0 ? ",\n                " : "\n                ");
+            String value = parameter.rest() ? "ArgumentParsers.join(args, " + i + ")" : "args[" + i + "]";
+            if (parameter.type().parser != null) {
+                value = "ArgumentParsers." + parameter.type().parser + "(" + Sources.literal(parameter.name())
+                        + ", " + value + ")";
+            }
+            if (parameter.optional()) {
+                out.append("args.length > ").append(i).append(" ? ").append(value).append(" : null");
+            } else {
+                out.append(value);
+            }
+        }
+        out.append(");\n");
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+}
@@ -1,23 +1,37 @@
 package dev.flur.commands.processor;
 
 import dev.flur.commands.CommandInfo;
+import dev.flur.commands.Execution;
+import dev.flur.commands.runtime.CommandRouter;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
 import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * An annotation processor that handles {@link CommandInfo} annotations.
@@ -29,14 +43,60 @@ import java.util.Set;
  * <p>
  * The processor runs during the compilation phase and outputs the generated YAML
  * to the class output directory, where it can be included in the final JAR file.
+ * Next to it, the processor generates a {@code GeneratedCommandRegistry} source file
+ * holding every command as constants, plus the optional outputs enabled by its
+ * {@code OPTION_*} processor options.
  *
  * @since 1.0.0
  * @see CommandInfo
  */
 @SupportedAnnotationTypes("dev.flur.commands.CommandInfo")
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
+@SupportedOptions({CommandAnnotationProcessor.OPTION_PACKAGE, CommandAnnotationProcessor.OPTION_STATS,
+        CommandAnnotationProcessor.OPTION_HELP_PAGE_SIZE, CommandAnnotationProcessor.OPTION_INDEX,
+        CommandAnnotationProcessor.OPTION_ROUTES, CommandAnnotationProcessor.OPTION_NAMESPACE})
 public final class CommandAnnotationProcessor extends AbstractProcessor {
 
+    /**
+     * The processor option selecting the package of the generated command registry. Without it,
+     * the registry is generated into the longest package shared by all command classes.
+     */
+    public static final String OPTION_PACKAGE = "commands.package";
+
+    /**
+     * The processor option enabling the per-round timing report, written to
+     * {@code commands-processor-stats.txt} in the source output directory.
+     */
+    public static final String OPTION_STATS = "commands.stats";
+
+    /**
+     * The processor option setting the number of lines per help page.
+     */
+    public static final String OPTION_HELP_PAGE_SIZE = "commands.helpPageSize";
+
+    /**
+     * The processor option enabling the binary {@code commands.idx} next to {@code commands.yml},
+     * which a {@code CommandIndex} maps and queries in place.
+     */
+    public static final String OPTION_INDEX = "commands.index";
+
+    /**
+     * The processor option enabling the {@code commands.routes} manifest of the top-level names and
+     * aliases with their permissions, from which a {@code CommandRouter} on a proxy routes lines.
+     */
+    public static final String OPTION_ROUTES = "commands.routes";
+
+    /**
+     * The processor option setting the namespace of the plugin, such as {@code homes} for
+     * {@code /homes:home}, under which the {@code commands.routes} manifest lists every token again.
+     */
+    public static final String OPTION_NAMESPACE = "commands.namespace";
+
+    /**
+     * The number of lines per help page unless {@value #OPTION_HELP_PAGE_SIZE} is set.
+     */
+    public static final int DEFAULT_HELP_PAGE_SIZE = 8;
+
     /**
      * Constructs a new CommandAnnotationProcessor.
      * <p>
@@ -47,89 +107,582 @@ public final class CommandAnnotationProcessor extends AbstractProcessor {
         // Default constructor
     }
 
-    private final Map<String, CommandData> commands = new HashMap<>();
+    private final Map<String, CommandData> commands = new TreeMap<>();
+    private final Map<String, Element> originatingElements = new LinkedHashMap<>();
+    private final Set<String> extractedTypes = new HashSet<>();
+    private CommandInfoReader reader;
+    private boolean registryGenerated;
+    private ProcessorStats stats;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        reader = new CommandInfoReader(processingEnv.getElementUtils(), processingEnv.getTypeUtils(),
+                processingEnv.getMessager());
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_STATS))) {
+            stats = new ProcessorStats();
+        }
+    }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, @NotNull RoundEnvironment roundEnv) {
+        if (stats != null) {
+            stats.startRound();
+        }
+
         // Collect all commands
-        for (Element element : roundEnv.getElementsAnnotatedWith(CommandInfo.class)) {
+        long start = System.nanoTime();
+        Set<? extends Element> elements = roundEnv.getElementsAnnotatedWith(reader.annotationType());
+        // Every class is read once per round, so problems with its attributes are reported once
+        Map<TypeElement, CommandData> classes = new HashMap<>();
+        for (Element element : elements) {
             if (element instanceof TypeElement typeElement) {
-                CommandInfo commandInfo = element.getAnnotation(CommandInfo.class);
-
-                CommandData data = new CommandData(
-                        commandInfo.name(),
-                        commandInfo.description(),
-                        commandInfo.permission(),
-                        commandInfo.permissionMessage(),
-                        commandInfo.usage(),
-                        commandInfo.aliases()
-                );
+                CommandData data = classes.computeIfAbsent(typeElement, type -> reader.read(type, reader.find(type)));
 
-                commands.put(commandInfo.name(), data);
+                String handlerProblem = data.handlerFactory() ? null : reader.handlerProblem(typeElement);
+                if (handlerProblem != null) {
+                    processingEnv.getMessager().printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Command handler " + data.handlerClass() + " " + handlerProblem,
+                            typeElement
+                    );
+                }
+                checkArguments(data, typeElement);
+                checkLimits(data, typeElement);
+                checkCache(data, typeElement);
+                checkMessages(data, typeElement);
+                if (handlerProblem == null) {
+                    checkExecution(data, typeElement);
+                }
 
-                processingEnv.getMessager().printMessage(
-                        Diagnostic.Kind.NOTE,
-                        "Found command: " + commandInfo.name() + " in class " + typeElement.getSimpleName()
-                );
+                extractedTypes.add(data.handlerClass());
+                addCommand(data, typeElement, typeElement);
+            } else if (element instanceof ExecutableElement method) {
+                String methodProblem = reader.methodProblem(method);
+                if (methodProblem != null) {
+                    processingEnv.getMessager().printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Subcommand method " + method.getSimpleName() + " " + methodProblem,
+                            method
+                    );
+                    continue;
+                }
+
+                TypeElement typeElement = (TypeElement) method.getEnclosingElement();
+                CommandData parent = classes.computeIfAbsent(typeElement, type -> reader.read(type, reader.find(type)));
+                CommandData data = reader.readMethod(method, reader.find(method), parent);
+                if (data.parseArguments()) {
+                    processingEnv.getMessager().printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Subcommand method " + method.getSimpleName()
+                                    + " cannot enable parseArguments, which is only supported on command classes",
+                            method
+                    );
+                }
+                if (data.execution() != parent.execution()) {
+                    processingEnv.getMessager().printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Subcommand method " + method.getSimpleName() + " cannot declare execution "
+                                    + data.execution() + ", it runs like its class with execution " + parent.execution(),
+                            method
+                    );
+                }
+                checkLimits(data, method);
+                checkCache(data, method);
+                checkMessages(data, method);
+                addCommand(data, method, typeElement);
             }
         }
 
+        recordPhase("extract", start);
+
+        // Generate the registry source while javac still compiles generated files
+        if (!roundEnv.processingOver() && !registryGenerated && !commands.isEmpty()) {
+            start = System.nanoTime();
+            mergeCachedCommands();
+            recordPhase("cache", start);
+
+            start = System.nanoTime();
+            generateRegistry();
+            recordPhase("registry", start);
+            registryGenerated = true;
+        }
+
         // Generate plugin.yml fragment in the last round
         if (roundEnv.processingOver() && !commands.isEmpty()) {
+            start = System.nanoTime();
             generatePluginYmlFragment();
+            recordPhase("yaml", start);
+
+            start = System.nanoTime();
+            writeCache();
+            recordPhase("cache", start);
+        }
+
+        if (stats != null) {
+            stats.endRound(elements.size(), commands.size());
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, stats.summary());
+            if (roundEnv.processingOver()) {
+                writeStats();
+            }
         }
 
         return true;
     }
 
-    private void generatePluginYmlFragment() {
+    private void checkArguments(CommandData data, TypeElement typeElement) {
+        if (data.parseArguments()) {
+            try {
+                UsageGrammar.parse(data.usage());
+            } catch (IllegalArgumentException e) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Cannot parse usage '" + data.usage() + "' of command " + data.name() + ": " + e.getMessage(),
+                        typeElement
+                );
+            }
+        } else if (data.handlerTyped()) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Command handler " + data.handlerClass()
+                            + " implements TypedCommandHandler but does not enable parseArguments",
+                    typeElement
+            );
+        }
+    }
+
+    /**
+     * Rejects asynchronous commands without a handler, and handlers with fields that are neither
+     * final nor volatile, which concurrent executions would race on.
+     */
+    private void checkExecution(CommandData data, TypeElement typeElement) {
+        if (data.execution() != Execution.ASYNC) {
+            return;
+        }
+        if (!data.handlerFactory()) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Command " + data.name() + " declares execution ASYNC but " + data.handlerClass()
+                            + " is not a command handler",
+                    typeElement
+            );
+            return;
+        }
+        String field = reader.mutableField(typeElement);
+        if (field != null) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Command handler " + data.handlerClass() + " runs asynchronously and must not declare the field "
+                            + field + " that is neither final nor volatile",
+                    typeElement
+            );
+        }
+    }
+
+    private void checkLimits(CommandData data, Element element) {
+        if (!data.cooldown().isEmpty()) {
+            try {
+                CommandLimits.parseDuration(data.cooldown());
+            } catch (IllegalArgumentException e) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Cannot parse cooldown '" + data.cooldown() + "' of command " + data.name() + ": " + e.getMessage(),
+                        element
+                );
+                return;
+            }
+        }
+        CommandLimits limits;
         try {
-            FileObject resource = processingEnv.getFiler().createResource(
-                    StandardLocation.CLASS_OUTPUT,
-                    "",
-                    "commands.yml"
+            limits = CommandLimits.of(data);
+        } catch (IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Cannot parse rate limit '" + data.rateLimit() + "' of command " + data.name() + ": " + e.getMessage(),
+                    element
+            );
+            return;
+        }
+        if (limits.isLimited() && !data.handlerFactory()) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Command " + data.name() + " declares a cooldown or rate limit but " + data.handlerClass()
+                            + " is not a command handler",
+                    element
             );
+        }
+    }
 
-            try (Writer writer = resource.openWriter()) {
-                writer.write("# Auto-generated command definitions\n");
-                writer.write("commands:\n");
+    private void checkCache(CommandData data, Element element) {
+        if (data.cacheTtl().isEmpty()) {
+            return;
+        }
+        try {
+            CommandLimits.parseDuration(data.cacheTtl());
+        } catch (IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Cannot parse cache TTL '" + data.cacheTtl() + "' of command " + data.name() + ": " + e.getMessage(),
+                    element
+            );
+            return;
+        }
+        if (!data.handlerFactory()) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Command " + data.name() + " declares a cache TTL but " + data.handlerClass()
+                            + " is not a command handler",
+                    element
+            );
+        } else if (element instanceof TypeElement type && reader.hasMethodSubcommands(type)) {
+            // The cached response of the class would be served for its subcommands as well
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Command " + data.name() + " declares a cache TTL but routes method subcommands; "
+                            + "declare it on the subcommands instead",
+                    element
+            );
+        }
+    }
 
-                for (CommandData command : commands.values()) {
-                    writer.write("  " + command.name() + ":\n");
-                    writer.write("    description: \"" + command.description() + "\"\n");
+    private void checkMessages(CommandData data, Element element) {
+        checkMessage("permission message", data.permissionMessage(), data, element);
+        checkMessage("usage", data.usage(), data, element);
+        checkMessage("description", data.description(), data, element);
+        checkMessage("cooldown message", data.cooldownMessage(), data, element);
+        MessageTemplate permissionMessage = MessageTemplate.orLiteral(data.permissionMessage());
+        for (String placeholder : permissionMessage.placeholders()) {
+            if (!MessageTemplate.PERMISSION_PLACEHOLDERS.contains(placeholder)) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Unknown placeholder {" + placeholder + "} in permission message of command " + data.name()
+                                + ", expected {command}, {label} or {permission}",
+                        element
+                );
+            }
+        }
+        MessageTemplate cooldownMessage = MessageTemplate.orLiteral(data.cooldownMessage());
+        for (String placeholder : cooldownMessage.placeholders()) {
+            if (!MessageTemplate.COOLDOWN_PLACEHOLDERS.contains(placeholder)) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Unknown placeholder {" + placeholder + "} in cooldown message of command " + data.name()
+                                + ", expected {seconds}, {time} or {command}",
+                        element
+                );
+            }
+        }
+    }
 
-                    if (!command.usage().isEmpty()) {
-                        writer.write("    usage: \"" + command.usage() + "\"\n");
-                    } else {
-                        writer.write("    usage: \"/" + command.name() + "\"\n");
-                    }
+    private void checkMessage(String kind, String message, CommandData data, Element element) {
+        try {
+            MessageTemplate.parse(message);
+        } catch (IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Cannot parse " + kind + " '" + message + "' of command " + data.name() + ": " + e.getMessage(),
+                    element
+            );
+        }
+    }
 
-                    if (!command.permission().isEmpty()) {
-                        writer.write("    permission: \"" + command.permission() + "\"\n");
-                    }
+    private void addCommand(CommandData data, Element element, TypeElement originatingElement) {
+        if (registryGenerated) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Command " + data.name() + " was found after "
+                            + RegistryWriter.CLASS_NAME + " had been generated",
+                    element
+            );
+        }
 
-                    if (!command.permissionMessage().isEmpty()) {
-                        writer.write("    permission-message: \"" + command.permissionMessage() + "\"\n");
-                    }
+        commands.put(data.key(), data);
+        originatingElements.put(data.key(), originatingElement);
+
+        processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.NOTE,
+                data.isMethod()
+                        ? "Found command: " + data.name() + " in method " + originatingElement.getSimpleName()
+                                + "." + data.handlerMethod()
+                        : "Found command: " + data.name() + " in class " + originatingElement.getSimpleName()
+        );
+    }
+
+    private void recordPhase(String phase, long start) {
+        if (stats != null) {
+            stats.phase(phase, start);
+        }
+    }
 
-                    if (command.aliases().length > 0) {
-                        writer.write("    aliases: [");
-                        for (int i = 0; i < command.aliases().length; i++) {
-                            writer.write("\"" + command.aliases()[i] + "\"");
-                            if (i < command.aliases().length - 1) {
-                                writer.write(", ");
-                            }
+    private void writeStats() {
+        try {
+            FileObject report = processingEnv.getFiler()
+                    .createResource(StandardLocation.SOURCE_OUTPUT, "", ProcessorStats.FILE_NAME);
+            try (Writer writer = report.openWriter()) {
+                writer.write(stats.render());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.WARNING,
+                    "Failed to write " + ProcessorStats.FILE_NAME + ": " + e.getMessage()
+            );
+        }
+    }
+
+    /**
+     * Adds the commands of classes that are not part of this compilation from the cache of the
+     * previous build. Cached classes that no longer exist or are no longer annotated are dropped.
+     */
+    private void mergeCachedCommands() {
+        int reused = 0;
+        for (CommandData cached : CommandCache.read(processingEnv.getFiler()).values()) {
+            if (extractedTypes.contains(cached.handlerClass()) || commands.containsKey(cached.key())) {
+                continue;
+            }
+
+            TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(cached.handlerClass());
+            if (typeElement == null || reader.find(typeElement) == null) {
+                continue;
+            }
+
+            commands.put(cached.key(), cached);
+            originatingElements.put(cached.key(), typeElement);
+            reused++;
+        }
+
+        if (reused > 0) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.NOTE,
+                    "Reused " + reused + " cached " + (reused == 1 ? "command" : "commands")
+            );
+        }
+    }
+
+    private void writeCache() {
+        try {
+            CommandCache.write(processingEnv.getFiler(), commands.values(),
+                    originatingElements.values().toArray(new Element[0]));
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.WARNING,
+                    "Failed to write " + CommandCache.FILE_NAME + ", the next build will reprocess all commands: "
+                            + e.getMessage()
+            );
+        }
+    }
+
+    private void generateRegistry() {
+        List<CommandData> sorted = sortedCommands();
+
+        String packageName = processingEnv.getOptions().get(OPTION_PACKAGE);
+        if (packageName == null) {
+            packageName = RegistryWriter.commonPackage(sorted);
+        }
+
+        for (CommandData command : sorted) {
+            if (!command.isHandlerAccessibleFrom(packageName)) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.WARNING,
+                        "Command " + command.name() + " is handled by " + command.handlerClass()
+                                + ", which is not accessible from package '" + packageName
+                                + "'; its handler will not be registered"
+                );
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        DispatchTableBuilder dispatch = new DispatchTableBuilder()
+                .addAll(sorted, errors::add)
+                .build();
+        for (String error : errors) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, error);
+        }
+
+        RegistryWriter registry = new RegistryWriter(packageName, sorted, dispatch, helpPageSize());
+
+        // Colliding subcommand tokens would also fail the dispatcher's switch, so only report them once
+        if (errors.isEmpty()) {
+            generateSubcommandDispatchers(sorted, registry.qualifiedName());
+        }
+        generateArguments(sorted);
+
+        try {
+            JavaFileObject source = processingEnv.getFiler().createSourceFile(
+                    registry.qualifiedName(),
+                    originatingElements.values().toArray(new Element[0])
+            );
+
+            try (Writer writer = source.openWriter()) {
+                writer.write(registry.render());
+            }
+
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Failed to generate " + registry.qualifiedName() + ": " + e.getMessage()
+            );
+        }
+    }
+
+    private void generateArguments(List<CommandData> sorted) {
+        for (CommandData command : sorted) {
+            if (command.isMethod() || !command.parseArguments()) {
+                continue;
+            }
+
+            UsageGrammar grammar;
+            try {
+                grammar = UsageGrammar.parse(command.usage());
+            } catch (IllegalArgumentException e) {
+                // Already reported while extracting the command
+                continue;
+            }
+
+            ArgumentsWriter arguments = new ArgumentsWriter(command, grammar);
+            try {
+                JavaFileObject source = processingEnv.getFiler().createSourceFile(
+                        arguments.qualifiedName(),
+                        originatingElements.get(command.key())
+                );
+
+                try (Writer writer = source.openWriter()) {
+                    writer.write(arguments.render());
+                }
+
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Failed to generate " + arguments.qualifiedName() + ": " + e.getMessage()
+                );
+            }
+        }
+    }
+
+    private void generateSubcommandDispatchers(List<CommandData> sorted, String registry) {
+        Map<String, List<CommandData>> methods = SubcommandDispatcherWriter.methodsByClass(sorted);
+        Map<String, Integer> idsByKey = new HashMap<>();
+        for (int id = 0; id < sorted.size(); id++) {
+            idsByKey.put(sorted.get(id).key(), id);
+        }
+        for (CommandData command : sorted) {
+            List<CommandData> subcommands = methods.get(command.handlerClass());
+            if (command.isMethod() || subcommands == null) {
+                continue;
+            }
+
+            int[] ids = new int[subcommands.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = idsByKey.get(subcommands.get(i).key());
+            }
+            SubcommandDispatcherWriter dispatcher = new SubcommandDispatcherWriter(command, subcommands, registry, ids);
+            try {
+                JavaFileObject source = processingEnv.getFiler().createSourceFile(
+                        dispatcher.qualifiedName(),
+                        originatingElements.get(command.key())
+                );
+
+                try (Writer writer = source.openWriter()) {
+                    writer.write(dispatcher.render());
+                }
+
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Failed to generate " + dispatcher.qualifiedName() + ": " + e.getMessage()
+                );
+            }
+        }
+    }
+
+    private int helpPageSize() {
+        String value = processingEnv.getOptions().get(OPTION_HELP_PAGE_SIZE);
+        if (value == null) {
+            return DEFAULT_HELP_PAGE_SIZE;
+        }
+        try {
+            int pageSize = Integer.parseInt(value.trim());
+            if (pageSize > 0) {
+                return pageSize;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.ERROR,
+                "Invalid " + OPTION_HELP_PAGE_SIZE + " '" + value + "', expected a positive number"
+        );
+        return DEFAULT_HELP_PAGE_SIZE;
+    }
+
+    private void generatePluginYmlFragment() {
+        List<CommandData> sorted = sortedCommands();
+        PermissionHierarchy permissions = PermissionHierarchy.of(sorted);
+        try {
+            StringBuilder yaml = new StringBuilder(estimateYamlSize(sorted, permissions));
+            yaml.append("# Auto-generated command definitions\n");
+            yaml.append("commands:\n");
+
+            for (CommandData command : sorted) {
+                yaml.append("  ").append(command.name()).append(":\n");
+                yaml.append("    description: \"").append(command.description()).append("\"\n");
+
+                if (!command.usage().isEmpty()) {
+                    yaml.append("    usage: \"").append(command.displayUsage()).append("\"\n");
+                } else {
+                    yaml.append("    usage: \"/").append(command.name()).append("\"\n");
+                }
+
+                if (!command.permission().isEmpty()) {
+                    yaml.append("    permission: \"").append(command.permission()).append("\"\n");
+                }
+
+                if (!command.permissionMessage().isEmpty()) {
+                    yaml.append("    permission-message: \"").append(command.permissionMessage()).append("\"\n");
+                }
+
+                List<String> aliases = command.aliases();
+                if (!aliases.isEmpty()) {
+                    yaml.append("    aliases: [");
+                    for (int i = 0; i < aliases.size(); i++) {
+                        if (i > 0) {
+                            yaml.append(", ");
                         }
-                        writer.write("]\n");
+                        yaml.append('"').append(aliases.get(i)).append('"');
                     }
+                    yaml.append("]\n");
+                }
 
-                    writer.write("\n");
+                yaml.append('\n');
+            }
+
+            List<String> wildcards = permissions.wildcards();
+            if (!wildcards.isEmpty()) {
+                yaml.append("permissions:\n");
+                for (String wildcard : wildcards) {
+                    yaml.append("  \"").append(wildcard).append("\":\n");
+                    yaml.append("    description: \"Grants all permissions under ")
+                            .append(wildcard, 0, wildcard.length() - 2).append("\"\n");
+                    yaml.append("    children:\n");
+                    for (String child : permissions.children(wildcard)) {
+                        yaml.append("      \"").append(child).append("\": true\n");
+                    }
+                    yaml.append('\n');
                 }
             }
 
+            boolean written = GeneratedResources.writeIfChanged(
+                    processingEnv.getFiler(),
+                    StandardLocation.CLASS_OUTPUT,
+                    "commands.yml",
+                    yaml.toString().getBytes(StandardCharsets.UTF_8),
+                    originatingElements.values().toArray(new Element[0])
+            );
+
             processingEnv.getMessager().printMessage(
                     Diagnostic.Kind.NOTE,
-                    "Generated commands.yml with " + commands.size() + " commands"
+                    written
+                            ? "Generated commands.yml with " + sorted.size() + " commands"
+                            : "commands.yml with " + sorted.size() + " commands is up to date"
             );
 
         } catch (IOException e) {
@@ -138,14 +691,118 @@ public final class CommandAnnotationProcessor extends AbstractProcessor {
                     "Failed to generate commands.yml: " + e.getMessage()
             );
         }
+
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_INDEX))) {
+            generateCommandIndex(sorted);
+        }
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_ROUTES))) {
+            generateRoutingManifest(sorted);
+        }
+    }
+
+    private void generateCommandIndex(List<CommandData> sorted) {
+        try {
+            boolean written = GeneratedResources.writeIfChanged(
+                    processingEnv.getFiler(),
+                    StandardLocation.CLASS_OUTPUT,
+                    "commands.idx",
+                    CommandIndexWriter.write(sorted),
+                    originatingElements.values().toArray(new Element[0])
+            );
+
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.NOTE,
+                    written
+                            ? "Generated commands.idx with " + sorted.size() + " commands"
+                            : "commands.idx with " + sorted.size() + " commands is up to date"
+            );
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Failed to generate commands.idx: " + e.getMessage()
+            );
+        }
+    }
+
+    private void generateRoutingManifest(List<CommandData> sorted) {
+        String namespace = processingEnv.getOptions().get(OPTION_NAMESPACE);
+        Map<String, CommandData> routes = new TreeMap<>();
+        for (CommandData command : sorted) {
+            if (command.name().indexOf('.') < 0) {
+                List<String> tokens = new ArrayList<>();
+                tokens.add(command.name());
+                tokens.addAll(command.aliases());
+                for (String token : tokens) {
+                    routes.putIfAbsent(token.toLowerCase(Locale.ROOT), command);
+                    if (namespace != null && !namespace.isBlank()) {
+                        routes.putIfAbsent((namespace.trim() + ":" + token).toLowerCase(Locale.ROOT), command);
+                    }
+                }
+            }
+        }
+
+        StringBuilder manifest = new StringBuilder("# token\tcommand\tpermission\n");
+        for (var route : routes.entrySet()) {
+            CommandData command = route.getValue();
+            manifest.append(route.getKey()).append('\t').append(command.name());
+            if (!command.permission().isEmpty()) {
+                manifest.append('\t').append(command.permission());
+            }
+            manifest.append('\n');
+        }
+
+        try {
+            boolean written = GeneratedResources.writeIfChanged(
+                    processingEnv.getFiler(),
+                    StandardLocation.CLASS_OUTPUT,
+                    CommandRouter.MANIFEST,
+                    manifest.toString().getBytes(StandardCharsets.UTF_8),
+                    originatingElements.values().toArray(new Element[0])
+            );
+
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.NOTE,
+                    written
+                            ? "Generated " + CommandRouter.MANIFEST + " with " + routes.size() + " routes"
+                            : CommandRouter.MANIFEST + " with " + routes.size() + " routes is up to date"
+            );
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Failed to generate " + CommandRouter.MANIFEST + ": " + e.getMessage()
+            );
+        }
     }
 
-    private record CommandData(
-            String name, 
-            String description, 
-            String permission,
-            String permissionMessage,
-            String usage,
-            String[] aliases) {
+    /**
+     * Returns an upper bound of the size of the generated YAML, including its permissions section,
+     * so it is built without resizing.
+     */
+    private static int estimateYamlSize(List<CommandData> commands, PermissionHierarchy permissions) {
+        int size = 64;
+        for (CommandData command : commands) {
+            size += 128 + 2 * command.name().length() + command.description().length() + command.usage().length()
+                    + 2 * command.permission().length() + command.permissionMessage().length();
+            for (String alias : command.aliases()) {
+                size += alias.length() + 4;
+            }
+        }
+        for (String wildcard : permissions.wildcards()) {
+            size += 64 + 2 * wildcard.length();
+            for (String child : permissions.children(wildcard)) {
+                size += child.length() + 16;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns all commands ordered by name, then by handler class, so generated output is
+     * byte-for-byte stable between builds.
+     */
+    private List<CommandData> sortedCommands() {
+        List<CommandData> sorted = new ArrayList<>(commands.values());
+        sorted.sort(Comparator.comparing(CommandData::name).thenComparing(CommandData::handlerClass));
+        return sorted;
     }
 }
@@ -0,0 +1,199 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.CacheScope;
+import dev.flur.commands.Execution;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The on-disk cache of extracted commands, keyed by the class they were declared on.
+ * <p>
+ * Incremental builds only hand the processor the classes that changed. The cache keeps the
+ * commands of every other class from the previous build, so the generated registry and YAML
+ * still cover the whole module without re-extracting unchanged classes. It is stored in the
+ * source output directory, which is not packaged into the final JAR.
+ * <p>
+ * Each line holds one command as tab separated, backslash escaped fields.
+ */
+final class CommandCache {
+
+    static final String FILE_NAME = "commands-processor.cache";
+
+    private static final String HEADER = "# commands-processor cache v8";
+
+    /**
+     * The number of fields preceding the aliases, the last of which is the alias count.
+     */
+    private static final int FIXED_FIELDS = 25;
+
+    private CommandCache() {
+    }
+
+    /**
+     * Reads the cache of the previous build.
+     *
+     * @return the cached commands keyed by {@link CommandData#key()}, or an empty map if there is no usable cache
+     */
+    static Map<String, CommandData> read(Filer filer) {
+        Map<String, CommandData> commands = new LinkedHashMap<>();
+        try {
+            FileObject resource = filer.getResource(StandardLocation.SOURCE_OUTPUT, "", FILE_NAME);
+            try (Reader reader = resource.openReader(true);
+                 BufferedReader lines = new BufferedReader(reader)) {
+                if (!HEADER.equals(lines.readLine())) {
+                    return commands;
+                }
+                for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                    CommandData command = decode(line);
+                    if (command == null) {
+                        // A corrupt cache is as good as none
+                        return new LinkedHashMap<>();
+                    }
+                    commands.put(command.key(), command);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous build, or the location is not backed by a file system
+            return new LinkedHashMap<>();
+        }
+        return commands;
+    }
+
+    /**
+     * Writes the given commands as the cache for the next build.
+     */
+    static void write(Filer filer, Collection<CommandData> commands, Element[] originatingElements) throws IOException {
+        StringBuilder out = new StringBuilder(HEADER.length() + 1 + commands.size() * 128);
+        out.append(HEADER).append('\n');
+        for (CommandData command : commands) {
+            encode(out, command);
+            out.append('\n');
+        }
+        GeneratedResources.writeIfChanged(filer, StandardLocation.SOURCE_OUTPUT, FILE_NAME,
+                out.toString().getBytes(StandardCharsets.UTF_8), originatingElements);
+    }
+
+    private static void encode(StringBuilder out, CommandData command) {
+        field(out, command.handlerClass());
+        field(out, command.handlerBinaryName());
+        field(out, command.handlerPackage());
+        field(out, command.handlerPublic() ? "1" : "0");
+        field(out, command.handlerPrivate() ? "1" : "0");
+        field(out, command.handlerInterface() ? "1" : "0");
+        field(out, command.handlerTyped() ? "1" : "0");
+        field(out, command.handlerFactory() ? "1" : "0");
+        field(out, command.handlerConstructorPublic() ? "1" : "0");
+        field(out, command.handlerMethod());
+        field(out, command.methodStatic() ? "1" : "0");
+        field(out, command.methodReturnsBoolean() ? "1" : "0");
+        field(out, command.name());
+        field(out, command.description());
+        field(out, command.permission());
+        field(out, command.permissionMessage());
+        field(out, command.usage());
+        field(out, command.parseArguments() ? "1" : "0");
+        field(out, command.execution().name());
+        field(out, command.cooldown());
+        field(out, command.rateLimit());
+        field(out, command.cacheTtl());
+        field(out, command.cacheScope().name());
+        field(out, command.cooldownMessage());
+        field(out, Integer.toString(command.aliases().size()));
+        for (String alias : command.aliases()) {
+            field(out, alias);
+        }
+        out.setLength(out.length() - 1);
+    }
+
+    private static void field(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+        out.append('\t');
+    }
+
+    private static CommandData decode(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                field.append(switch (escaped) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> escaped;
+                });
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+
+        if (fields.size() < FIXED_FIELDS) {
+            return null;
+        }
+        int aliasCount = Integer.parseInt(fields.get(FIXED_FIELDS - 1));
+        if (fields.size() != FIXED_FIELDS + aliasCount) {
+            return null;
+        }
+        Execution execution;
+        CacheScope cacheScope;
+        try {
+            execution = Execution.valueOf(fields.get(18));
+            cacheScope = CacheScope.valueOf(fields.get(22));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return new CommandData(
+                fields.get(12),
+                fields.get(13),
+                fields.get(14),
+                fields.get(15),
+                fields.get(16),
+                "1".equals(fields.get(17)),
+                execution,
+                fields.get(19),
+                fields.get(20),
+                fields.get(23),
+                fields.get(21),
+                cacheScope,
+                List.copyOf(fields.subList(FIXED_FIELDS, fields.size())),
+                fields.get(0),
+                fields.get(1),
+                fields.get(2),
+                "1".equals(fields.get(3)),
+                "1".equals(fields.get(4)),
+                "1".equals(fields.get(5)),
+                "1".equals(fields.get(6)),
+                "1".equals(fields.get(7)),
+                "1".equals(fields.get(8)),
+                fields.get(9),
+                "1".equals(fields.get(10)),
+                "1".equals(fields.get(11))
+        );
+    }
+}
@@ -0,0 +1,163 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.CacheScope;
+import dev.flur.commands.Execution;
+
+import java.util.List;
+
+/**
+ * The metadata of a single command as collected by the {@link CommandAnnotationProcessor}.
+ *
+ * @param name              the command name
+ * @param description       the command description
+ * @param permission        the permission node
+ * @param permissionMessage the permission denied message
+ * @param usage             the raw usage message, possibly empty
+ * @param parseArguments    whether an argument parser is generated from the usage
+ * @param execution         the thread the handler runs on
+ * @param cooldown          the raw cooldown duration, possibly empty
+ * @param rateLimit         the raw rate limit, possibly empty
+ * @param cooldownMessage   the message sent while the cooldown or rate limit rejects a use
+ * @param cacheTtl          the raw time to live of cached responses, possibly empty
+ * @param cacheScope        the key cached responses are shared by
+ * @param aliases           the command aliases, as an immutable list
+ * @param handlerClass      the canonical name of the annotated class
+ * @param handlerBinaryName the binary name of the annotated class
+ * @param handlerPackage    the package of the annotated class
+ * @param handlerPublic     whether the annotated class and all its enclosing classes are public
+ * @param handlerPrivate    whether the annotated class or one of its enclosing classes is private
+ * @param handlerInterface  whether the annotated class implements {@code CommandHandler}
+ * @param handlerTyped      whether the annotated class implements {@code TypedCommandHandler}
+ * @param handlerFactory    whether the annotated class implements one of the handler interfaces or declares
+ *                          method subcommands, and can be instantiated through its no-argument constructor
+ * @param handlerConstructorPublic whether that no-argument constructor is public
+ * @param handlerMethod     the name of the annotated method of a method subcommand, or an empty
+ *                          string if the annotated element is the class
+ * @param methodStatic      whether the annotated method is static
+ * @param methodReturnsBoolean whether the annotated method returns {@code boolean} rather than {@code void}
+ */
+record CommandData(
+        String name,
+        String description,
+        String permission,
+        String permissionMessage,
+        String usage,
+        boolean parseArguments,
+        Execution execution,
+        String cooldown,
+        String rateLimit,
+        String cooldownMessage,
+        String cacheTtl,
+        CacheScope cacheScope,
+        List<String> aliases,
+        String handlerClass,
+        String handlerBinaryName,
+        String handlerPackage,
+        boolean handlerPublic,
+        boolean handlerPrivate,
+        boolean handlerInterface,
+        boolean handlerTyped,
+        boolean handlerFactory,
+        boolean handlerConstructorPublic,
+        String handlerMethod,
+        boolean methodStatic,
+        boolean methodReturnsBoolean) {
+
+    /**
+     * Returns the key identifying the annotated element, unique within a compilation.
+     */
+    String key() {
+        return handlerMethod.isEmpty() ? handlerClass : handlerClass + "#" + handlerMethod;
+    }
+
+    /**
+     * Returns whether this command is declared on a method of its handler class.
+     */
+    boolean isMethod() {
+        return !handlerMethod.isEmpty();
+    }
+
+    /**
+     * Returns the subcommand token of a method subcommand, the last segment of its name.
+     */
+    String subcommandToken() {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Returns the fully qualified name of a class generated for the handler class, named after the
+     * handler's nested class names joined by underscores followed by the given suffix.
+     */
+    String generatedClassName(String suffix) {
+        String simpleName = (handlerPackage.isEmpty() ? handlerClass : handlerClass.substring(handlerPackage.length() + 1))
+                .replace('.', '_') + suffix;
+        return handlerPackage.isEmpty() ? simpleName : handlerPackage + "." + simpleName;
+    }
+
+    /**
+     * Returns the usage message, falling back to {@code "/" + name} when none was declared.
+     */
+    String effectiveUsage() {
+        return usage.isEmpty() ? "/" + name : displayUsage();
+    }
+
+    /**
+     * Returns the message sent when a source lacks the permission, falling back to a default
+     * message for commands with a permission but no message, and to an empty message for commands
+     * without a permission.
+     */
+    String effectivePermissionMessage() {
+        if (!permissionMessage.isEmpty() || permission.isEmpty()) {
+            return permissionMessage;
+        }
+        return "You do not have permission to use this command.";
+    }
+
+    /**
+     * Returns the message sent while the cooldown or rate limit of the command rejects a use,
+     * falling back to a default message.
+     */
+    String effectiveCooldownMessage() {
+        return cooldownMessage.isEmpty() ? "You must wait {time} before using this command again." : cooldownMessage;
+    }
+
+    /**
+     * Returns the line describing the command on help pages: its usage, description and aliases,
+     * with color codes translated. Subcommands without a usage are shown with spaces instead of
+     * dots, as players type them.
+     */
+    String helpLine() {
+        StringBuilder line = new StringBuilder(usage.isEmpty()
+                ? "/" + name.replace('.', ' ')
+                : MessageTemplate.orLiteral(displayUsage()).render());
+        if (!description.isEmpty()) {
+            line.append(" - ").append(MessageTemplate.orLiteral(description).render());
+        }
+        if (!aliases.isEmpty()) {
+            line.append(" (aliases: ").append(String.join(", ", aliases)).append(')');
+        }
+        return line.toString().replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * Returns the usage message as shown to players, without parameter type declarations.
+     */
+    String displayUsage() {
+        return parseArguments ? UsageGrammar.display(usage) : usage;
+    }
+
+    /**
+     * Returns whether the handler class can be referenced from source code in the given package.
+     */
+    boolean isHandlerAccessibleFrom(String packageName) {
+        return handlerPublic || (!handlerPrivate && handlerPackage.equals(packageName));
+    }
+
+    /**
+     * Returns whether the handler can be instantiated from source code in the given package.
+     */
+    boolean isHandlerInstantiableFrom(String packageName) {
+        return handlerFactory && isHandlerAccessibleFrom(packageName)
+                && (handlerConstructorPublic || handlerPackage.equals(packageName));
+    }
+}
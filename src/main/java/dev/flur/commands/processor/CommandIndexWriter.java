@@ -0,0 +1,114 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.runtime.CommandIndex;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Renders the binary {@code commands.idx} file read by a {@code CommandIndex}.
+ * <p>
+ * Strings are deduplicated in order of first use, so commands sharing a permission or message
+ * store it once, and the keys are sorted by their UTF-8 bytes to match the binary search of the
+ * reader. Given the commands in the same order, the output is identical between builds.
+ */
+final class CommandIndexWriter {
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    private CommandIndexWriter() {
+    }
+
+    /**
+     * Renders the index of the given commands, ordered by name.
+     */
+    static byte[] write(List<CommandData> commands) {
+        return new CommandIndexWriter().render(commands);
+    }
+
+    private byte[] render(List<CommandData> commands) {
+        int[] records = new int[commands.size() * (CommandIndex.RECORD_SIZE / 4)];
+        List<Integer> aliases = new ArrayList<>();
+        TreeMap<byte[], Integer> keys = new TreeMap<>(Arrays::compareUnsigned);
+        int field = 0;
+        for (int id = 0; id < commands.size(); id++) {
+            CommandData command = commands.get(id);
+            records[field++] = string(command.name());
+            records[field++] = string(command.description());
+            records[field++] = string(command.effectiveUsage());
+            records[field++] = string(command.permission());
+            records[field++] = string(command.permissionMessage());
+            records[field++] = aliases.size();
+            records[field++] = command.aliases().size();
+            keys.putIfAbsent(key(command.name()), id);
+            String parent = command.name().substring(0, command.name().lastIndexOf('.') + 1);
+            for (String alias : command.aliases()) {
+                aliases.add(string(alias));
+                keys.putIfAbsent(key(parent + alias), id);
+            }
+        }
+        int[] keyStrings = new int[keys.size()];
+        int key = 0;
+        for (byte[] token : keys.keySet()) {
+            keyStrings[key++] = string(new String(token, StandardCharsets.UTF_8));
+        }
+
+        byte[][] data = new byte[strings.size()][];
+        int dataSize = 0;
+        for (int i = 0; i < data.length; i++) {
+            data[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            dataSize += data[i].length;
+        }
+
+        int recordsOffset = CommandIndex.HEADER_SIZE;
+        int keysOffset = recordsOffset + records.length * 4;
+        int aliasesOffset = keysOffset + keys.size() * CommandIndex.KEY_SIZE;
+        int stringOffsetsOffset = aliasesOffset + aliases.size() * 4;
+        int stringDataOffset = stringOffsetsOffset + (data.length + 1) * 4;
+        ByteBuffer out = ByteBuffer.allocate(stringDataOffset + dataSize);
+        out.putInt(CommandIndex.MAGIC).putInt(CommandIndex.VERSION)
+                .putInt(commands.size()).putInt(recordsOffset)
+                .putInt(keys.size()).putInt(keysOffset)
+                .putInt(aliases.size()).putInt(aliasesOffset)
+                .putInt(data.length).putInt(stringOffsetsOffset).putInt(stringDataOffset);
+        for (int value : records) {
+            out.putInt(value);
+        }
+        key = 0;
+        for (int command : keys.values()) {
+            out.putInt(keyStrings[key++]).putInt(command);
+        }
+        for (int alias : aliases) {
+            out.putInt(alias);
+        }
+        int offset = 0;
+        for (byte[] string : data) {
+            out.putInt(offset);
+            offset += string.length;
+        }
+        out.putInt(offset);
+        for (byte[] string : data) {
+            out.put(string);
+        }
+        return out.array();
+    }
+
+    private int string(String value) {
+        return stringIds.computeIfAbsent(value, s -> {
+            strings.add(s);
+            return strings.size() - 1;
+        });
+    }
+
+    private static byte[] key(String token) {
+        return token.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,444 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.CacheScope;
+import dev.flur.commands.Execution;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+import dev.flur.commands.runtime.TypedCommandHandler;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.SimpleAnnotationValueVisitor14;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts {@link CommandData} from {@link CommandInfo} annotation mirrors.
+ * <p>
+ * Reading the annotation through {@link Element#getAnnotation(Class)} creates a dynamic proxy
+ * per element and clones array attributes on every access. This reader instead visits the
+ * explicitly declared values of the mirror exactly once and falls back to the attribute
+ * defaults for everything else. Enum values that do not resolve to a constant are reported on the
+ * annotation value and replaced by their default.
+ */
+final class CommandInfoReader {
+
+    private static final StringVisitor STRING = new StringVisitor();
+    private static final StringListVisitor STRING_LIST = new StringListVisitor();
+    private static final BooleanVisitor BOOLEAN = new BooleanVisitor();
+    private static final EnumVisitor ENUM = new EnumVisitor();
+
+    private final Elements elements;
+    private final Types types;
+    private final Messager messager;
+    private final TypeElement annotationType;
+    private final TypeMirror handlerType;
+    private final TypeMirror typedHandlerType;
+    private final TypeMirror sourceType;
+    private final TypeMirror stringType;
+
+    CommandInfoReader(Elements elements, Types types, Messager messager) {
+        this.elements = elements;
+        this.types = types;
+        this.messager = messager;
+        this.annotationType = elements.getTypeElement(CommandInfo.class.getCanonicalName());
+        this.handlerType = types.erasure(elements.getTypeElement(CommandHandler.class.getCanonicalName()).asType());
+        this.typedHandlerType = types.erasure(
+                elements.getTypeElement(TypedCommandHandler.class.getCanonicalName()).asType());
+        this.sourceType = elements.getTypeElement(CommandSource.class.getCanonicalName()).asType();
+        this.stringType = elements.getTypeElement(String.class.getCanonicalName()).asType();
+    }
+
+    /**
+     * Returns the type element of {@link CommandInfo}.
+     */
+    TypeElement annotationType() {
+        return annotationType;
+    }
+
+    /**
+     * Returns the {@link CommandInfo} mirror of the given element, or {@code null} if it is not annotated.
+     */
+    AnnotationMirror find(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns why the given class implements {@link CommandHandler} or declares method subcommands
+     * but cannot be instantiated by the generated registry, or {@code null} if there is no such problem.
+     */
+    String handlerProblem(TypeElement type) {
+        return handlerProblem(type, implementsHandler(type) || implementsTypedHandler(type) || hasMethodSubcommands(type));
+    }
+
+    private static String handlerProblem(TypeElement type, boolean instantiated) {
+        if (!instantiated) {
+            return null;
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "is abstract";
+        }
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && !type.getModifiers().contains(Modifier.STATIC)) {
+            return "is an inner class";
+        }
+        ExecutableElement constructor = noArgConstructor(type);
+        if (constructor == null || constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            return "has no non-private no-argument constructor";
+        }
+        return null;
+    }
+
+    /**
+     * Extracts the command declared by the given mirror on the given class.
+     */
+    CommandData read(TypeElement type, AnnotationMirror mirror) {
+        Attributes attributes = attributes(type, mirror);
+        boolean handler = implementsHandler(type);
+        boolean typedHandler = implementsTypedHandler(type);
+        boolean instantiated = handler || typedHandler || hasMethodSubcommands(type);
+        return new CommandData(
+                attributes.name(),
+                attributes.description(),
+                attributes.permission(),
+                attributes.permissionMessage(),
+                attributes.usage(),
+                attributes.parseArguments(),
+                attributes.execution() != null ? attributes.execution() : Execution.SYNC,
+                attributes.cooldown(),
+                attributes.rateLimit(),
+                attributes.cooldownMessage(),
+                attributes.cacheTtl(),
+                attributes.cacheScope(),
+                attributes.aliases(),
+                type.getQualifiedName().toString(),
+                elements.getBinaryName(type).toString(),
+                elements.getPackageOf(type).getQualifiedName().toString(),
+                isPublic(type),
+                isPrivate(type),
+                handler,
+                typedHandler,
+                instantiated && handlerProblem(type, instantiated) == null,
+                isConstructorPublic(type),
+                "",
+                false,
+                false
+        );
+    }
+
+    /**
+     * Returns the name of the first field of the given class or its superclasses that is neither
+     * final nor volatile, or {@code null} if there is none. Such fields are unsafe in a handler
+     * shared by concurrent asynchronous executions.
+     */
+    String mutableField(TypeElement type) {
+        for (TypeElement current = type; current != null; current = superclass(current)) {
+            if (current.getQualifiedName().contentEquals("java.lang.Object")) {
+                break;
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (!modifiers.contains(Modifier.FINAL) && !modifiers.contains(Modifier.VOLATILE)) {
+                    return field.getSimpleName().toString();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static TypeElement superclass(TypeElement type) {
+        return type.getSuperclass() instanceof DeclaredType superclass
+                ? (TypeElement) superclass.asElement()
+                : null;
+    }
+
+    /**
+     * Returns why the given method cannot be a subcommand, or {@code null} if it can.
+     */
+    String methodProblem(ExecutableElement method) {
+        if (!(method.getEnclosingElement() instanceof TypeElement type) || find(type) == null) {
+            return "must be declared in a class annotated with @CommandInfo";
+        }
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.ABSTRACT)) {
+            return "must not be private or abstract";
+        }
+        List<? extends VariableElement> parameters = method.getParameters();
+        if (parameters.size() != 3
+                || !types.isSameType(parameters.get(0).asType(), sourceType)
+                || !types.isSameType(parameters.get(1).asType(), stringType)
+                || !types.isSameType(parameters.get(2).asType(), types.getArrayType(stringType))) {
+            return "must accept (CommandSource, String, String[])";
+        }
+        TypeKind returnType = method.getReturnType().getKind();
+        if (returnType != TypeKind.BOOLEAN && returnType != TypeKind.VOID) {
+            return "must return boolean or void";
+        }
+        String token = name(find(method));
+        if (token.isEmpty() || token.indexOf('.') >= 0 || token.indexOf(' ') >= 0) {
+            return "must be named with a single token without dots or spaces";
+        }
+        return null;
+    }
+
+    /**
+     * Extracts the subcommand declared by the given mirror on the given method of the given command.
+     */
+    CommandData readMethod(ExecutableElement method, AnnotationMirror mirror, CommandData parent) {
+        Attributes attributes = attributes(method, mirror);
+        return new CommandData(
+                parent.name() + "." + attributes.name(),
+                attributes.description(),
+                attributes.permission(),
+                attributes.permissionMessage(),
+                attributes.usage(),
+                attributes.parseArguments(),
+                attributes.execution() != null ? attributes.execution() : parent.execution(),
+                attributes.cooldown(),
+                attributes.rateLimit(),
+                attributes.cooldownMessage(),
+                attributes.cacheTtl(),
+                attributes.cacheScope(),
+                attributes.aliases(),
+                parent.handlerClass(),
+                parent.handlerBinaryName(),
+                parent.handlerPackage(),
+                parent.handlerPublic(),
+                parent.handlerPrivate(),
+                parent.handlerInterface(),
+                parent.handlerTyped(),
+                parent.handlerFactory(),
+                parent.handlerConstructorPublic(),
+                method.getSimpleName().toString(),
+                method.getModifiers().contains(Modifier.STATIC),
+                method.getReturnType().getKind() == TypeKind.BOOLEAN
+        );
+    }
+
+    private static String name(AnnotationMirror mirror) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("name")) {
+                return entry.getValue().accept(STRING, null);
+            }
+        }
+        return "";
+    }
+
+    private Attributes attributes(Element element, AnnotationMirror mirror) {
+        String name = "";
+        String description = "";
+        String permission = "";
+        String permissionMessage = "";
+        String usage = "";
+        List<String> aliases = List.of();
+        boolean parseArguments = false;
+        Execution execution = null;
+        String cooldown = "";
+        String rateLimit = "";
+        String cooldownMessage = "";
+        String cacheTtl = "";
+        CacheScope cacheScope = CacheScope.ARGUMENTS;
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            Name attribute = entry.getKey().getSimpleName();
+            AnnotationValue value = entry.getValue();
+            if (attribute.contentEquals("name")) {
+                name = value.accept(STRING, null);
+            } else if (attribute.contentEquals("description")) {
+                description = value.accept(STRING, null);
+            } else if (attribute.contentEquals("permission")) {
+                permission = value.accept(STRING, null);
+            } else if (attribute.contentEquals("permissionMessage")) {
+                permissionMessage = value.accept(STRING, null);
+            } else if (attribute.contentEquals("usage")) {
+                usage = value.accept(STRING, null);
+            } else if (attribute.contentEquals("aliases")) {
+                aliases = value.accept(STRING_LIST, null);
+            } else if (attribute.contentEquals("parseArguments")) {
+                parseArguments = value.accept(BOOLEAN, null);
+            } else if (attribute.contentEquals("execution")) {
+                execution = constant(Execution.class, element, mirror, value, null);
+            } else if (attribute.contentEquals("cooldown")) {
+                cooldown = value.accept(STRING, null);
+            } else if (attribute.contentEquals("rateLimit")) {
+                rateLimit = value.accept(STRING, null);
+            } else if (attribute.contentEquals("cooldownMessage")) {
+                cooldownMessage = value.accept(STRING, null);
+            } else if (attribute.contentEquals("cacheTtl")) {
+                cacheTtl = value.accept(STRING, null);
+            } else if (attribute.contentEquals("cacheScope")) {
+                cacheScope = constant(CacheScope.class, element, mirror, value, CacheScope.ARGUMENTS);
+            }
+        }
+        return new Attributes(name, description, permission, permissionMessage, usage, aliases, parseArguments,
+                execution, cooldown, rateLimit, cooldownMessage, cacheTtl, cacheScope);
+    }
+
+    /**
+     * Returns the constant an enum value names, or reports the value and returns the fallback if it
+     * does not resolve to a constant, as for a misspelled or unresolved constant.
+     */
+    private <E extends Enum<E>> E constant(Class<E> type, Element element, AnnotationMirror mirror,
+                                           AnnotationValue value, E fallback) {
+        String constant = value.accept(ENUM, null);
+        for (E candidate : type.getEnumConstants()) {
+            if (candidate.name().equals(constant)) {
+                return candidate;
+            }
+        }
+        StringBuilder expected = new StringBuilder();
+        for (E candidate : type.getEnumConstants()) {
+            expected.append(expected.isEmpty() ? "" : ", ").append(candidate.name());
+        }
+        messager.printMessage(Diagnostic.Kind.ERROR, "Invalid " + type.getSimpleName() + " '" + value
+                + "', expected one of " + expected, element, mirror, value);
+        return fallback;
+    }
+
+    /**
+     * Returns whether the given class declares method subcommands.
+     */
+    boolean hasMethodSubcommands(TypeElement type) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (find(method) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean implementsHandler(TypeElement type) {
+        return types.isAssignable(types.erasure(type.asType()), handlerType);
+    }
+
+    private boolean implementsTypedHandler(TypeElement type) {
+        return types.isAssignable(types.erasure(type.asType()), typedHandlerType);
+    }
+
+    private static ExecutableElement noArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isConstructorPublic(TypeElement type) {
+        ExecutableElement constructor = noArgConstructor(type);
+        return constructor != null && constructor.getModifiers().contains(Modifier.PUBLIC);
+    }
+
+    private static boolean isPublic(Element element) {
+        for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPrivate(Element element) {
+        for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Attributes(
+            String name,
+            String description,
+            String permission,
+            String permissionMessage,
+            String usage,
+            List<String> aliases,
+            boolean parseArguments,
+            Execution execution,
+            String cooldown,
+            String rateLimit,
+            String cooldownMessage,
+            String cacheTtl,
+            CacheScope cacheScope) {
+    }
+
+    private static final class StringVisitor extends SimpleAnnotationValueVisitor14<String, Void> {
+
+        StringVisitor() {
+            super("");
+        }
+
+        @Override
+        public String visitString(String value, Void unused) {
+            return value;
+        }
+    }
+
+    private static final class BooleanVisitor extends SimpleAnnotationValueVisitor14<Boolean, Void> {
+
+        BooleanVisitor() {
+            super(false);
+        }
+
+        @Override
+        public Boolean visitBoolean(boolean value, Void unused) {
+            return value;
+        }
+    }
+
+    private static final class EnumVisitor extends SimpleAnnotationValueVisitor14<String, Void> {
+
+        EnumVisitor() {
+            super("");
+        }
+
+        @Override
+        public String visitEnumConstant(VariableElement constant, Void unused) {
+            return constant.getSimpleName().toString();
+        }
+    }
+
+    private static final class StringListVisitor extends SimpleAnnotationValueVisitor14<List<String>, Void> {
+
+        StringListVisitor() {
+            super(List.of());
+        }
+
+        @Override
+        public List<String> visitString(String value, Void unused) {
+            // A single value may be written without braces
+            return List.of(value);
+        }
+
+        @Override
+        public List<String> visitArray(List<? extends AnnotationValue> values, Void unused) {
+            String[] strings = new String[values.size()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = values.get(i).accept(STRING, null);
+            }
+            return List.of(strings);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package dev.flur.commands.processor;
+
+/**
+ * The cooldown and rate limit of a command, parsed from its {@code @CommandInfo} attributes.
+ * <p>
+ * Durations are one or more whole numbers, each followed by a unit of {@code ms}, {@code s},
+ * {@code m} or {@code h}, such as {@code "1m30s"}. Rate limits are a positive count and a duration
+ * separated by a slash, such as {@code "10/1m"}. The time to live of cached responses uses the same
+ * duration syntax.
+ *
+ * @param cooldownMillis        the cooldown in milliseconds, or {@code 0} for none
+ * @param rateLimit             the number of uses within the period, or {@code 0} for none
+ * @param rateLimitPeriodMillis the rate limit period in milliseconds, or {@code 0} for none
+ */
+record CommandLimits(long cooldownMillis, int rateLimit, long rateLimitPeriodMillis) {
+
+    static final CommandLimits NONE = new CommandLimits(0, 0, 0);
+
+    /**
+     * Parses the limits of the given command.
+     *
+     * @throws IllegalArgumentException if the cooldown or rate limit is malformed
+     */
+    static CommandLimits of(CommandData command) {
+        long cooldown = command.cooldown().isEmpty() ? 0 : parseDuration(command.cooldown());
+        if (command.rateLimit().isEmpty()) {
+            return new CommandLimits(cooldown, 0, 0);
+        }
+
+        String rateLimit = command.rateLimit();
+        int slash = rateLimit.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Expected a count and a duration separated by '/'");
+        }
+        int count;
+        try {
+            count = Integer.parseInt(rateLimit.substring(0, slash).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid count '" + rateLimit.substring(0, slash) + "'");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        long period = parseDuration(rateLimit.substring(slash + 1));
+        if (period < count) {
+            throw new IllegalArgumentException("Period must be at least one millisecond per use");
+        }
+        return new CommandLimits(cooldown, count, period);
+    }
+
+    /**
+     * Parses the limits of the given command, or returns {@link #NONE} if they are malformed.
+     * Malformed limits are reported while extracting the command.
+     */
+    static CommandLimits orNone(CommandData command) {
+        try {
+            return of(command);
+        } catch (IllegalArgumentException e) {
+            return NONE;
+        }
+    }
+
+    /**
+     * Returns whether the command has a cooldown or a rate limit.
+     */
+    boolean isLimited() {
+        return cooldownMillis > 0 || rateLimit > 0;
+    }
+
+    /**
+     * Parses a possibly empty duration into milliseconds, returning {@code 0} if it is empty or
+     * malformed. Malformed durations are reported while extracting the command.
+     */
+    static long durationOrZero(String duration) {
+        if (duration.isEmpty()) {
+            return 0;
+        }
+        try {
+            return parseDuration(duration);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses a duration into milliseconds.
+     *
+     * @throws IllegalArgumentException if the duration is malformed or not positive
+     */
+    static long parseDuration(String duration) {
+        String value = duration.trim();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Missing duration");
+        }
+        long millis = 0;
+        int position = 0;
+        while (position < value.length()) {
+            int start = position;
+            while (position < value.length() && Character.isDigit(value.charAt(position))) {
+                position++;
+            }
+            int unitStart = position;
+            while (position < value.length() && Character.isLetter(value.charAt(position))) {
+                position++;
+            }
+            if (start == unitStart || unitStart == position) {
+                throw new IllegalArgumentException("Invalid duration '" + value + "'");
+            }
+            long factor = switch (value.substring(unitStart, position)) {
+                case "ms" -> 1;
+                case "s" -> 1_000;
+                case "m" -> 60_000;
+                case "h" -> 3_600_000;
+                default -> throw new IllegalArgumentException("Unknown unit '" + value.substring(unitStart, position)
+                        + "' in duration '" + value + "', expected ms, s, m or h");
+            };
+            try {
+                millis = Math.addExact(millis, Math.multiplyExact(Long.parseLong(value.substring(start, unitStart)), factor));
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw new IllegalArgumentException("Duration '" + value + "' is too long");
+            }
+        }
+        if (millis == 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        return millis;
+    }
+}
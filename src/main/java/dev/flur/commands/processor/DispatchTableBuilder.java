@@ -0,0 +1,278 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.runtime.DispatchTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds the command tree and the minimal perfect hash of a {@link DispatchTable} at compile time.
+ * <p>
+ * Keys are distributed into buckets by their unseeded hash. Buckets are then placed largest
+ * first: for every bucket holding more than one key the builder searches a seed under which all
+ * its keys land in distinct free slots, and single-key buckets take the remaining free slots
+ * directly. A lookup therefore needs one bucket read and one slot read.
+ */
+final class DispatchTableBuilder {
+
+    private static final int MAX_SEED = 1 << 20;
+
+    private final List<Integer> nodeCommands = new ArrayList<>();
+    private final List<Integer> keyParents = new ArrayList<>();
+    private final List<String> keyTokens = new ArrayList<>();
+    private final List<Integer> keyTargets = new ArrayList<>();
+    private final List<String> keyOwners = new ArrayList<>();
+    private final Map<String, Integer> keys = new HashMap<>();
+
+    private int[] displacements;
+    private int[] slots;
+
+    DispatchTableBuilder() {
+        nodeCommands.add(-1);
+    }
+
+    /**
+     * Adds all commands to the tree, reporting names and aliases that collide with another command.
+     *
+     * @param commands the commands, indexed by id
+     * @param errors   receives a message for every collision
+     */
+    DispatchTableBuilder addAll(List<CommandData> commands, Consumer<String> errors) {
+        // Names first, so aliases can never shadow the command tree
+        int[] nodes = new int[commands.size()];
+        for (int id = 0; id < commands.size(); id++) {
+            CommandData command = commands.get(id);
+            if (!isToken(command.name()) || command.name().contains("..")
+                    || command.name().startsWith(".") || command.name().endsWith(".")) {
+                errors.accept("Command '" + command.name() + "' cannot be dispatched: names must not be blank, "
+                        + "contain spaces or empty subcommand segments");
+                nodes[id] = -1;
+                continue;
+            }
+            int node = DispatchTable.ROOT;
+            for (String segment : command.name().split("\\.")) {
+                node = childOf(node, segment, command.name());
+            }
+            if (nodeCommands.get(node) >= 0) {
+                errors.accept("Command '" + command.name() + "' is declared more than once");
+            }
+            nodeCommands.set(node, id);
+            nodes[id] = node;
+        }
+
+        for (int id = 0; id < commands.size(); id++) {
+            CommandData command = commands.get(id);
+            if (nodes[id] < 0) {
+                continue;
+            }
+            int parent = parentOf(command.name());
+            for (String alias : command.aliases()) {
+                if (!isToken(alias)) {
+                    errors.accept("Alias '" + alias + "' of command '" + command.name() + "' must not be blank or contain spaces");
+                    continue;
+                }
+                String key = key(parent, alias);
+                Integer existing = keys.get(key);
+                if (existing == null) {
+                    addKey(parent, alias, nodes[id], command.name());
+                } else if (keyTargets.get(existing) != nodes[id]) {
+                    errors.accept("Alias '" + alias + "' of command '" + command.name()
+                            + "' collides with command '" + keyOwners.get(existing) + "'");
+                }
+            }
+        }
+        return this;
+    }
+
+    private int parentOf(String name) {
+        int node = DispatchTable.ROOT;
+        String[] segments = name.split("\\.");
+        for (int i = 0; i < segments.length - 1; i++) {
+            node = keyTargets.get(keys.get(key(node, segments[i])));
+        }
+        return node;
+    }
+
+    private int childOf(int parent, String token, String owner) {
+        Integer key = keys.get(key(parent, token));
+        if (key != null) {
+            return keyTargets.get(key);
+        }
+        int node = nodeCommands.size();
+        nodeCommands.add(-1);
+        addKey(parent, token, node, owner);
+        return node;
+    }
+
+    private void addKey(int parent, String token, int target, String owner) {
+        keys.put(key(parent, token), keyParents.size());
+        keyParents.add(parent);
+        keyTokens.add(lowerCase(token));
+        keyTargets.add(target);
+        keyOwners.add(owner);
+    }
+
+    /**
+     * Computes the perfect hash over all keys added so far.
+     */
+    DispatchTableBuilder build() {
+        int size = keyTokens.size();
+        int buckets = Math.max(1, (size + 1) / 2);
+        for (int capacity = size; ; capacity += Math.max(1, capacity / 10)) {
+            if (place(buckets, capacity)) {
+                return this;
+            }
+        }
+    }
+
+    private boolean place(int bucketCount, int capacity) {
+        List<List<Integer>> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int key = 0; key < keyTokens.size(); key++) {
+            buckets.get(Integer.remainderUnsigned(hash(0, key), bucketCount)).add(key);
+        }
+        Integer[] order = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> buckets.get(b).size() != buckets.get(a).size()
+                ? Integer.compare(buckets.get(b).size(), buckets.get(a).size())
+                : Integer.compare(a, b));
+
+        int[] seeds = new int[bucketCount];
+        int[] table = new int[capacity];
+        Arrays.fill(table, -1);
+        int[] candidate = new int[0];
+        int free = 0;
+
+        for (int bucket : order) {
+            List<Integer> members = buckets.get(bucket);
+            if (members.size() > 1) {
+                if (candidate.length < members.size()) {
+                    candidate = new int[members.size()];
+                }
+                int seed = 1;
+                search:
+                for (; seed < MAX_SEED; seed++) {
+                    for (int i = 0; i < members.size(); i++) {
+                        int slot = Integer.remainderUnsigned(hash(seed, members.get(i)), capacity);
+                        if (table[slot] >= 0) {
+                            continue search;
+                        }
+                        for (int j = 0; j < i; j++) {
+                            if (candidate[j] == slot) {
+                                continue search;
+                            }
+                        }
+                        candidate[i] = slot;
+                    }
+                    break;
+                }
+                if (seed == MAX_SEED) {
+                    return false;
+                }
+                for (int i = 0; i < members.size(); i++) {
+                    table[candidate[i]] = members.get(i);
+                }
+                seeds[bucket] = seed;
+            } else if (members.size() == 1) {
+                while (table[free] >= 0) {
+                    free++;
+                }
+                table[free] = members.get(0);
+                seeds[bucket] = -free - 1;
+            }
+        }
+
+        this.displacements = seeds;
+        this.slots = table;
+        return true;
+    }
+
+    private int hash(int seed, int key) {
+        String token = keyTokens.get(key);
+        return DispatchTable.hash(seed, keyParents.get(key), token, 0, token.length());
+    }
+
+    int[] nodeCommands() {
+        return nodeCommands.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    int[] keyParents() {
+        return keyParents.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    List<String> keyTokens() {
+        return keyTokens;
+    }
+
+    int[] keyTargets() {
+        return keyTargets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    int[] displacements() {
+        return displacements;
+    }
+
+    int[] slots() {
+        return slots;
+    }
+
+    /**
+     * Returns the keys ordered by parent node, then by token, as laid out in a {@code CompletionIndex}.
+     */
+    int[] completionOrder() {
+        Integer[] order = new Integer[keyTokens.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keyParents.get(a).intValue() != keyParents.get(b).intValue()
+                ? Integer.compare(keyParents.get(a), keyParents.get(b))
+                : keyTokens.get(a).compareTo(keyTokens.get(b)));
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the index of the first completion key of every node, followed by the key count.
+     */
+    int[] completionOffsets() {
+        int[] offsets = new int[nodeCommands.size() + 1];
+        for (int parent : keyParents) {
+            offsets[parent + 1]++;
+        }
+        for (int node = 0; node < nodeCommands.size(); node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        return offsets;
+    }
+
+    private static String key(int parent, String token) {
+        return parent + " " + lowerCase(token);
+    }
+
+    private static String lowerCase(String token) {
+        char[] chars = token.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static boolean isToken(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isWhitespace(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+package dev.flur.commands.processor;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Writes generated resources only when their content changed.
+ * <p>
+ * Rewriting an identical file still bumps its timestamp, which invalidates the JAR task, build
+ * cache entries and every step downstream of them. Before writing, the SHA-256 hash of the new
+ * content is compared with the hash of the resource left by the previous build, and the
+ * resource is left untouched when both match.
+ */
+final class GeneratedResources {
+
+    private GeneratedResources() {
+    }
+
+    /**
+     * Writes the given content unless the existing resource already holds it.
+     *
+     * @return {@code true} if the resource was written, {@code false} if it was up to date
+     */
+    static boolean writeIfChanged(Filer filer, JavaFileManager.Location location, String name, byte[] content,
+                                  Element... originatingElements) throws IOException {
+        byte[] hash = sha256(content);
+        byte[] previous = previousHash(filer, location, name);
+        if (previous != null && MessageDigest.isEqual(hash, previous)) {
+            return false;
+        }
+
+        FileObject resource = filer.createResource(location, "", name, originatingElements);
+        try (OutputStream out = resource.openOutputStream()) {
+            out.write(content);
+        }
+        return true;
+    }
+
+    private static byte[] previousHash(Filer filer, JavaFileManager.Location location, String name) {
+        try {
+            FileObject resource = filer.getResource(location, "", name);
+            MessageDigest digest = newDigest();
+            byte[] buffer = new byte[8192];
+            try (InputStream in = resource.openInputStream()) {
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return digest.digest();
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous build, or the location is not backed by a file system
+            return null;
+        }
+    }
+
+    private static byte[] sha256(byte[] content) {
+        return newDigest().digest(content);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
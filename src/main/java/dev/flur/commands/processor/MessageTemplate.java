@@ -0,0 +1,141 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.runtime.CompiledMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message parsed at compile time into literal runs and placeholder slots, as rendered by a
+ * {@code CompiledMessage}.
+ * <p>
+ * Color codes are an ampersand followed by a digit or one of the letters {@code a-f}, {@code k-o},
+ * {@code r} or {@code x}, in either case; they are translated to the section sign the client expects.
+ * A doubled ampersand {@code &&} is a literal ampersand, as in {@code "Q&&A"}, and an ampersand
+ * followed by anything but a letter or digit is kept as it is, so prose such as
+ * {@code "salt & pepper"} needs no escaping. Placeholders are a name in braces, such as
+ * <code>{player}</code>, starting with a letter followed by letters, digits or underscores; a
+ * doubled opening brace <code>{{</code> is a literal brace.
+ *
+ * @param literals     the literal runs, one more than there are placeholders
+ * @param placeholders the placeholder names in order of appearance
+ */
+record MessageTemplate(List<String> literals, List<String> placeholders) {
+
+    /**
+     * The placeholders generated subcommand dispatchers fill in permission messages.
+     */
+    static final List<String> PERMISSION_PLACEHOLDERS = List.of("command", "label", "permission");
+
+    /**
+     * The placeholders a {@code LimitedCommandHandler} fills in cooldown messages.
+     */
+    static final List<String> COOLDOWN_PLACEHOLDERS = List.of("seconds", "time", "command");
+
+    private static final String COLOR_CODES = "0123456789abcdefklmnorx";
+
+    /**
+     * Parses a message.
+     *
+     * @throws IllegalArgumentException if a color code or placeholder is malformed
+     */
+    static MessageTemplate parse(String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(message.length());
+        int position = 0;
+        while (position < message.length()) {
+            char c = message.charAt(position);
+            if (c == '&' && position + 1 < message.length() && message.charAt(position + 1) == '&') {
+                literal.append('&');
+                position += 2;
+            } else if (c == '&' && position + 1 < message.length() && isAsciiLetterOrDigit(message.charAt(position + 1))) {
+                char code = Character.toLowerCase(message.charAt(position + 1));
+                if (COLOR_CODES.indexOf(code) < 0) {
+                    throw new IllegalArgumentException("Unknown color code '&" + message.charAt(position + 1)
+                            + "', expected 0-9, a-f, k-o, r or x, or && for a literal ampersand");
+                }
+                literal.append('\u00a7').append(code);
+                position += 2;
+            } else if (c == '{' && position + 1 < message.length() && message.charAt(position + 1) == '{') {
+                literal.append('{');
+                position += 2;
+            } else if (c == '{') {
+                int end = message.indexOf('}', position + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed placeholder '" + message.substring(position) + "'");
+                }
+                String name = message.substring(position + 1, end);
+                if (!isName(name)) {
+                    throw new IllegalArgumentException("Invalid placeholder '{" + name
+                            + "}', expected a letter followed by letters, digits or underscores");
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                placeholders.add(name);
+                position = end + 1;
+            } else {
+                literal.append(c);
+                position++;
+            }
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(List.copyOf(literals), List.copyOf(placeholders));
+    }
+
+    /**
+     * Parses a message, or keeps it as a single literal if it is malformed. Malformed messages are
+     * reported while extracting the command.
+     */
+    static MessageTemplate orLiteral(String message) {
+        try {
+            return parse(message);
+        } catch (IllegalArgumentException e) {
+            return new MessageTemplate(List.of(message), List.of());
+        }
+    }
+
+    /**
+     * Returns the message with translated color codes, keeping placeholders as they were written.
+     */
+    String render() {
+        StringBuilder rendered = new StringBuilder(literals.get(0));
+        for (int i = 0; i < placeholders.size(); i++) {
+            rendered.append('{').append(placeholders.get(i)).append('}').append(literals.get(i + 1));
+        }
+        return rendered.toString();
+    }
+
+    /**
+     * Returns the message encoded for {@link CompiledMessage#decode(String)}.
+     */
+    String encode() {
+        StringBuilder encoded = new StringBuilder();
+        for (int i = 0; i < placeholders.size(); i++) {
+            encoded.append(literals.get(i)).append(CompiledMessage.SEPARATOR).append(placeholders.get(i))
+                    .append(CompiledMessage.SEPARATOR);
+        }
+        return encoded.append(literals.get(placeholders.size())).toString();
+    }
+
+    private static boolean isName(String name) {
+        if (name.isEmpty() || !isAsciiLetter(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,135 @@
+package dev.flur.commands.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The permission nodes of all commands and the wildcards they imply.
+ * <p>
+ * Every dot-separated prefix of a node implies a wildcard: {@code parent.create} implies
+ * {@code parent.*}. The direct children of a wildcard are the nodes one segment below it and the
+ * wildcards of deeper prefixes, so {@code commands.yml} can declare them for permission plugins.
+ * <p>
+ * Nodes are sorted, which puts the descendants of every wildcard into one contiguous range of node
+ * indexes; the registry stores that range instead of a list of descendants.
+ */
+final class PermissionHierarchy {
+
+    private final List<String> nodes;
+    private final Map<String, List<String>> children;
+
+    private PermissionHierarchy(List<String> nodes, Map<String, List<String>> children) {
+        this.nodes = nodes;
+        this.children = children;
+    }
+
+    /**
+     * Collects the distinct permission nodes of the given commands and their wildcards.
+     */
+    static PermissionHierarchy of(List<CommandData> commands) {
+        TreeSet<String> nodes = new TreeSet<>();
+        for (CommandData command : commands) {
+            if (!command.permission().isEmpty()) {
+                nodes.add(command.permission());
+            }
+        }
+
+        Map<String, TreeSet<String>> children = new TreeMap<>();
+        for (String node : nodes) {
+            String child = node;
+            for (int dot = node.lastIndexOf('.'); dot > 0; dot = node.lastIndexOf('.', dot - 1)) {
+                String wildcard = node.substring(0, dot + 1) + "*";
+                if (!wildcard.equals(child)) {
+                    children.computeIfAbsent(wildcard, key -> new TreeSet<>()).add(child);
+                }
+                child = wildcard;
+            }
+        }
+
+        Map<String, List<String>> sorted = new TreeMap<>();
+        children.forEach((wildcard, values) -> sorted.put(wildcard, List.copyOf(values)));
+        return new PermissionHierarchy(List.copyOf(nodes), sorted);
+    }
+
+    /**
+     * Returns the distinct permission nodes in sorted order.
+     */
+    List<String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the dense index of a permission node, or {@code -1} for an empty permission.
+     */
+    int indexOf(String node) {
+        return node.isEmpty() ? -1 : Collections.binarySearch(nodes, node);
+    }
+
+    /**
+     * Returns the wildcards in sorted order.
+     */
+    List<String> wildcards() {
+        return new ArrayList<>(children.keySet());
+    }
+
+    /**
+     * Returns the direct children of a wildcard in sorted order.
+     */
+    List<String> children(String wildcard) {
+        return children.get(wildcard);
+    }
+
+    /**
+     * Returns the index of the first node covered by every wildcard.
+     */
+    int[] wildcardStarts() {
+        int[] starts = new int[children.size()];
+        int i = 0;
+        for (String wildcard : children.keySet()) {
+            starts[i++] = lowerBound(prefix(wildcard));
+        }
+        return starts;
+    }
+
+    /**
+     * Returns the index after the last node covered by every wildcard.
+     */
+    int[] wildcardEnds() {
+        int[] ends = new int[children.size()];
+        int i = 0;
+        for (String wildcard : children.keySet()) {
+            String prefix = prefix(wildcard);
+            int end = lowerBound(prefix);
+            while (end < nodes.size() && nodes.get(end).startsWith(prefix)) {
+                end++;
+            }
+            ends[i++] = end;
+        }
+        return ends;
+    }
+
+    /**
+     * Returns the length of every wildcard without its trailing {@code *}.
+     */
+    int[] wildcardPrefixLengths() {
+        int[] lengths = new int[children.size()];
+        int i = 0;
+        for (String wildcard : children.keySet()) {
+            lengths[i++] = wildcard.length() - 1;
+        }
+        return lengths;
+    }
+
+    private int lowerBound(String prefix) {
+        int index = Collections.binarySearch(nodes, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static String prefix(String wildcard) {
+        return wildcard.substring(0, wildcard.length() - 1);
+    }
+}
@@ -0,0 +1,129 @@
+package dev.flur.commands.processor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects per-round timings and counts of the {@link CommandAnnotationProcessor}.
+ * <p>
+ * Enabled with the {@value CommandAnnotationProcessor#OPTION_STATS} option. Every round records
+ * its wall time, the bytes allocated by the compiler thread where the JVM supports measuring it,
+ * the number of annotated elements and commands, and the time spent in each phase.
+ */
+final class ProcessorStats {
+
+    static final String FILE_NAME = "commands-processor-stats.txt";
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+
+    private final List<Round> rounds = new ArrayList<>();
+    private Round current;
+
+    /**
+     * Starts timing a new round.
+     */
+    void startRound() {
+        current = new Round(rounds.size() + 1, System.nanoTime(), allocatedBytes());
+        rounds.add(current);
+    }
+
+    /**
+     * Records the time spent in a phase of the current round since the given start time.
+     */
+    void phase(String name, long startNanos) {
+        current.phases.merge(name, System.nanoTime() - startNanos, Long::sum);
+    }
+
+    /**
+     * Finishes the current round.
+     *
+     * @param elements the number of annotated elements of the round
+     * @param commands the total number of commands known after the round
+     */
+    void endRound(int elements, int commands) {
+        current.elements = elements;
+        current.commands = commands;
+        current.nanos = System.nanoTime() - current.startNanos;
+        long allocated = allocatedBytes();
+        current.allocatedBytes = allocated < 0 ? -1 : allocated - current.startAllocatedBytes;
+    }
+
+    /**
+     * Returns a one line summary of the last finished round.
+     */
+    String summary() {
+        return "Round " + current.number + ": " + current.elements + " elements, " + current.commands
+                + " commands, " + millis(current.nanos) + " ms, " + bytes(current.allocatedBytes);
+    }
+
+    /**
+     * Renders the report of all rounds.
+     */
+    String render() {
+        StringBuilder out = new StringBuilder(256 + rounds.size() * 160);
+        out.append("# Command annotation processor statistics\n");
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (Round round : rounds) {
+            totalNanos += round.nanos;
+            totalBytes = round.allocatedBytes < 0 || totalBytes < 0 ? -1 : totalBytes + round.allocatedBytes;
+            out.append("round ").append(round.number)
+                    .append(": elements=").append(round.elements)
+                    .append(" commands=").append(round.commands)
+                    .append(" time=").append(millis(round.nanos)).append("ms")
+                    .append(" allocated=").append(bytes(round.allocatedBytes));
+            for (Map.Entry<String, Long> phase : round.phases.entrySet()) {
+                out.append(' ').append(phase.getKey()).append('=').append(millis(phase.getValue())).append("ms");
+            }
+            out.append('\n');
+        }
+        out.append("total: rounds=").append(rounds.size())
+                .append(" time=").append(millis(totalNanos)).append("ms")
+                .append(" allocated=").append(bytes(totalBytes)).append('\n');
+        return out.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String bytes(long bytes) {
+        return bytes < 0 ? "n/a" : bytes + "B";
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS == null ? -1 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean allocations && allocations.isThreadAllocatedMemorySupported()) {
+            allocations.setThreadAllocatedMemoryEnabled(true);
+            return allocations;
+        }
+        return null;
+    }
+
+    private static final class Round {
+
+        final int number;
+        final long startNanos;
+        final long startAllocatedBytes;
+        final Map<String, Long> phases = new LinkedHashMap<>();
+        int elements;
+        int commands;
+        long nanos;
+        long allocatedBytes;
+
+        Round(int number, long startNanos, long startAllocatedBytes) {
+            this.number = number;
+            this.startNanos = startNanos;
+            this.startAllocatedBytes = startAllocatedBytes;
+        }
+    }
+}
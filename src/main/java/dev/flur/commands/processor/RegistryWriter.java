@@ -0,0 +1,706 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.Execution;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders the source of the generated command registry.
+ * <p>
+ * The registry holds one {@code CommandDescriptor} constant per command together with a
+ * {@code LazyCommandHandler} stub for every handler implementing {@code CommandHandler}, and the
+ * precomputed {@code DispatchTable} resolving command lines to command ids, next to the
+ * {@code CompletionIndex} over the same command tree, the {@code SuggestionIndex} of the top-level
+ * names and aliases for mistyped commands, the {@code HelpIndex} of pre-rendered help lines, the
+ * {@code CompiledMessage} form of every permission message, usage and description, and the
+ * {@code PermissionTable} numbering the distinct permission nodes and the wildcards they imply.
+ * <p>
+ * Handlers of commands with a cooldown or rate limit are wrapped at registration to check a
+ * {@code CooldownTable} shared by all commands, which the subcommand dispatchers use as well, and
+ * handlers of commands with a cache TTL are wrapped to serve their responses from a shared
+ * {@code ResponseCache}. Handlers are only wrapped in a {@code MeteredCommandHandler} when metrics
+ * are passed to {@code registerAll}. Resolving a command line records a {@code CommandLookupEvent}
+ * when that event is enabled, and scripts of lines are resolved once into a {@code CommandBatch}.
+ * The same wrapped handlers can be captured in an immutable {@code CommandTable} snapshot, which
+ * platforms swap atomically on reload.
+ * <p>
+ * Handler classes are only referenced from {@code switch} branches, so the JVM loads them when a
+ * branch first runs rather than when the registry is initialized. Descriptors are created in nested
+ * {@code Part} classes of at most {@value #PART_SIZE} commands each, so neither the static
+ * initializer nor the constant pool of a single class grows with the number of commands.
+ */
+final class RegistryWriter {
+
+    /**
+     * The simple name of the generated registry class.
+     */
+    static final String CLASS_NAME = "GeneratedCommandRegistry";
+
+    static final int PART_SIZE = 128;
+    private static final int PART_SHIFT = 7;
+
+    private final String packageName;
+    private final List<CommandData> commands;
+    private final DispatchTableBuilder dispatch;
+    private final int helpPageSize;
+    private final Map<String, List<CommandData>> methods;
+    private final Map<String, Integer> classIds = new HashMap<>();
+
+    RegistryWriter(String packageName, List<CommandData> commands, DispatchTableBuilder dispatch, int helpPageSize) {
+        this.packageName = packageName;
+        this.commands = commands;
+        this.dispatch = dispatch;
+        this.helpPageSize = helpPageSize;
+        this.methods = SubcommandDispatcherWriter.methodsByClass(commands);
+        for (int id = 0; id < commands.size(); id++) {
+            if (!commands.get(id).isMethod()) {
+                classIds.put(commands.get(id).handlerClass(), id);
+            }
+        }
+    }
+
+    /**
+     * Returns the fully qualified name of the generated registry class.
+     */
+    String qualifiedName() {
+        return packageName.isEmpty() ? CLASS_NAME : packageName + "." + CLASS_NAME;
+    }
+
+    String render() {
+        StringBuilder out = new StringBuilder(4096 + commands.size() * 256);
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import dev.flur.commands.CacheScope;\n");
+        out.append("import dev.flur.commands.Execution;\n");
+        out.append("import dev.flur.commands.runtime.AsyncCommandHandler;\n");
+        out.append("import dev.flur.commands.runtime.CachingCommandHandler;\n");
+        out.append("import dev.flur.commands.runtime.CommandBatch;\n");
+        out.append("import dev.flur.commands.runtime.CommandDescriptor;\n");
+        out.append("import dev.flur.commands.runtime.CommandHandler;\n");
+        out.append("import dev.flur.commands.runtime.CommandLookupEvent;\n");
+        out.append("import dev.flur.commands.runtime.CommandMetrics;\n");
+        out.append("import dev.flur.commands.runtime.CommandRegistrar;\n");
+        out.append("import dev.flur.commands.runtime.CommandScheduler;\n");
+        out.append("import dev.flur.commands.runtime.CommandSource;\n");
+        out.append("import dev.flur.commands.runtime.CommandTable;\n");
+        out.append("import dev.flur.commands.runtime.CompiledMessage;\n");
+        out.append("import dev.flur.commands.runtime.CompletionIndex;\n");
+        out.append("import dev.flur.commands.runtime.CooldownTable;\n");
+        out.append("import dev.flur.commands.runtime.DispatchTable;\n");
+        out.append("import dev.flur.commands.runtime.GeneratedData;\n");
+        out.append("import dev.flur.commands.runtime.HelpIndex;\n");
+        out.append("import dev.flur.commands.runtime.LazyCommandHandler;\n");
+        out.append("import dev.flur.commands.runtime.LimitedCommandHandler;\n");
+        out.append("import dev.flur.commands.runtime.MeteredCommandHandler;\n");
+        out.append("import dev.flur.commands.runtime.ParsingCommandHandler;\n");
+        out.append("import dev.flur.commands.runtime.PermissionCache;\n");
+        out.append("import dev.flur.commands.runtime.PermissionTable;\n");
+        out.append("import dev.flur.commands.runtime.ResponseCache;\n");
+        out.append("import dev.flur.commands.runtime.SuggestionIndex;\n");
+        out.append("import java.util.Collection;\n");
+        out.append("import java.util.List;\n");
+        out.append("import java.util.function.IntFunction;\n\n");
+
+        out.append("/**\n");
+        out.append(" * Registry of all {@code @CommandInfo} commands of this module.\n");
+        out.append(" * <p>\n");
+        out.append(" * Generated by {@code dev.flur.commands.processor.CommandAnnotationProcessor}; do not edit.\n");
+        out.append(" */\n");
+        out.append("public final class ").append(CLASS_NAME).append(" {\n\n");
+
+        int parts = (commands.size() + PART_SIZE - 1) / PART_SIZE;
+        out.append("    private static final IntFunction<CommandHandler> FACTORY = ").append(CLASS_NAME)
+                .append("::newHandler;\n\n");
+        out.append("    private static final CommandDescriptor[] DESCRIPTORS = new CommandDescriptor[")
+                .append(commands.size()).append("];\n\n");
+        out.append("    private static final LazyCommandHandler[] HANDLERS = new LazyCommandHandler[")
+                .append(commands.size()).append("];\n\n");
+        out.append("    static {\n");
+        for (int part = 0; part < parts; part++) {
+            out.append("        Part").append(part).append(".init(DESCRIPTORS, HANDLERS, FACTORY);\n");
+        }
+        out.append("    }\n\n");
+        out.append("    private static final List<CommandDescriptor> COMMAND_LIST = List.of(DESCRIPTORS);\n\n");
+
+        out.append("    private ").append(CLASS_NAME).append("() {\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the number of commands in this registry.\n");
+        out.append("     */\n");
+        out.append("    public static int size() {\n");
+        out.append("        return DESCRIPTORS.length;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the descriptor of the command with the given id.\n");
+        out.append("     */\n");
+        out.append("    public static CommandDescriptor command(int id) {\n");
+        out.append("        return DESCRIPTORS[id];\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns all command descriptors, ordered by id.\n");
+        out.append("     */\n");
+        out.append("    public static List<CommandDescriptor> commands() {\n");
+        out.append("        return COMMAND_LIST;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the handler class of the command with the given id, or {@code null} if it\n");
+        out.append("     * is not accessible from this package. Calling this method loads the handler class.\n");
+        out.append("     */\n");
+        out.append("    public static Class<?> handlerType(int id) {\n");
+        out.append("        return switch (id >>> ").append(PART_SHIFT).append(") {\n");
+        for (int part = 0; part < parts; part++) {
+            out.append("            case ").append(part).append(" -> Part").append(part).append(".handlerType(id);\n");
+        }
+        out.append("            default -> throw new IndexOutOfBoundsException(id);\n");
+        out.append("        };\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the lazily loaded handler of the command with the given id, or {@code null} if\n");
+        out.append("     * its class does not implement {@code CommandHandler} or cannot be instantiated here.\n");
+        out.append("     */\n");
+        out.append("    public static LazyCommandHandler handler(int id) {\n");
+        out.append("        return HANDLERS[id];\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Creates a new instance of the handler of the command with the given id, or returns\n");
+        out.append("     * {@code null} if it cannot be instantiated here. Calling this method loads the handler class.\n");
+        out.append("     */\n");
+        out.append("    public static CommandHandler newHandler(int id) {\n");
+        out.append("        return switch (id >>> ").append(PART_SHIFT).append(") {\n");
+        for (int part = 0; part < parts; part++) {
+            out.append("            case ").append(part).append(" -> Part").append(part).append(".newHandler(id);\n");
+        }
+        out.append("            default -> throw new IndexOutOfBoundsException(id);\n");
+        out.append("        };\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Passes every command of this registry with its handler stub to the given registrar,\n");
+        out.append("     * without loading any handler class. Every handler runs on the dispatching thread, and\n");
+        out.append("     * handlers of commands with a cooldown or rate limit enforce it first. Responses of commands\n");
+        out.append("     * with a cache TTL are served from the response cache.\n");
+        out.append("     *\n");
+        out.append("     * @throws IllegalStateException if a command is declared with {@code execution = ASYNC}\n");
+        out.append("     */\n");
+        out.append("    public static void registerAll(CommandRegistrar registrar) {\n");
+        out.append("        register(registrar, null, null);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Passes every command of this registry with its handler stub to the given registrar,\n");
+        out.append("     * without loading any handler class. Handlers of commands declared with\n");
+        out.append("     * {@code execution = ASYNC} are run through the given scheduler, after the cooldown or\n");
+        out.append("     * rate limit of their command has been checked on the dispatching thread.\n");
+        out.append("     *\n");
+        out.append("     * @throws IllegalStateException if the scheduler is {@code null} and a command is declared\n");
+        out.append("     *                               with {@code execution = ASYNC}\n");
+        out.append("     */\n");
+        out.append("    public static void registerAll(CommandRegistrar registrar, CommandScheduler scheduler) {\n");
+        out.append("        register(registrar, scheduler, null);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Passes every command of this registry with its handler stub to the given registrar like\n");
+        out.append("     * {@link #registerAll(CommandRegistrar, CommandScheduler)}, recording every invocation in the\n");
+        out.append("     * given metrics. Handlers are only wrapped for metrics when they are given.\n");
+        out.append("     */\n");
+        out.append("    public static void registerAll(CommandRegistrar registrar, CommandScheduler scheduler,\n");
+        out.append("                                   CommandMetrics metrics) {\n");
+        out.append("        register(registrar, scheduler, metrics);\n");
+        out.append("    }\n\n");
+
+        out.append("    private static void register(CommandRegistrar registrar, CommandScheduler scheduler,\n");
+        out.append("                                 CommandMetrics metrics) {\n");
+        List<String> async = new ArrayList<>();
+        for (CommandData command : commands) {
+            if (command.execution() == Execution.ASYNC) {
+                async.add(command.name());
+            }
+        }
+        if (!async.isEmpty()) {
+            out.append("        if (scheduler == null) {\n");
+            out.append("            throw new IllegalStateException(\"Commands ").append(String.join(", ", async))
+                    .append(" are declared with execution = ASYNC and need a CommandScheduler\");\n");
+            out.append("        }\n");
+        }
+        out.append("        for (CommandDescriptor command : DESCRIPTORS) {\n");
+        out.append("            CommandHandler handler = HANDLERS[command.id()];\n");
+        out.append("            if (handler != null) {\n");
+        out.append("                if (command.isCached()) {\n");
+        out.append("                    handler = new CachingCommandHandler(command, handler, Caches.CACHE);\n");
+        out.append("                }\n");
+        out.append("                if (metrics != null) {\n");
+        out.append("                    handler = new MeteredCommandHandler(command, handler, metrics);\n");
+        out.append("                }\n");
+        out.append("                if (command.execution() == Execution.ASYNC) {\n");
+        out.append("                    handler = new AsyncCommandHandler(command, usageMessage(command.id()), handler,\n");
+        out.append("                            scheduler);\n");
+        out.append("                }\n");
+        out.append("                if (command.hasLimits()) {\n");
+        out.append("                    handler = new LimitedCommandHandler(command, cooldownMessage(command.id()), handler,\n");
+        out.append("                            Limits.TABLE);\n");
+        out.append("                }\n");
+        out.append("            }\n");
+        out.append("            registrar.register(command, handler);\n");
+        out.append("        }\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns an immutable snapshot of all commands with their handlers, wrapped like\n");
+        out.append("     * {@link #registerAll(CommandRegistrar)} wraps them, for publishing through a\n");
+        out.append("     * {@code CommandTableHolder}.\n");
+        out.append("     *\n");
+        out.append("     * @throws IllegalStateException if a command is declared with {@code execution = ASYNC}\n");
+        out.append("     */\n");
+        out.append("    public static CommandTable snapshot() {\n");
+        out.append("        return snapshot(null, null);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns an immutable snapshot of all commands with their handlers, wrapped like\n");
+        out.append("     * {@link #registerAll(CommandRegistrar, CommandScheduler, CommandMetrics)} wraps them.\n");
+        out.append("     * Building it loads no handler class, so a reload can build it off the main thread.\n");
+        out.append("     * <p>\n");
+        out.append("     * Every snapshot shares the handler stubs of {@link #handler(int)}, so a handler is\n");
+        out.append("     * instantiated at most once and keeps its state across reloads; only the wrappers, the\n");
+        out.append("     * scheduler and the metrics are new.\n");
+        out.append("     */\n");
+        out.append("    public static CommandTable snapshot(CommandScheduler scheduler, CommandMetrics metrics) {\n");
+        out.append("        CommandHandler[] handlers = new CommandHandler[DESCRIPTORS.length];\n");
+        out.append("        register((command, handler) -> handlers[command.id()] = handler, scheduler, metrics);\n");
+        out.append("        return new CommandTable(COMMAND_LIST, handlers, Dispatch.TABLE, Permissions.TABLE);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the dispatch table resolving command names, aliases and subcommands.\n");
+        out.append("     */\n");
+        out.append("    public static DispatchTable dispatchTable() {\n");
+        out.append("        return Dispatch.TABLE;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Resolves a command line without allocating, recording a {@code CommandLookupEvent} if it\n");
+        out.append("     * is enabled.\n");
+        out.append("     *\n");
+        out.append("     * @see DispatchTable#resolve(CharSequence)\n");
+        out.append("     */\n");
+        out.append("    public static long resolve(CharSequence line) {\n");
+        out.append("        if (!CommandLookupEvent.enabled()) {\n");
+        out.append("            return Dispatch.TABLE.resolve(line);\n");
+        out.append("        }\n");
+        out.append("        CommandLookupEvent event = new CommandLookupEvent();\n");
+        out.append("        event.begin();\n");
+        out.append("        long resolution = Dispatch.TABLE.resolve(line);\n");
+        out.append("        if (event.shouldCommit()) {\n");
+        out.append("            int id = DispatchTable.commandOf(resolution);\n");
+        out.append("            event.commit(id >= 0 ? DESCRIPTORS[id].name() : null, line);\n");
+        out.append("        }\n");
+        out.append("        return resolution;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Resolves a script of command lines once, so it can be executed repeatedly without\n");
+        out.append("     * looking up or splitting any line again.\n");
+        out.append("     *\n");
+        out.append("     * @see CommandBatch#execute(CommandSource, IntFunction)\n");
+        out.append("     */\n");
+        out.append("    public static CommandBatch prepareBatch(List<? extends CharSequence> lines) {\n");
+        out.append("        return CommandBatch.prepare(Dispatch.TABLE, COMMAND_LIST, lines);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the dense indexes of the permission nodes of all commands.\n");
+        out.append("     */\n");
+        out.append("    public static PermissionTable permissionTable() {\n");
+        out.append("        return Permissions.TABLE;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the cache of player permission bitsets used by {@link #help(CommandSource, int)}.\n");
+        out.append("     * Invalidate a player when their permissions change or they quit.\n");
+        out.append("     */\n");
+        out.append("    public static PermissionCache permissionCache() {\n");
+        out.append("        return Permissions.CACHE;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the index completing command names, aliases and subcommands.\n");
+        out.append("     */\n");
+        out.append("    public static CompletionIndex completionIndex() {\n");
+        out.append("        return Completion.INDEX;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Adds the command names, aliases and subcommands completing the last token of the line\n");
+        out.append("     * that the source is permitted to use, without allocating.\n");
+        out.append("     *\n");
+        out.append("     * @see CompletionIndex#complete(CharSequence, CommandSource, Collection)\n");
+        out.append("     */\n");
+        out.append("    public static int complete(CharSequence line, CommandSource source, Collection<? super String> out) {\n");
+        out.append("        return Completion.INDEX.complete(line, source, out);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the index suggesting command names and aliases for mistyped commands.\n");
+        out.append("     */\n");
+        out.append("    public static SuggestionIndex suggestionIndex() {\n");
+        out.append("        return Suggestions.INDEX;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Suggests the command names and aliases the source may use that are closest to the\n");
+        out.append("     * first token of the line, within the given edit distance.\n");
+        out.append("     *\n");
+        out.append("     * @see SuggestionIndex#suggest(CharSequence, CommandSource, int, int)\n");
+        out.append("     */\n");
+        out.append("    public static List<String> suggest(CharSequence line, CommandSource source, int maxDistance, int limit) {\n");
+        out.append("        return Suggestions.INDEX.suggest(line, source, maxDistance, limit);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the compiled message sent when a source lacks the permission of the command with\n");
+        out.append("     * the given id. Its placeholders are {@code {command}}, {@code {label}} and {@code {permission}}.\n");
+        out.append("     */\n");
+        out.append("    public static CompiledMessage permissionMessage(int id) {\n");
+        out.append("        return Messages.TABLE[id * 4];\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the compiled usage message of the command with the given id.\n");
+        out.append("     */\n");
+        out.append("    public static CompiledMessage usageMessage(int id) {\n");
+        out.append("        return Messages.TABLE[id * 4 + 1];\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the compiled description of the command with the given id.\n");
+        out.append("     */\n");
+        out.append("    public static CompiledMessage descriptionMessage(int id) {\n");
+        out.append("        return Messages.TABLE[id * 4 + 2];\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the compiled message sent while the cooldown or rate limit of the command with the\n");
+        out.append("     * given id rejects a use. Its placeholders are {@code {seconds}}, {@code {time}} and\n");
+        out.append("     * {@code {command}}.\n");
+        out.append("     */\n");
+        out.append("    public static CompiledMessage cooldownMessage(int id) {\n");
+        out.append("        return Messages.TABLE[id * 4 + 3];\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the pre-rendered help pages of all commands.\n");
+        out.append("     */\n");
+        out.append("    public static HelpIndex helpIndex() {\n");
+        out.append("        return Help.INDEX;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns a help page of the commands the source may use, or an empty list if the page\n");
+        out.append("     * does not exist. The permissions of the source are looked up in {@link #permissionCache()},\n");
+        out.append("     * and pages of ").append(helpPageSize)
+                .append(" lines are built once per set of permissions.\n");
+        out.append("     *\n");
+        out.append("     * @see HelpIndex#page(long[], int)\n");
+        out.append("     */\n");
+        out.append("    public static List<String> help(CommandSource source, int page) {\n");
+        out.append("        return Help.INDEX.page(Permissions.CACHE.bits(source), page);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the table recording the uses of all commands with a cooldown or rate limit.\n");
+        out.append("     */\n");
+        out.append("    public static CooldownTable cooldownTable() {\n");
+        out.append("        return Limits.TABLE;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the cache of the responses of all commands with a cache TTL, counting hits and misses.\n");
+        out.append("     */\n");
+        out.append("    public static ResponseCache responseCache() {\n");
+        out.append("        return Caches.CACHE;\n");
+        out.append("    }\n");
+
+        renderIds(out);
+        renderDispatch(out);
+        renderPermissions(out);
+        renderCompletion(out);
+        renderSuggestions(out);
+        renderHelp(out);
+        renderMessages(out);
+        renderLimits(out);
+
+        for (int part = 0; part < parts; part++) {
+            renderPart(out, part);
+        }
+
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void renderIds(StringBuilder out) {
+        out.append("\n    /**\n");
+        out.append("     * The ids of all commands as compile-time constants.\n");
+        out.append("     * <p>\n");
+        out.append("     * References to these constants are inlined by the compiler, so this class is never loaded\n");
+        out.append("     * at runtime and its fields do not slow down loading the registry.\n");
+        out.append("     */\n");
+        out.append("    public static final class Ids {\n\n");
+
+        Set<String> used = new HashSet<>();
+        for (int id = 0; id < commands.size(); id++) {
+            CommandData command = commands.get(id);
+            out.append("        /** Id of the {@code ").append(command.name().replace("*/", "*&#47;"))
+                    .append("} command. */\n");
+            out.append("        public static final int ")
+                    .append(Sources.constantName(command.name(), used, Integer.toString(id)))
+                    .append(" = ").append(id).append(";\n");
+        }
+        if (!commands.isEmpty()) {
+            out.append('\n');
+        }
+
+        out.append("        private Ids() {\n");
+        out.append("        }\n");
+        out.append("    }\n");
+    }
+
+    private void renderDispatch(StringBuilder out) {
+        out.append("\n    private static final class Dispatch {\n\n");
+        out.append("        static final DispatchTable TABLE = new DispatchTable(\n");
+        out.append("                ").append(Sources.intData(dispatch.nodeCommands())).append(",\n");
+        out.append("                ").append(Sources.intData(dispatch.keyParents())).append(",\n");
+        out.append("                ").append(Sources.stringData(dispatch.keyTokens())).append(",\n");
+        out.append("                ").append(Sources.intData(dispatch.keyTargets())).append(",\n");
+        out.append("                ").append(Sources.intData(dispatch.displacements())).append(",\n");
+        out.append("                ").append(Sources.intData(dispatch.slots())).append(");\n");
+        out.append("    }\n");
+    }
+
+    private void renderCompletion(StringBuilder out) {
+        int[] order = dispatch.completionOrder();
+        int[] nodeCommands = dispatch.nodeCommands();
+        int[] keyTargets = dispatch.keyTargets();
+        List<String> tokens = new ArrayList<>(order.length);
+        int[] targets = new int[order.length];
+        int[] targetCommands = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            tokens.add(dispatch.keyTokens().get(order[i]));
+            targets[i] = keyTargets[order[i]];
+            targetCommands[i] = nodeCommands[targets[i]];
+        }
+
+        out.append("\n    private static final class Completion {\n\n");
+        out.append("        static final CompletionIndex INDEX = new CompletionIndex(\n");
+        out.append("                ").append(Sources.intData(dispatch.completionOffsets())).append(",\n");
+        out.append("                ").append(Sources.stringData(tokens)).append(",\n");
+        out.append("                ").append(Sources.intData(targets)).append(",\n");
+        out.append("                ").append(Sources.intData(targetCommands)).append(",\n");
+        out.append("                Permissions.TABLE);\n");
+        out.append("    }\n");
+    }
+
+    private void renderSuggestions(StringBuilder out) {
+        SuggestionIndexBuilder suggestions = new SuggestionIndexBuilder().build(dispatch);
+
+        out.append("\n    private static final class Suggestions {\n\n");
+        out.append("        static final SuggestionIndex INDEX = new SuggestionIndex(\n");
+        out.append("                ").append(Sources.intData(suggestions.childOffsets())).append(",\n");
+        out.append("                ").append(Sources.stringData(suggestions.tokens())).append(",\n");
+        out.append("                ").append(Sources.intData(suggestions.distances())).append(",\n");
+        out.append("                ").append(Sources.intData(suggestions.commands())).append(",\n");
+        out.append("                Permissions.TABLE);\n");
+        out.append("    }\n");
+    }
+
+    private void renderHelp(StringBuilder out) {
+        List<String> lines = new ArrayList<>(commands.size());
+        int[] ids = new int[commands.size()];
+        for (int id = 0; id < commands.size(); id++) {
+            lines.add(commands.get(id).helpLine());
+            ids[id] = id;
+        }
+
+        out.append("\n    private static final class Help {\n\n");
+        out.append("        static final HelpIndex INDEX = new HelpIndex(\n");
+        out.append("                ").append(Sources.lineData(lines)).append(",\n");
+        out.append("                ").append(Sources.intData(ids)).append(",\n");
+        out.append("                ").append(helpPageSize).append(",\n");
+        out.append("                Permissions.TABLE);\n");
+        out.append("    }\n");
+    }
+
+    private void renderMessages(StringBuilder out) {
+        List<String> messages = new ArrayList<>(commands.size() * 4);
+        for (CommandData command : commands) {
+            messages.add(MessageTemplate.orLiteral(command.effectivePermissionMessage()).encode());
+            messages.add(MessageTemplate.orLiteral(command.effectiveUsage()).encode());
+            messages.add(MessageTemplate.orLiteral(command.description()).encode());
+            messages.add(MessageTemplate.orLiteral(command.effectiveCooldownMessage()).encode());
+        }
+
+        out.append("\n    private static final class Messages {\n\n");
+        out.append("        static final CompiledMessage[] TABLE = ").append(Sources.messageData(messages)).append(";\n");
+        out.append("    }\n");
+    }
+
+    private void renderPermissions(StringBuilder out) {
+        PermissionHierarchy hierarchy = PermissionHierarchy.of(commands);
+        int[] permissions = new int[commands.size()];
+        for (int id = 0; id < commands.size(); id++) {
+            permissions[id] = hierarchy.indexOf(commands.get(id).permission());
+        }
+
+        out.append("\n    private static final class Permissions {\n\n");
+        out.append("        static final PermissionTable TABLE = new PermissionTable(\n");
+        out.append("                ").append(Sources.intData(permissions)).append(",\n");
+        out.append("                ").append(Sources.intData(hierarchy.wildcardStarts())).append(",\n");
+        out.append("                ").append(Sources.intData(hierarchy.wildcardEnds())).append(",\n");
+        out.append("                ").append(Sources.intData(hierarchy.wildcardPrefixLengths())).append(",\n");
+        out.append("                DESCRIPTORS);\n");
+        out.append("\n        static final PermissionCache CACHE = new PermissionCache(TABLE);\n");
+        out.append("    }\n");
+    }
+
+    private void renderLimits(StringBuilder out) {
+        out.append("\n    private static final class Limits {\n\n");
+        out.append("        static final CooldownTable TABLE = new CooldownTable();\n");
+        out.append("    }\n");
+
+        out.append("\n    private static final class Caches {\n\n");
+        out.append("        static final ResponseCache CACHE = new ResponseCache(DESCRIPTORS);\n");
+        out.append("    }\n");
+    }
+
+    private void renderPart(StringBuilder out, int part) {
+        int from = part * PART_SIZE;
+        int to = Math.min(from + PART_SIZE, commands.size());
+
+        out.append("\n    private static final class Part").append(part).append(" {\n\n");
+        out.append("        static void init(CommandDescriptor[] descriptors, LazyCommandHandler[] handlers,\n");
+        out.append("                         IntFunction<CommandHandler> factory) {\n");
+        for (int id = from; id < to; id++) {
+            CommandData command = commands.get(id);
+            out.append("            descriptors[").append(id).append("] = new CommandDescriptor(")
+                    .append(id).append(", ")
+                    .append(Sources.literal(command.name())).append(", ")
+                    .append(Sources.literal(command.description())).append(", ")
+                    .append(Sources.literal(command.permission())).append(", ")
+                    .append(Sources.literal(command.permissionMessage())).append(", ")
+                    .append(Sources.literal(command.effectiveUsage())).append(", ")
+                    .append("List.of(");
+            List<String> aliases = command.aliases();
+            for (int i = 0; i < aliases.size(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                out.append(Sources.literal(aliases.get(i)));
+            }
+            out.append("), ").append(Sources.literal(command.handlerBinaryName()));
+            // Trailing components with default values are left to the shorter constructors
+            CommandLimits limits = CommandLimits.orNone(command);
+            long cacheTtl = CommandLimits.durationOrZero(command.cacheTtl());
+            if (command.execution() != Execution.SYNC || limits.isLimited() || cacheTtl > 0) {
+                out.append(", Execution.").append(command.execution().name());
+            }
+            if (limits.isLimited() || cacheTtl > 0) {
+                out.append(", ").append(limits.cooldownMillis()).append("L, ").append(limits.rateLimit())
+                        .append(", ").append(limits.rateLimitPeriodMillis()).append('L');
+            }
+            if (cacheTtl > 0) {
+                out.append(", ").append(cacheTtl).append("L, CacheScope.").append(command.cacheScope().name());
+            }
+            out.append(");\n");
+            if (isInstantiable(command)) {
+                out.append("            handlers[").append(id).append("] = new LazyCommandHandler(descriptors[")
+                        .append(id).append("], factory);\n");
+            }
+        }
+        out.append("        }\n\n");
+
+        out.append("        static Class<?> handlerType(int id) {\n");
+        out.append("            return switch (id) {\n");
+        for (int id = from; id < to; id++) {
+            CommandData command = commands.get(id);
+            if (command.isHandlerAccessibleFrom(packageName)) {
+                out.append("                case ").append(id).append(" -> ")
+                        .append(command.handlerClass()).append(".class;\n");
+            }
+        }
+        out.append("                default -> null;\n");
+        out.append("            };\n");
+        out.append("        }\n\n");
+
+        out.append("        static CommandHandler newHandler(int id) {\n");
+        out.append("            return switch (id) {\n");
+        for (int id = from; id < to; id++) {
+            CommandData command = commands.get(id);
+            if (!isInstantiable(command)) {
+                continue;
+            }
+            out.append("                case ").append(id).append(" -> ");
+            if (command.isMethod()) {
+                // Method subcommands share the dispatcher instance of their class
+                List<CommandData> subcommands = methods.get(command.handlerClass());
+                out.append("((").append(SubcommandDispatcherWriter.qualifiedName(command)).append(") HANDLERS[")
+                        .append(classIds.get(command.handlerClass())).append("].get()).subcommand(")
+                        .append(subcommands.indexOf(command)).append(");\n");
+            } else if (methods.containsKey(command.handlerClass())) {
+                out.append("new ").append(SubcommandDispatcherWriter.qualifiedName(command)).append("();\n");
+            } else if (command.handlerTyped()) {
+                out.append("new ParsingCommandHandler<>(").append(Sources.literal(command.name())).append(", new ")
+                        .append(command.handlerClass()).append("(), ")
+                        .append(ArgumentsWriter.qualifiedName(command)).append(".PARSER);\n");
+            } else {
+                out.append("new ").append(command.handlerClass()).append("();\n");
+            }
+        }
+        out.append("                default -> null;\n");
+        out.append("            };\n");
+        out.append("        }\n");
+        out.append("    }\n");
+    }
+
+    /**
+     * Returns whether the registry can create the handler of the given command. Classes with method
+     * subcommands are instantiated through their generated dispatcher, whose constructor is public.
+     */
+    private boolean isInstantiable(CommandData command) {
+        if (methods.containsKey(command.handlerClass())) {
+            return command.handlerFactory() && command.isHandlerAccessibleFrom(packageName)
+                    && classIds.containsKey(command.handlerClass());
+        }
+        return command.isHandlerInstantiableFrom(packageName);
+    }
+
+    /**
+     * Returns the longest package prefix shared by all handler classes.
+     */
+    static String commonPackage(List<CommandData> commands) {
+        String common = null;
+        for (CommandData command : commands) {
+            String pkg = command.handlerPackage();
+            if (common == null) {
+                common = pkg;
+                continue;
+            }
+            while (!common.isEmpty() && !(pkg.equals(common) || pkg.startsWith(common + "."))) {
+                int dot = common.lastIndexOf('.');
+                common = dot < 0 ? "" : common.substring(0, dot);
+            }
+        }
+        return common == null ? "" : common;
+    }
+}
@@ -0,0 +1,142 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.runtime.GeneratedData;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Helpers for emitting Java source code from the processor.
+ */
+final class Sources {
+
+    /**
+     * The maximum number of characters per encoded string literal, well below the 65535 byte
+     * limit of a class file constant even when every character needs three bytes.
+     */
+    private static final int MAX_CHUNK = 16_000;
+
+    private Sources() {
+    }
+
+    /**
+     * Returns an expression decoding the given values through {@link GeneratedData#ints}.
+     */
+    static String intData(int[] values) {
+        StringBuilder expression = new StringBuilder(values.length * 2 + 48);
+        expression.append("GeneratedData.ints(").append(values.length);
+        StringBuilder chunk = new StringBuilder();
+        for (int value : values) {
+            int zigzag = (value << 1) ^ (value >> 31);
+            do {
+                int digit = zigzag & 0x1f;
+                zigzag >>>= 5;
+                if (zigzag != 0) {
+                    digit |= 0x20;
+                }
+                chunk.append(GeneratedData.ALPHABET.charAt(digit));
+            } while (zigzag != 0);
+            if (chunk.length() >= MAX_CHUNK) {
+                expression.append(", ").append(literal(chunk.toString()));
+                chunk.setLength(0);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            expression.append(", ").append(literal(chunk.toString()));
+        }
+        return expression.append(')').toString();
+    }
+
+    /**
+     * Returns an expression decoding the given values through {@link GeneratedData#strings}.
+     * None of the values may contain a space.
+     */
+    static String stringData(List<String> values) {
+        return joinedData("strings", ' ', values);
+    }
+
+    /**
+     * Returns an expression decoding the given values through {@link GeneratedData#lines}.
+     * None of the values may contain a line break.
+     */
+    static String lineData(List<String> values) {
+        return joinedData("lines", '\n', values);
+    }
+
+    /**
+     * Returns an expression decoding the given encoded messages through {@link GeneratedData#messages}.
+     */
+    static String messageData(List<String> values) {
+        return joinedData("messages", GeneratedData.RECORD_SEPARATOR, values);
+    }
+
+    private static String joinedData(String method, char separator, List<String> values) {
+        StringBuilder expression = new StringBuilder(values.size() * 8 + 48);
+        expression.append("GeneratedData.").append(method).append('(').append(values.size());
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            if (!chunk.isEmpty() && chunk.length() + value.length() >= MAX_CHUNK) {
+                expression.append(", ").append(literal(chunk.toString()));
+                chunk.setLength(0);
+            } else if (i > 0) {
+                chunk.append(separator);
+            }
+            chunk.append(value);
+        }
+        if (!values.isEmpty()) {
+            expression.append(", ").append(literal(chunk.toString()));
+        }
+        return expression.append(')').toString();
+    }
+
+    /**
+     * Returns the given value as a Java string literal, including the surrounding quotes.
+     */
+    static String literal(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20 || c == 0x7f) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Derives an upper-case constant name from a command name, avoiding the given reserved names.
+     * <p>
+     * Names that sanitize to a reserved or already used identifier get the fallback suffix appended,
+     * and the resulting name is added to {@code used}.
+     */
+    static String constantName(String name, Set<String> used, String fallbackSuffix) {
+        StringBuilder builder = new StringBuilder(name.length() + 1);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            builder.append(Character.isLetterOrDigit(c) && c < 0x80 ? c : '_');
+        }
+        if (builder.isEmpty() || Character.isDigit(builder.charAt(0))) {
+            builder.insert(0, '_');
+        }
+        String constant = builder.toString().toUpperCase(Locale.ROOT);
+        if (!used.add(constant)) {
+            constant = constant + "_" + fallbackSuffix;
+            used.add(constant);
+        }
+        return constant;
+    }
+}
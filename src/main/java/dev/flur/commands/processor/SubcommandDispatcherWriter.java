@@ -0,0 +1,275 @@
+package dev.flur.commands.processor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders the source of the dispatcher routing the method subcommands of one command class.
+ * <p>
+ * The dispatcher is a {@code CommandHandler} wrapping a single instance of the command class.
+ * It selects the subcommand with a {@code switch} on the lower-cased first argument and calls the
+ * annotated method directly, so no class or object is needed per subcommand and the JIT can
+ * inline the call. Arguments that match no subcommand are passed on to the command class itself
+ * if it implements {@code CommandHandler}, or parsed by its arguments record and passed on if it
+ * implements {@code TypedCommandHandler}. Subcommands with a cooldown or rate limit check it in
+ * the registry's {@code CooldownTable} before they are invoked, and cached subcommands are invoked
+ * through the registry's {@code ResponseCache}.
+ */
+final class SubcommandDispatcherWriter {
+
+    private static final String SUFFIX = "Subcommands";
+
+    private final CommandData command;
+    private final List<CommandData> subcommands;
+    private final String registry;
+    private final int[] ids;
+
+    /**
+     * Creates a writer for the given command class.
+     *
+     * @param registry the fully qualified name of the generated registry
+     * @param ids      the registry id of every subcommand
+     */
+    SubcommandDispatcherWriter(CommandData command, List<CommandData> subcommands, String registry, int[] ids) {
+        this.command = command;
+        this.subcommands = subcommands;
+        this.registry = registry;
+        this.ids = ids;
+    }
+
+    /**
+     * Groups the method subcommands of the given commands by their handler class, keeping their order.
+     */
+    static Map<String, List<CommandData>> methodsByClass(List<CommandData> commands) {
+        Map<String, List<CommandData>> methods = new LinkedHashMap<>();
+        for (CommandData command : commands) {
+            if (command.isMethod()) {
+                methods.computeIfAbsent(command.handlerClass(), key -> new ArrayList<>()).add(command);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Returns the fully qualified name of the dispatcher of the given command class.
+     */
+    static String qualifiedName(CommandData command) {
+        return command.generatedClassName(SUFFIX);
+    }
+
+    String qualifiedName() {
+        return qualifiedName(command);
+    }
+
+    String render() {
+        String qualifiedName = qualifiedName();
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        String type = command.handlerClass();
+
+        StringBuilder out = new StringBuilder(2048 + subcommands.size() * 512);
+        if (!command.handlerPackage().isEmpty()) {
+            out.append("package ").append(command.handlerPackage()).append(";\n\n");
+        }
+        out.append("import dev.flur.commands.runtime.CommandHandler;\n");
+        out.append("import dev.flur.commands.runtime.CommandSource;\n");
+        if (subcommands.stream().anyMatch(subcommand -> CommandLimits.durationOrZero(subcommand.cacheTtl()) > 0)) {
+            out.append("import dev.flur.commands.runtime.CachingCommandHandler;\n");
+        }
+        if (subcommands.stream().anyMatch(subcommand -> CommandLimits.orNone(subcommand).isLimited())) {
+            out.append("import dev.flur.commands.runtime.LimitedCommandHandler;\n");
+        }
+        if (command.handlerTyped()) {
+            out.append("import dev.flur.commands.runtime.ParsingCommandHandler;\n");
+        }
+        if (subcommands.stream().anyMatch(subcommand -> !subcommand.permission().isEmpty())) {
+            out.append("import dev.flur.commands.runtime.PermissionCheckEvent;\n");
+        }
+        out.append("import java.util.ArrayList;\n");
+        out.append("import java.util.Arrays;\n");
+        out.append("import java.util.List;\n");
+        out.append("import java.util.Locale;\n\n");
+
+        out.append("/**\n");
+        out.append(" * Routes the method subcommands of {@link ").append(type).append("}.\n");
+        out.append(" * <p>\n");
+        out.append(" * Generated by {@code dev.flur.commands.processor.CommandAnnotationProcessor}; do not edit.\n");
+        out.append(" */\n");
+        out.append(command.handlerPublic() ? "public " : "").append("final class ").append(simpleName)
+                .append(" implements CommandHandler {\n\n");
+
+        out.append("    private final ").append(type).append(" command;\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Creates a dispatcher for a new instance of the command class.\n");
+        out.append("     */\n");
+        out.append("    public ").append(simpleName).append("() {\n");
+        out.append("        this(new ").append(type).append("());\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Creates a dispatcher for the given instance of the command class.\n");
+        out.append("     */\n");
+        out.append("    public ").append(simpleName).append("(").append(type).append(" command) {\n");
+        out.append("        this.command = command;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Returns the instance of the command class.\n");
+        out.append("     */\n");
+        out.append("    public ").append(type).append(" command() {\n");
+        out.append("        return command;\n");
+        out.append("    }\n\n");
+
+        renderExecute(out);
+        renderComplete(out);
+        renderInvoke(out);
+
+        out.append("    /**\n");
+        out.append("     * Returns a handler invoking the subcommand with the given index, without checking its\n");
+        out.append("     * permission. Indexes follow the order of the subcommand names.\n");
+        out.append("     */\n");
+        out.append("    public CommandHandler subcommand(int index) {\n");
+        out.append("        return (source, label, args) -> invoke(index, source, label, args);\n");
+        out.append("    }\n");
+
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void renderExecute(StringBuilder out) {
+        out.append("    @Override\n");
+        out.append("    public boolean execute(CommandSource source, String label, String[] args) {\n");
+        out.append("        if (args.length > 0) {\n");
+        out.append("            switch (args[0].toLowerCase(Locale.ROOT)) {\n");
+        for (int index = 0; index < subcommands.size(); index++) {
+            CommandData subcommand = subcommands.get(index);
+            out.append("                case ");
+            appendTokens(out, subcommand);
+            out.append(" -> {\n");
+            if (!subcommand.permission().isEmpty()) {
+                out.append("                    if (!PermissionCheckEvent.check(source, ")
+                        .append(Sources.literal(subcommand.permission())).append(", ")
+                        .append(Sources.literal(subcommand.name())).append(", args[0])) {\n");
+                out.append("                        source.sendMessage(").append(registry).append(".permissionMessage(")
+                        .append(ids[index]).append(").render(");
+                List<String> placeholders = MessageTemplate.orLiteral(subcommand.effectivePermissionMessage()).placeholders();
+                for (int i = 0; i < placeholders.size(); i++) {
+                    out.append(i > 0 ? ", " : "").append(switch (placeholders.get(i)) {
+                        case "command" -> Sources.literal(subcommand.name());
+                        case "label" -> "args[0]";
+                        case "permission" -> Sources.literal(subcommand.permission());
+                        default -> "null";
+                    });
+                }
+                out.append("));\n");
+                out.append("                        return true;\n");
+                out.append("                    }\n");
+            }
+            if (CommandLimits.orNone(subcommand).isLimited()) {
+                out.append("                    if (!LimitedCommandHandler.tryAcquire(").append(registry)
+                        .append(".cooldownTable(), ").append(registry).append(".command(").append(ids[index])
+                        .append("), ").append(registry).append(".cooldownMessage(").append(ids[index])
+                        .append("), source)) {\n");
+                out.append("                        return true;\n");
+                out.append("                    }\n");
+            }
+            if (CommandLimits.durationOrZero(subcommand.cacheTtl()) > 0) {
+                out.append("                    return CachingCommandHandler.execute(").append(registry)
+                        .append(".responseCache(), ").append(registry).append(".command(").append(ids[index])
+                        .append("), source, label, Arrays.copyOfRange(args, 1, args.length), subcommand(")
+                        .append(index).append("));\n");
+            } else {
+                out.append("                    return invoke(").append(index)
+                        .append(", source, label, Arrays.copyOfRange(args, 1, args.length));\n");
+            }
+            out.append("                }\n");
+        }
+        out.append("                default -> {\n");
+        out.append("                }\n");
+        out.append("            }\n");
+        out.append("        }\n");
+        if (command.handlerTyped()) {
+            out.append("        return ParsingCommandHandler.execute(").append(Sources.literal(command.name()))
+                    .append(", command, ")
+                    .append(ArgumentsWriter.qualifiedName(command)).append(".PARSER, source, label, args);\n");
+        } else if (command.handlerInterface()) {
+            out.append("        return command.execute(source, label, args);\n");
+        } else {
+            out.append("        return false;\n");
+        }
+        out.append("    }\n\n");
+    }
+
+    private void renderComplete(StringBuilder out) {
+        out.append("    @Override\n");
+        out.append("    public List<String> complete(CommandSource source, String label, String[] args) {\n");
+        out.append("        if (args.length == 1) {\n");
+        out.append("            String prefix = args[0].toLowerCase(Locale.ROOT);\n");
+        out.append("            List<String> candidates = new ArrayList<>();\n");
+        for (CommandData subcommand : subcommands) {
+            String condition = subcommand.permission().isEmpty()
+                    ? ""
+                    : " && source.hasPermission(" + Sources.literal(subcommand.permission()) + ")";
+            for (String token : tokens(subcommand)) {
+                out.append("            if (").append(Sources.literal(token)).append(".startsWith(prefix)")
+                        .append(condition).append(") {\n");
+                out.append("                candidates.add(").append(Sources.literal(token)).append(");\n");
+                out.append("            }\n");
+            }
+        }
+        out.append("            return candidates;\n");
+        out.append("        }\n");
+        if (command.handlerInterface() || command.handlerTyped()) {
+            out.append("        return command.complete(source, label, args);\n");
+        } else {
+            out.append("        return List.of();\n");
+        }
+        out.append("    }\n\n");
+    }
+
+    private void renderInvoke(StringBuilder out) {
+        out.append("    /**\n");
+        out.append("     * Invokes the subcommand with the given index, without checking its permission.\n");
+        out.append("     */\n");
+        out.append("    boolean invoke(int index, CommandSource source, String label, String[] args) {\n");
+        out.append("        switch (index) {\n");
+        for (int index = 0; index < subcommands.size(); index++) {
+            CommandData subcommand = subcommands.get(index);
+            String target = subcommand.methodStatic() ? command.handlerClass() : "command";
+            String call = target + "." + subcommand.handlerMethod() + "(source, label, args)";
+            out.append("            case ").append(index).append(" -> {\n");
+            if (subcommand.methodReturnsBoolean()) {
+                out.append("                return ").append(call).append(";\n");
+            } else {
+                out.append("                ").append(call).append(";\n");
+                out.append("                return true;\n");
+            }
+            out.append("            }\n");
+        }
+        out.append("            default -> throw new IndexOutOfBoundsException(index);\n");
+        out.append("        }\n");
+        out.append("    }\n\n");
+    }
+
+    private static void appendTokens(StringBuilder out, CommandData subcommand) {
+        List<String> tokens = tokens(subcommand);
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(Sources.literal(tokens.get(i)));
+        }
+    }
+
+    private static List<String> tokens(CommandData subcommand) {
+        List<String> tokens = new ArrayList<>(1 + subcommand.aliases().size());
+        tokens.add(subcommand.subcommandToken().toLowerCase(Locale.ROOT));
+        for (String alias : subcommand.aliases()) {
+            tokens.add(alias.toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,114 @@
+package dev.flur.commands.processor;
+
+import dev.flur.commands.runtime.DispatchTable;
+import dev.flur.commands.runtime.SuggestionIndex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Builds the BK-tree of top-level command names and aliases read by a {@code SuggestionIndex}.
+ * <p>
+ * Tokens are inserted in sorted order, so the tree is identical between builds, and the nodes are
+ * then laid out breadth-first with the children of every node sorted by their distance to it.
+ */
+final class SuggestionIndexBuilder {
+
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Integer> commands = new ArrayList<>();
+    private final List<Integer> distances = new ArrayList<>();
+    private int[] childOffsets = {0};
+
+    /**
+     * Collects the tokens naming a command at the root of the dispatch tree and builds the tree.
+     */
+    SuggestionIndexBuilder build(DispatchTableBuilder dispatch) {
+        int[] keyParents = dispatch.keyParents();
+        int[] keyTargets = dispatch.keyTargets();
+        int[] nodeCommands = dispatch.nodeCommands();
+        TreeMap<String, Integer> roots = new TreeMap<>();
+        for (int key = 0; key < keyParents.length; key++) {
+            int command = nodeCommands[keyTargets[key]];
+            if (keyParents[key] == DispatchTable.ROOT && command >= 0) {
+                roots.put(dispatch.keyTokens().get(key), command);
+            }
+        }
+        if (roots.isEmpty()) {
+            return this;
+        }
+
+        List<Node> nodes = new ArrayList<>();
+        Node root = null;
+        for (var entry : roots.entrySet()) {
+            Node node = new Node(entry.getKey(), entry.getValue());
+            nodes.add(node);
+            if (root == null) {
+                root = node;
+                continue;
+            }
+            Node parent = root;
+            while (true) {
+                int distance = SuggestionIndex.distance(parent.token, node.token, 0, node.token.length());
+                Node child = parent.children.get(distance);
+                if (child == null) {
+                    node.distance = distance;
+                    parent.children.put(distance, node);
+                    break;
+                }
+                parent = child;
+            }
+        }
+
+        // Breadth-first layout, so the children of every node are contiguous
+        childOffsets = new int[nodes.size() + 1];
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        int next = 1;
+        int index = 0;
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            tokens.add(node.token);
+            commands.add(node.command);
+            distances.add(node.distance);
+            childOffsets[index++] = next;
+            queue.addAll(node.children.values());
+            next += node.children.size();
+        }
+        childOffsets[index] = next;
+        return this;
+    }
+
+    List<String> tokens() {
+        return tokens;
+    }
+
+    int[] commands() {
+        return commands.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    int[] distances() {
+        return distances.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    int[] childOffsets() {
+        return childOffsets;
+    }
+
+    private static final class Node {
+
+        final String token;
+        final int command;
+        /**
+         * The children keyed by their distance to this node, and therefore sorted by it.
+         */
+        final TreeMap<Integer, Node> children = new TreeMap<>();
+        int distance;
+
+        Node(String token, int command) {
+            this.token = token;
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package dev.flur.commands.processor;
+
+import javax.lang.model.SourceVersion;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The parameters declared by a usage string, as parsed for commands with
+ * {@code parseArguments} enabled.
+ * <p>
+ * A usage consists of literal tokens followed by parameters, separated by spaces:
+ * {@code <name>} is required, {@code [name]} optional, {@code <name:type>} declares a type and a
+ * trailing {@code ...} collects all remaining arguments into the last parameter.
+ *
+ * @param parameters the parameters in declaration order
+ */
+record UsageGrammar(List<Parameter> parameters) {
+
+    /**
+     * Names a record component cannot have, because its accessor would clash with a method of {@link Object}.
+     */
+    private static final Set<String> RESERVED = Set.of(
+            "clone", "finalize", "getClass", "hashCode", "notify", "notifyAll", "toString", "wait");
+
+    /**
+     * The supported parameter types.
+     */
+    enum Type {
+        STRING("String", "String", null),
+        INT("int", "Integer", "parseInt"),
+        LONG("long", "Long", "parseLong"),
+        DOUBLE("double", "Double", "parseDouble"),
+        BOOLEAN("boolean", "Boolean", "parseBoolean");
+
+        final String javaType;
+        final String boxedType;
+        final String parser;
+
+        Type(String javaType, String boxedType, String parser) {
+            this.javaType = javaType;
+            this.boxedType = boxedType;
+            this.parser = parser;
+        }
+    }
+
+    /**
+     * A single parameter.
+     *
+     * @param name     the parameter name, a valid Java identifier
+     * @param type     the parameter type
+     * @param optional whether the parameter may be omitted
+     * @param rest     whether the parameter collects all remaining arguments
+     */
+    record Parameter(String name, Type type, boolean optional, boolean rest) {
+
+        /**
+         * Returns the Java type of the record component holding this parameter.
+         */
+        String javaType() {
+            return optional ? type.boxedType : type.javaType;
+        }
+    }
+
+    /**
+     * Returns the number of required parameters.
+     */
+    int required() {
+        int required = 0;
+        for (Parameter parameter : parameters) {
+            if (!parameter.optional()) {
+                required++;
+            }
+        }
+        return required;
+    }
+
+    /**
+     * Returns whether the last parameter collects all remaining arguments.
+     */
+    boolean hasRest() {
+        return !parameters.isEmpty() && parameters.get(parameters.size() - 1).rest();
+    }
+
+    /**
+     * Parses the given usage string.
+     *
+     * @throws IllegalArgumentException with a description of the problem if the usage is malformed
+     */
+    static UsageGrammar parse(String usage) {
+        List<Parameter> parameters = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        int length = usage.length();
+        int i = 0;
+        while (i < length) {
+            if (usage.charAt(i) == ' ') {
+                i++;
+                continue;
+            }
+            int end = usage.indexOf(' ', i);
+            if (end < 0) {
+                end = length;
+            }
+            String token = usage.substring(i, end);
+            i = end;
+
+            char open = token.charAt(0);
+            if (open != '<' && open != '[') {
+                if (!parameters.isEmpty()) {
+                    throw new IllegalArgumentException("literal '" + token + "' follows a parameter");
+                }
+                if (token.indexOf('<') >= 0 || token.indexOf('>') >= 0 || token.indexOf('[') >= 0 || token.indexOf(']') >= 0) {
+                    throw new IllegalArgumentException("malformed token '" + token + "'");
+                }
+                continue;
+            }
+
+            char close = open == '<' ? '>' : ']';
+            if (token.length() < 3 || token.charAt(token.length() - 1) != close) {
+                throw new IllegalArgumentException("parameter '" + token + "' is not closed with '" + close + "'");
+            }
+            Parameter parameter = parameter(token.substring(1, token.length() - 1), open == '[', token);
+
+            if (!parameters.isEmpty()) {
+                Parameter previous = parameters.get(parameters.size() - 1);
+                if (previous.rest()) {
+                    throw new IllegalArgumentException("parameter '" + token + "' follows the remaining arguments");
+                }
+                if (previous.optional() && !parameter.optional()) {
+                    throw new IllegalArgumentException("required parameter '" + token + "' follows an optional one");
+                }
+            }
+            if (!names.add(parameter.name())) {
+                throw new IllegalArgumentException("parameter '" + parameter.name() + "' is declared more than once");
+            }
+            parameters.add(parameter);
+        }
+        return new UsageGrammar(List.copyOf(parameters));
+    }
+
+    private static Parameter parameter(String content, boolean optional, String token) {
+        boolean rest = content.endsWith("...");
+        if (rest) {
+            content = content.substring(0, content.length() - 3);
+        }
+
+        String name = content;
+        Type type = Type.STRING;
+        int colon = content.indexOf(':');
+        if (colon >= 0) {
+            name = content.substring(0, colon);
+            String typeName = content.substring(colon + 1);
+            type = switch (typeName.toLowerCase(Locale.ROOT)) {
+                case "string" -> Type.STRING;
+                case "int" -> Type.INT;
+                case "long" -> Type.LONG;
+                case "double" -> Type.DOUBLE;
+                case "boolean" -> Type.BOOLEAN;
+                default -> throw new IllegalArgumentException("unknown type '" + typeName + "' in '" + token + "'");
+            };
+        }
+        if (!SourceVersion.isIdentifier(name) || SourceVersion.isKeyword(name) || RESERVED.contains(name)) {
+            throw new IllegalArgumentException("parameter name '" + name + "' in '" + token + "' is not a valid identifier");
+        }
+        if (rest && type != Type.STRING) {
+            throw new IllegalArgumentException("remaining arguments '" + token + "' must be of type string");
+        }
+        return new Parameter(name, type, optional, rest);
+    }
+
+    /**
+     * Returns the usage as shown to players, without the type declarations of its parameters.
+     */
+    static String display(String usage) {
+        StringBuilder out = new StringBuilder(usage.length());
+        boolean inParameter = false;
+        boolean inType = false;
+        for (int i = 0; i < usage.length(); i++) {
+            char c = usage.charAt(i);
+            if (c == '<' || c == '[') {
+                inParameter = true;
+            } else if (c == ':' && inParameter) {
+                inType = true;
+            } else if (c == '>' || c == ']' || c == ' ' || (c == '.' && inType)) {
+                inParameter = c != '>' && c != ']' && c != ' ' && inParameter;
+                inType = false;
+            }
+            if (!inType) {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
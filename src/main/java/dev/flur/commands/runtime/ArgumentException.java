@@ -0,0 +1,25 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown by a generated argument parser when the arguments of a command do not match its usage.
+ * <p>
+ * The message is meant to be shown to the command source as is.
+ *
+ * @since 1.1.0
+ */
+public final class ArgumentException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new exception with the given message.
+     *
+     * @param message the message shown to the command source
+     */
+    public ArgumentException(@NotNull String message) {
+        // Parse failures are expected user input errors, so no stack trace is captured
+        super(message, null, false, false);
+    }
+}
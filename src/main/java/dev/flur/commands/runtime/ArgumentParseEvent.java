@@ -0,0 +1,67 @@
+package dev.flur.commands.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event covering the parsing of the arguments of a typed command.
+ * <p>
+ * The event is disabled by default; see {@link CommandLookupEvent} for enabling it. Parsing
+ * handlers check {@link #enabled()} before creating it.
+ *
+ * @since 1.1.0
+ */
+@Name(ArgumentParseEvent.NAME)
+@Label("Command Argument Parsing")
+@Description("Parsing of the arguments of a command with parseArguments enabled")
+@Category({"Commands", "Dispatch"})
+@Enabled(false)
+@StackTrace(false)
+public final class ArgumentParseEvent extends Event {
+
+    /**
+     * The name of this event type.
+     */
+    public static final String NAME = "dev.flur.commands.ArgumentParse";
+
+    private static final EventType TYPE = EventType.getEventType(ArgumentParseEvent.class);
+
+    @Label("Command")
+    String command;
+
+    @Label("Alias")
+    String alias;
+
+    @Label("Success")
+    @Description("Whether the arguments matched the usage of the command")
+    boolean success;
+
+    /**
+     * Returns whether any recording currently enables this event type.
+     *
+     * @return {@code true} if events of this type may be committed
+     */
+    public static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Sets the fields and commits this event.
+     *
+     * @param command the command name
+     * @param alias   the name or alias used
+     * @param success whether the arguments were parsed
+     */
+    public void commit(String command, String alias, boolean success) {
+        this.command = command;
+        this.alias = alias;
+        this.success = success;
+        commit();
+    }
+}
@@ -0,0 +1,25 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Parses the arguments of a command into a typed value.
+ * <p>
+ * The processor generates a parser for every command with
+ * {@link dev.flur.commands.CommandInfo#parseArguments() parseArguments} enabled.
+ *
+ * @param <A> the type of the parsed arguments
+ * @since 1.1.0
+ */
+@FunctionalInterface
+public interface ArgumentParser<A> {
+
+    /**
+     * Parses the given arguments.
+     *
+     * @param args the arguments following the command
+     * @return the parsed arguments
+     * @throws ArgumentException if the arguments do not match the usage of the command
+     */
+    @NotNull A parse(@NotNull String[] args) throws ArgumentException;
+}
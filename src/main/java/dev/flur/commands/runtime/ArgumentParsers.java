@@ -0,0 +1,125 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Converts single arguments for generated argument parsers.
+ * <p>
+ * Every method reads its input once without regular expressions and reports invalid input as an
+ * {@link ArgumentException} naming the parameter.
+ * <p>
+ * This class is called by generated code and is not intended to be used directly.
+ *
+ * @since 1.1.0
+ */
+public final class ArgumentParsers {
+
+    private ArgumentParsers() {
+    }
+
+    /**
+     * Fails because a required argument is missing.
+     */
+    public static @NotNull ArgumentException missing(@NotNull String parameter) {
+        return new ArgumentException("Missing argument <" + parameter + ">");
+    }
+
+    /**
+     * Fails because more arguments were given than the usage allows.
+     */
+    public static @NotNull ArgumentException tooMany(int maximum) {
+        return new ArgumentException("Too many arguments, expected at most " + maximum);
+    }
+
+    /**
+     * Parses a decimal {@code int}.
+     */
+    public static int parseInt(@NotNull String parameter, @NotNull String value) throws ArgumentException {
+        long result = parseLong(parameter, value);
+        if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+            throw invalid("number", parameter, value);
+        }
+        return (int) result;
+    }
+
+    /**
+     * Parses a decimal {@code long}.
+     */
+    public static long parseLong(@NotNull String parameter, @NotNull String value) throws ArgumentException {
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            i = 1;
+        }
+        if (i == length) {
+            throw invalid("number", parameter, value);
+        }
+
+        // Accumulate negatively, so Long.MIN_VALUE is parsed without overflow
+        long result = 0;
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        for (; i < length; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < (limit + digit) / 10) {
+                throw invalid("number", parameter, value);
+            }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses a finite {@code double}.
+     */
+    public static double parseDouble(@NotNull String parameter, @NotNull String value) throws ArgumentException {
+        // Reject hexadecimal, NaN, Infinity and type suffixes before delegating
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                throw invalid("number", parameter, value);
+            }
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw invalid("number", parameter, value);
+        }
+    }
+
+    /**
+     * Parses {@code true} or {@code false}, ignoring case.
+     */
+    public static boolean parseBoolean(@NotNull String parameter, @NotNull String value) throws ArgumentException {
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw invalid("boolean", parameter, value);
+    }
+
+    /**
+     * Joins the arguments from the given index with single spaces.
+     */
+    public static @NotNull String join(@NotNull String[] args, int from) {
+        int length = args.length - from;
+        for (int i = from; i < args.length; i++) {
+            length += args[i].length();
+        }
+        StringBuilder joined = new StringBuilder(Math.max(length - 1, 0));
+        for (int i = from; i < args.length; i++) {
+            if (i > from) {
+                joined.append(' ');
+            }
+            joined.append(args[i]);
+        }
+        return joined.toString();
+    }
+
+    private static ArgumentException invalid(String kind, String parameter, String value) {
+        return new ArgumentException("Invalid " + kind + " for <" + parameter + ">: '" + value + "'");
+    }
+}
@@ -0,0 +1,106 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs a command handler through a {@link CommandScheduler} instead of on the dispatching thread.
+ * <p>
+ * The generated registry wraps the handlers of commands declared with {@code execution = ASYNC}.
+ * {@link #execute} returns immediately. The handler sees a source whose messages are sent on the
+ * main thread through {@link CommandScheduler#runSync}, in the order the handler sent them; when
+ * the handler returns {@code false}, the compiled usage message follows them, and exceptions
+ * thrown by the handler are rethrown there so the server reports them like those of synchronous
+ * commands. Tab completion is not scheduled.
+ *
+ * @since 1.1.0
+ */
+public final class AsyncCommandHandler implements CommandHandler {
+
+    private final CommandDescriptor command;
+    private final CompiledMessage usage;
+    private final CommandHandler handler;
+    private final CommandScheduler scheduler;
+
+    /**
+     * Creates a handler running the given handler through the scheduler.
+     *
+     * @param command   the command metadata
+     * @param usage     the compiled usage message of the command
+     * @param handler   the handler to run asynchronously
+     * @param scheduler the scheduler running the handler and its results
+     */
+    public AsyncCommandHandler(@NotNull CommandDescriptor command, @NotNull CompiledMessage usage,
+                               @NotNull CommandHandler handler, @NotNull CommandScheduler scheduler) {
+        this.command = command;
+        this.usage = usage;
+        this.handler = handler;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the handler run asynchronously.
+     */
+    public @NotNull CommandHandler handler() {
+        return handler;
+    }
+
+    /**
+     * Schedules the handler and returns {@code true} without waiting for it.
+     */
+    @Override
+    public boolean execute(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        // The caller may reuse its array once this method returns
+        String[] arguments = args.clone();
+        CommandSource syncSource = new SyncSource(source, scheduler);
+        scheduler.runAsync(() -> {
+            boolean handled;
+            try {
+                handled = handler.execute(syncSource, label, arguments);
+            } catch (RuntimeException | Error e) {
+                scheduler.runSync(() -> {
+                    throw e;
+                });
+                return;
+            }
+            if (!handled) {
+                scheduler.runSync(() -> source.sendMessage(usage.render()));
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public @NotNull List<String> complete(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return handler.complete(source, label, args);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncCommandHandler[" + command.name() + "]";
+    }
+
+    /**
+     * A source sending its messages on the main thread, for handlers running asynchronously.
+     */
+    private record SyncSource(CommandSource source, CommandScheduler scheduler) implements CommandSource {
+
+        @Override
+        public boolean hasPermission(@NotNull String permission) {
+            return source.hasPermission(permission);
+        }
+
+        @Override
+        public void sendMessage(@NotNull String message) {
+            scheduler.runSync(() -> source.sendMessage(message));
+        }
+
+        @Override
+        public @Nullable UUID uniqueId() {
+            return source.uniqueId();
+        }
+    }
+}
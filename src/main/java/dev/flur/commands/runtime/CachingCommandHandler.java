@@ -0,0 +1,127 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves the responses of a read-only command from a {@link ResponseCache}.
+ * <p>
+ * The generated registry wraps the handlers of commands declared with a {@code cacheTtl}. On a
+ * miss, the handler runs with a source that records the messages it sends; the messages and the
+ * result are then stored for the time to live of the command. On a hit, the stored messages are
+ * sent again and the stored result is returned without running the handler. Handlers that throw
+ * are not cached. For asynchronous commands this handler runs inside the {@link AsyncCommandHandler},
+ * so responses are recorded on the thread the handler runs on.
+ *
+ * @since 1.1.0
+ */
+public final class CachingCommandHandler implements CommandHandler {
+
+    private final CommandDescriptor command;
+    private final CommandHandler handler;
+    private final ResponseCache cache;
+
+    /**
+     * Creates a handler caching the responses of the given handler.
+     *
+     * @param command the command metadata, providing the time to live and scope
+     * @param handler the handler producing the responses
+     * @param cache   the cache shared by all commands
+     */
+    public CachingCommandHandler(@NotNull CommandDescriptor command, @NotNull CommandHandler handler,
+                                 @NotNull ResponseCache cache) {
+        this.command = command;
+        this.handler = handler;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the handler producing the responses.
+     */
+    public @NotNull CommandHandler handler() {
+        return handler;
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return execute(cache, command, source, label, args, handler);
+    }
+
+    @Override
+    public @NotNull List<String> complete(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return handler.complete(source, label, args);
+    }
+
+    /**
+     * Serves a use of a command from the cache, or runs the handler and caches its response.
+     * <p>
+     * Generated subcommand dispatchers call this method to invoke a cached subcommand.
+     *
+     * @param cache   the cache shared by all commands
+     * @param command the command metadata, providing the time to live and scope
+     * @param source  the source using the command
+     * @param label   the alias used
+     * @param args    the arguments
+     * @param handler the handler producing the response on a miss
+     * @return the result of the handler, cached or not
+     */
+    public static boolean execute(@NotNull ResponseCache cache, @NotNull CommandDescriptor command,
+                                  @NotNull CommandSource source, @NotNull String label, @NotNull String[] args,
+                                  @NotNull CommandHandler handler) {
+        Object key = cache.key(command, source, args);
+        if (key == null) {
+            return handler.execute(source, label, args);
+        }
+
+        ResponseCache.Response response = cache.get(key);
+        if (response != null) {
+            for (String message : response.messages()) {
+                source.sendMessage(message);
+            }
+            return response.result();
+        }
+
+        RecordingSource recording = new RecordingSource(source);
+        boolean result = handler.execute(recording, label, args);
+        cache.put(key, recording.messages.toArray(new String[0]), result, command.cacheTtlMillis());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CachingCommandHandler[" + command.name() + "]";
+    }
+
+    /**
+     * Forwards everything to a source while recording the messages sent to it.
+     */
+    private static final class RecordingSource implements CommandSource {
+
+        private final CommandSource source;
+        private final List<String> messages = new ArrayList<>();
+
+        RecordingSource(CommandSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasPermission(@NotNull String permission) {
+            return source.hasPermission(permission);
+        }
+
+        @Override
+        public void sendMessage(@NotNull String message) {
+            messages.add(message);
+            source.sendMessage(message);
+        }
+
+        @Override
+        public @Nullable UUID uniqueId() {
+            return source.uniqueId();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * A script of command lines resolved once and executed any number of times.
+ * <p>
+ * Preparing a batch resolves the command of every line through a {@link DispatchTable} and splits
+ * its arguments, tokenizing lines like {@link DispatchTable#resolve(CharSequence)} does, so
+ * executing it costs neither lookups nor string splitting. Typed arguments are still parsed by
+ * the handlers on every execution, behind the cooldowns, caches and metrics they are wrapped in.
+ * Lines using the same command share one group, and {@link #execute} fetches the handler of every
+ * group once rather than once per line. Lines still run in script order, since later lines
+ * usually depend on earlier ones.
+ * <p>
+ * Every line is dispatched to its top-level command like a platform would, so subcommands are
+ * routed and their permissions checked by the generated dispatchers. Blank lines and lines
+ * starting with {@code #} are skipped. The outcome of every line is reported in a {@link Result};
+ * unknown commands, missing permissions and handler exceptions never abort the batch.
+ *
+ * @since 1.1.0
+ */
+public final class CommandBatch {
+
+    /**
+     * The outcome of a line.
+     */
+    public enum Status {
+
+        /**
+         * The handler returned {@code true}.
+         */
+        HANDLED,
+
+        /**
+         * The handler returned {@code false}, so the usage of the command applies.
+         */
+        USAGE,
+
+        /**
+         * The handler threw an exception, see {@link Result#error(int)}.
+         */
+        ERROR,
+
+        /**
+         * The source lacks the permission of the command; the handler did not run.
+         */
+        DENIED,
+
+        /**
+         * No command matched the line, or the command has no handler.
+         */
+        UNKNOWN,
+
+        /**
+         * The line is blank or a comment.
+         */
+        SKIPPED
+    }
+
+    private final List<CommandDescriptor> commands;
+    private final int[] groups;
+    private final int[] groupCommands;
+    private final String[] labels;
+    private final String[][] arguments;
+
+    private CommandBatch(List<CommandDescriptor> commands, int[] groups, int[] groupCommands, String[] labels,
+                         String[][] arguments) {
+        this.commands = commands;
+        this.groups = groups;
+        this.groupCommands = groupCommands;
+        this.labels = labels;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Resolves the given lines.
+     * <p>
+     * The generated {@code GeneratedCommandRegistry.prepareBatch} calls this method with its own
+     * table and commands.
+     *
+     * @param table    the table resolving command names and aliases
+     * @param commands the commands, indexed by id
+     * @param lines    the command lines, with or without a leading slash
+     * @return the prepared batch
+     */
+    public static @NotNull CommandBatch prepare(@NotNull DispatchTable table, @NotNull List<CommandDescriptor> commands,
+                                                @NotNull List<? extends CharSequence> lines) {
+        int size = lines.size();
+        int[] groups = new int[size];
+        String[] labels = new String[size];
+        String[][] arguments = new String[size][];
+        int[] groupOfCommand = new int[commands.size()];
+        int[] groupCommands = new int[Math.min(size, commands.size())];
+        int groupCount = 0;
+        List<String> tokens = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            CharSequence line = lines.get(i);
+            int length = line.length();
+            int first = DispatchTable.skipSpaces(line, 0, length);
+            if (first == length || line.charAt(first) == '#') {
+                groups[i] = -1;
+                continue;
+            }
+            int start = DispatchTable.commandStart(line, length);
+            int end = start;
+            while (end < length && line.charAt(end) != ' ') {
+                end++;
+            }
+            labels[i] = line.subSequence(start, end).toString();
+
+            int node = start < end ? table.child(DispatchTable.ROOT, line, start, end) : -1;
+            int command = node >= 0 ? table.command(node) : -1;
+            if (command < 0) {
+                groups[i] = -2;
+                continue;
+            }
+            if (groupOfCommand[command] == 0) {
+                groupCommands[groupCount] = command;
+                groupOfCommand[command] = ++groupCount;
+            }
+            groups[i] = groupOfCommand[command] - 1;
+
+            tokens.clear();
+            int position = DispatchTable.skipSpaces(line, end, length);
+            while (position < length) {
+                int tokenEnd = position;
+                while (tokenEnd < length && line.charAt(tokenEnd) != ' ') {
+                    tokenEnd++;
+                }
+                tokens.add(line.subSequence(position, tokenEnd).toString());
+                position = DispatchTable.skipSpaces(line, tokenEnd, length);
+            }
+            arguments[i] = tokens.toArray(new String[0]);
+        }
+
+        int[] trimmed = new int[groupCount];
+        System.arraycopy(groupCommands, 0, trimmed, 0, groupCount);
+        return new CommandBatch(List.copyOf(commands), groups, trimmed, labels, arguments);
+    }
+
+    /**
+     * Returns the number of lines, including skipped lines.
+     *
+     * @return the line count
+     */
+    public int size() {
+        return groups.length;
+    }
+
+    /**
+     * Returns the command a line was resolved to.
+     *
+     * @param line the line index
+     * @return the command id, or {@code -1} if the line is skipped or names no command
+     */
+    public int command(int line) {
+        int group = groups[line];
+        return group >= 0 ? groupCommands[group] : -1;
+    }
+
+    /**
+     * Returns the number of distinct commands used by the lines.
+     *
+     * @return the group count
+     */
+    public int groupCount() {
+        return groupCommands.length;
+    }
+
+    /**
+     * Executes every line in order.
+     * <p>
+     * Handlers are looked up once per distinct command, so passing the handlers the registry was
+     * registered with applies their cooldowns, caches and metrics, while passing
+     * {@code GeneratedCommandRegistry::handler} runs the plain handlers.
+     *
+     * @param source   the source executing the lines
+     * @param handlers returns the handler of a command id, or {@code null} if it has none
+     * @return the outcome of every line
+     */
+    public @NotNull Result execute(@NotNull CommandSource source, @NotNull IntFunction<? extends CommandHandler> handlers) {
+        CommandHandler[] resolved = new CommandHandler[groupCommands.length];
+        byte[] permitted = new byte[groupCommands.length];
+        for (int group = 0; group < groupCommands.length; group++) {
+            resolved[group] = handlers.apply(groupCommands[group]);
+        }
+
+        Status[] statuses = new Status[groups.length];
+        Throwable[] errors = null;
+        for (int i = 0; i < groups.length; i++) {
+            int group = groups[i];
+            if (group == -1) {
+                statuses[i] = Status.SKIPPED;
+                continue;
+            }
+            if (group < 0 || resolved[group] == null) {
+                statuses[i] = Status.UNKNOWN;
+                continue;
+            }
+            if (permitted[group] == 0) {
+                CommandDescriptor command = commands.get(groupCommands[group]);
+                permitted[group] = !command.hasPermission() || source.hasPermission(command.permission()) ? (byte) 1 : -1;
+            }
+            if (permitted[group] < 0) {
+                statuses[i] = Status.DENIED;
+                continue;
+            }
+            try {
+                statuses[i] = resolved[group].execute(source, labels[i], arguments[i]) ? Status.HANDLED : Status.USAGE;
+            } catch (RuntimeException | LinkageError e) {
+                if (errors == null) {
+                    errors = new Throwable[groups.length];
+                }
+                errors[i] = e;
+                statuses[i] = Status.ERROR;
+            }
+        }
+        return new Result(statuses, errors);
+    }
+
+    /**
+     * The outcome of every line of an executed batch.
+     */
+    public static final class Result {
+
+        private final Status[] statuses;
+        private final Throwable[] errors;
+
+        private Result(Status[] statuses, Throwable[] errors) {
+            this.statuses = statuses;
+            this.errors = errors;
+        }
+
+        /**
+         * Returns the number of lines.
+         *
+         * @return the line count
+         */
+        public int size() {
+            return statuses.length;
+        }
+
+        /**
+         * Returns the outcome of a line.
+         *
+         * @param line the line index
+         * @return the status
+         */
+        public @NotNull Status status(int line) {
+            return statuses[line];
+        }
+
+        /**
+         * Returns the exception thrown by the handler of a line.
+         *
+         * @param line the line index
+         * @return the exception, or {@code null} if the status is not {@link Status#ERROR}
+         */
+        public @Nullable Throwable error(int line) {
+            return errors != null ? errors[line] : null;
+        }
+
+        /**
+         * Returns the number of lines with the given outcome.
+         *
+         * @param status the status
+         * @return the line count
+         */
+        public int count(@NotNull Status status) {
+            int count = 0;
+            for (Status s : statuses) {
+                if (s == status) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dev.flur.commands.runtime;
+
+import dev.flur.commands.CacheScope;
+import dev.flur.commands.Execution;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Immutable metadata of a single command, as extracted from its {@code @CommandInfo} annotation
+ * at compile time.
+ * <p>
+ * Instances are created by the generated {@code GeneratedCommandRegistry} class and hold exactly
+ * the values that are written to {@code commands.yml}, so plugins can register their commands
+ * without parsing YAML or scanning the classpath.
+ *
+ * @param id                the dense index of the command inside the generated registry
+ * @param name              the command name, without any leading slash
+ * @param description       the command description, or an empty string
+ * @param permission        the permission node, or an empty string if no permission is required
+ * @param permissionMessage the permission denied message, or an empty string
+ * @param usage             the usage message, defaulting to {@code "/" + name}
+ * @param aliases           the command aliases, never {@code null}
+ * @param handlerClass      the binary name of the annotated handler class
+ * @param execution         the thread the handler runs on
+ * @param cooldownMillis    the time a player must wait between two uses in milliseconds, or {@code 0}
+ * @param rateLimit         the number of uses a player may make within the rate limit period, or {@code 0}
+ * @param rateLimitPeriodMillis the rate limit period in milliseconds, or {@code 0}
+ * @param cacheTtlMillis    the time responses are reused in milliseconds, or {@code 0} if they are not cached
+ * @param cacheScope        the key cached responses are shared by
+ * @since 1.1.0
+ */
+public record CommandDescriptor(
+        int id,
+        @NotNull String name,
+        @NotNull String description,
+        @NotNull String permission,
+        @NotNull String permissionMessage,
+        @NotNull String usage,
+        @NotNull List<String> aliases,
+        @NotNull String handlerClass,
+        @NotNull Execution execution,
+        long cooldownMillis,
+        int rateLimit,
+        long rateLimitPeriodMillis,
+        long cacheTtlMillis,
+        @NotNull CacheScope cacheScope) {
+
+    /**
+     * Creates a new descriptor, copying the aliases into an immutable list.
+     */
+    public CommandDescriptor {
+        aliases = List.copyOf(aliases);
+    }
+
+    /**
+     * Creates a new descriptor of a command whose responses are not cached.
+     */
+    public CommandDescriptor(int id, @NotNull String name, @NotNull String description, @NotNull String permission,
+                             @NotNull String permissionMessage, @NotNull String usage, @NotNull List<String> aliases,
+                             @NotNull String handlerClass, @NotNull Execution execution, long cooldownMillis,
+                             int rateLimit, long rateLimitPeriodMillis) {
+        this(id, name, description, permission, permissionMessage, usage, aliases, handlerClass, execution,
+                cooldownMillis, rateLimit, rateLimitPeriodMillis, 0, CacheScope.ARGUMENTS);
+    }
+
+    /**
+     * Creates a new descriptor of an uncached command without a cooldown or rate limit.
+     */
+    public CommandDescriptor(int id, @NotNull String name, @NotNull String description, @NotNull String permission,
+                             @NotNull String permissionMessage, @NotNull String usage, @NotNull List<String> aliases,
+                             @NotNull String handlerClass, @NotNull Execution execution) {
+        this(id, name, description, permission, permissionMessage, usage, aliases, handlerClass, execution, 0, 0, 0);
+    }
+
+    /**
+     * Creates a new descriptor of a command without limits whose handler runs on the dispatching thread.
+     */
+    public CommandDescriptor(int id, @NotNull String name, @NotNull String description, @NotNull String permission,
+                             @NotNull String permissionMessage, @NotNull String usage, @NotNull List<String> aliases,
+                             @NotNull String handlerClass) {
+        this(id, name, description, permission, permissionMessage, usage, aliases, handlerClass, Execution.SYNC);
+    }
+
+    /**
+     * Returns whether this command requires a permission.
+     *
+     * @return {@code true} if {@link #permission()} is not empty
+     */
+    public boolean hasPermission() {
+        return !permission.isEmpty();
+    }
+
+    /**
+     * Returns whether this command has a cooldown or a rate limit.
+     *
+     * @return {@code true} if uses of this command are recorded per player
+     */
+    public boolean hasLimits() {
+        return cooldownMillis > 0 || rateLimit > 0;
+    }
+
+    /**
+     * Returns whether the responses of this command are cached.
+     *
+     * @return {@code true} if {@link #cacheTtlMillis()} is positive
+     */
+    public boolean isCached() {
+        return cacheTtlMillis > 0;
+    }
+}
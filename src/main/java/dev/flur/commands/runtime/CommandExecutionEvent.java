@@ -0,0 +1,69 @@
+package dev.flur.commands.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event covering the execution of a command handler, including loading
+ * its class on first use.
+ * <p>
+ * The event is disabled by default; see {@link CommandLookupEvent} for enabling it. Handlers check
+ * {@link #enabled()} before creating it, and asynchronous commands are recorded on the thread
+ * their handler runs on.
+ *
+ * @since 1.1.0
+ */
+@Name(CommandExecutionEvent.NAME)
+@Label("Command Execution")
+@Description("Execution of a command handler")
+@Category({"Commands", "Dispatch"})
+@Enabled(false)
+@StackTrace(false)
+public final class CommandExecutionEvent extends Event {
+
+    /**
+     * The name of this event type.
+     */
+    public static final String NAME = "dev.flur.commands.CommandExecution";
+
+    private static final EventType TYPE = EventType.getEventType(CommandExecutionEvent.class);
+
+    @Label("Command")
+    String command;
+
+    @Label("Alias")
+    String alias;
+
+    @Label("Handled")
+    @Description("Whether the handler returned true; false if it returned false or threw")
+    boolean handled;
+
+    /**
+     * Returns whether any recording currently enables this event type.
+     *
+     * @return {@code true} if events of this type may be committed
+     */
+    public static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Sets the fields and commits this event.
+     *
+     * @param command the command name
+     * @param alias   the name or alias used
+     * @param handled whether the handler returned {@code true}
+     */
+    public void commit(String command, String alias, boolean handled) {
+        this.command = command;
+        this.alias = alias;
+        this.handled = handled;
+        commit();
+    }
+}
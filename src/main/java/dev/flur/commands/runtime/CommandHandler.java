@@ -0,0 +1,39 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Executes a command.
+ * <p>
+ * A {@code @CommandInfo} class implementing this interface with a non-private no-argument
+ * constructor is instantiated by the generated registry on first use, see
+ * {@link LazyCommandHandler}.
+ *
+ * @since 1.1.0
+ */
+public interface CommandHandler {
+
+    /**
+     * Executes the command.
+     *
+     * @param source the source that sent the command
+     * @param label  the name or alias the command was invoked with
+     * @param args   the arguments following the command
+     * @return {@code false} if the usage message should be shown, {@code true} otherwise
+     */
+    boolean execute(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args);
+
+    /**
+     * Returns tab-completion candidates for the last argument.
+     *
+     * @param source the source requesting the completion
+     * @param label  the name or alias the command was invoked with
+     * @param args   the arguments following the command, the last one being completed
+     * @return the completion candidates, empty by default
+     */
+    default @NotNull List<String> complete(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return List.of();
+    }
+}
@@ -0,0 +1,285 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Reads the binary {@code commands.idx} file in place, without parsing it into objects.
+ * <p>
+ * The processor writes the index next to {@code commands.yml} when the {@code commands.index}
+ * option is set. It holds the same commands: every name, alias, permission and message is stored
+ * once in a string table, and every command is a fixed-width record of string indexes, so the
+ * fields of a command are found by offset arithmetic. A sorted key table maps every lower-case
+ * command name and alias to its record; subcommand aliases are keyed under their parent, such as
+ * {@code home.add}. Looking up a command is a binary search comparing bytes in the buffer, and
+ * strings are only decoded when a field is read.
+ * <p>
+ * All values are big-endian. The layout, with offsets from the start of the file:
+ * <pre>
+ * header   magic, version, command count, records offset, key count, keys offset,
+ *          alias count, aliases offset, string count, string offsets offset, string data offset
+ * records  name, description, usage, permission, permission message, first alias, alias count
+ * keys     string, command; sorted by the UTF-8 bytes of the string
+ * aliases  string
+ * strings  count + 1 offsets into the string data, then the UTF-8 string data
+ * </pre>
+ * Every field is a 32-bit integer. Indexes are immutable and thread-safe.
+ *
+ * @since 1.1.0
+ */
+public final class CommandIndex {
+
+    /**
+     * The first four bytes of every index, {@code "CIDX"}.
+     */
+    public static final int MAGIC = 0x43494458;
+
+    /**
+     * The version of the layout this class reads.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 44;
+
+    /**
+     * The size of a command record in bytes.
+     */
+    public static final int RECORD_SIZE = 28;
+
+    /**
+     * The size of a key table entry in bytes.
+     */
+    public static final int KEY_SIZE = 8;
+
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 4;
+    private static final int USAGE = 8;
+    private static final int PERMISSION = 12;
+    private static final int PERMISSION_MESSAGE = 16;
+    private static final int FIRST_ALIAS = 20;
+    private static final int ALIAS_COUNT = 24;
+
+    private final ByteBuffer buffer;
+    private final int commandCount;
+    private final int records;
+    private final int keyCount;
+    private final int keys;
+    private final int aliases;
+    private final int stringOffsets;
+    private final int stringData;
+
+    private CommandIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a command index");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported command index version " + buffer.getInt(4)
+                    + ", expected " + VERSION);
+        }
+        this.commandCount = buffer.getInt(8);
+        this.records = buffer.getInt(12);
+        this.keyCount = buffer.getInt(16);
+        this.keys = buffer.getInt(20);
+        this.aliases = buffer.getInt(28);
+        int stringCount = buffer.getInt(32);
+        this.stringOffsets = buffer.getInt(36);
+        this.stringData = buffer.getInt(40);
+        if (records + (long) commandCount * RECORD_SIZE > buffer.capacity()
+                || keys + (long) keyCount * KEY_SIZE > buffer.capacity()
+                || aliases + 4L * buffer.getInt(24) > buffer.capacity()
+                || stringOffsets + 4L * (stringCount + 1) > buffer.capacity()
+                || stringData + (long) buffer.getInt(stringOffsets + 4 * stringCount) > buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated command index");
+        }
+    }
+
+    /**
+     * Memory-maps an index file. The mapping stays valid after the file is closed.
+     *
+     * @param file the {@code commands.idx} file
+     * @return the index
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a command index of a supported version
+     */
+    public static @NotNull CommandIndex map(@NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads an index from a buffer, such as the bytes of a {@code commands.idx} entry of a JAR.
+     * The buffer is not copied and must not change afterwards.
+     *
+     * @param buffer the index, starting at position {@code 0}
+     * @return the index
+     * @throws IllegalArgumentException if the buffer is not a command index of a supported version
+     */
+    public static @NotNull CommandIndex of(@NotNull ByteBuffer buffer) {
+        return new CommandIndex(buffer.duplicate().order(ByteOrder.BIG_ENDIAN));
+    }
+
+    /**
+     * Returns the number of commands.
+     *
+     * @return the command count
+     */
+    public int size() {
+        return commandCount;
+    }
+
+    /**
+     * Looks up a command by name or alias, ignoring case. Subcommands are looked up by their full
+     * dotted name, or by their parent name and alias such as {@code home.add}.
+     *
+     * @param name the name or alias, without a leading slash
+     * @return the command index, or {@code -1} if no command has that name or alias
+     */
+    public int find(@NotNull CharSequence name) {
+        byte[] key = name.toString().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = keyCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = keys + middle * KEY_SIZE;
+            int comparison = compare(buffer.getInt(entry), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(entry + 4);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the name of a command.
+     *
+     * @param command the command index, ordered by name
+     * @return the command name
+     */
+    public @NotNull String name(int command) {
+        return string(field(command, NAME));
+    }
+
+    /**
+     * Returns the description of a command.
+     *
+     * @param command the command index
+     * @return the description, or an empty string
+     */
+    public @NotNull String description(int command) {
+        return string(field(command, DESCRIPTION));
+    }
+
+    /**
+     * Returns the usage of a command.
+     *
+     * @param command the command index
+     * @return the usage, defaulting to {@code "/" + name}
+     */
+    public @NotNull String usage(int command) {
+        return string(field(command, USAGE));
+    }
+
+    /**
+     * Returns whether a command requires a permission, without decoding it.
+     *
+     * @param command the command index
+     * @return {@code true} if {@link #permission(int)} is not empty
+     */
+    public boolean hasPermission(int command) {
+        return length(field(command, PERMISSION)) > 0;
+    }
+
+    /**
+     * Returns the permission node of a command.
+     *
+     * @param command the command index
+     * @return the permission, or an empty string if no permission is required
+     */
+    public @NotNull String permission(int command) {
+        return string(field(command, PERMISSION));
+    }
+
+    /**
+     * Returns the permission denied message of a command.
+     *
+     * @param command the command index
+     * @return the message, or an empty string
+     */
+    public @NotNull String permissionMessage(int command) {
+        return string(field(command, PERMISSION_MESSAGE));
+    }
+
+    /**
+     * Returns the number of aliases of a command.
+     *
+     * @param command the command index
+     * @return the alias count
+     */
+    public int aliasCount(int command) {
+        return field(command, ALIAS_COUNT);
+    }
+
+    /**
+     * Returns an alias of a command, as declared.
+     *
+     * @param command the command index
+     * @param alias   the alias index, below {@link #aliasCount(int)}
+     * @return the alias
+     */
+    public @NotNull String alias(int command, int alias) {
+        if (alias < 0 || alias >= aliasCount(command)) {
+            throw new IndexOutOfBoundsException(alias);
+        }
+        return string(buffer.getInt(aliases + 4 * (field(command, FIRST_ALIAS) + alias)));
+    }
+
+    private int field(int command, int offset) {
+        if (command < 0 || command >= commandCount) {
+            throw new IndexOutOfBoundsException(command);
+        }
+        return buffer.getInt(records + command * RECORD_SIZE + offset);
+    }
+
+    private int length(int string) {
+        return buffer.getInt(stringOffsets + 4 * (string + 1)) - buffer.getInt(stringOffsets + 4 * string);
+    }
+
+    private String string(int string) {
+        byte[] bytes = new byte[length(string)];
+        buffer.get(stringData + buffer.getInt(stringOffsets + 4 * string), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a string of the table with the given bytes, byte by byte as unsigned values.
+     */
+    private int compare(int string, byte[] key) {
+        int start = stringData + buffer.getInt(stringOffsets + 4 * string);
+        int length = length(string);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(start + i) & 0xff, key[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+}
@@ -0,0 +1,71 @@
+package dev.flur.commands.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Java Flight Recorder event covering the resolution of a command line by the generated registry.
+ * <p>
+ * The event is disabled by default. Enable {@value #NAME} in a recording settings file or with
+ * {@code jfr configure}. The generated registry checks {@link #enabled()} before creating the
+ * event, so resolving a line allocates nothing while it is disabled. The command line itself is
+ * not recorded, since its arguments may hold private data.
+ *
+ * @since 1.1.0
+ */
+@Name(CommandLookupEvent.NAME)
+@Label("Command Lookup")
+@Description("Resolution of a command line to a command")
+@Category({"Commands", "Dispatch"})
+@Enabled(false)
+@StackTrace(false)
+public final class CommandLookupEvent extends Event {
+
+    /**
+     * The name of this event type.
+     */
+    public static final String NAME = "dev.flur.commands.CommandLookup";
+
+    private static final EventType TYPE = EventType.getEventType(CommandLookupEvent.class);
+
+    @Label("Command")
+    @Description("The resolved command, or null if no command matched")
+    String command;
+
+    @Label("Alias")
+    @Description("The first token of the line, the name or alias used")
+    String alias;
+
+    /**
+     * Returns whether any recording currently enables this event type.
+     *
+     * @return {@code true} if events of this type may be committed
+     */
+    public static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Sets the fields and commits this event.
+     *
+     * @param command the resolved command name, or {@code null}
+     * @param line    the resolved command line
+     */
+    public void commit(String command, @NotNull CharSequence line) {
+        int start = DispatchTable.commandStart(line, line.length());
+        int end = start;
+        while (end < line.length() && line.charAt(end) != ' ') {
+            end++;
+        }
+        this.command = command;
+        this.alias = line.subSequence(start, end).toString();
+        commit();
+    }
+}
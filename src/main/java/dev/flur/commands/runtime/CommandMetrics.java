@@ -0,0 +1,278 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation counts, outcomes and latency histograms of the commands of a registry.
+ * <p>
+ * Metrics are collected by {@link MeteredCommandHandler}s, which the generated registry installs
+ * when a {@code CommandMetrics} is passed to {@code registerAll}. Without one, no handler is
+ * wrapped and dispatching costs nothing extra. Counters are {@link LongAdder}s, so handlers
+ * running concurrently do not contend, and the counters of a command are allocated when it is
+ * first invoked.
+ * <p>
+ * Latencies are counted in fixed buckets from 10 µs to 1 s, see {@link #bucketBoundNanos(int)},
+ * followed by one bucket for everything slower.
+ *
+ * @since 1.1.0
+ */
+public final class CommandMetrics {
+
+    /**
+     * The inclusive upper bounds of the latency buckets in nanoseconds, from 10 µs to 1 s.
+     */
+    private static final long[] BUCKET_BOUNDS_NANOS = {
+            10_000L, 50_000L, 100_000L, 500_000L,
+            1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L,
+            100_000_000L, 500_000_000L, 1_000_000_000L
+    };
+
+    /**
+     * The number of latency buckets, including the bucket for latencies above the last bound.
+     */
+    public static final int BUCKET_COUNT = BUCKET_BOUNDS_NANOS.length + 1;
+
+    /**
+     * The result of an invocation.
+     */
+    public enum Outcome {
+
+        /**
+         * The handler returned {@code true}.
+         */
+        HANDLED,
+
+        /**
+         * The handler returned {@code false}, so the usage message was sent.
+         */
+        USAGE,
+
+        /**
+         * The handler threw an exception.
+         */
+        ERROR
+    }
+
+    private final List<CommandDescriptor> commands;
+    private final AtomicReferenceArray<Counters> counters;
+
+    /**
+     * Creates empty metrics for the given commands.
+     *
+     * @param commands the commands, indexed by id, such as {@code GeneratedCommandRegistry.commands()}
+     */
+    public CommandMetrics(@NotNull List<CommandDescriptor> commands) {
+        this.commands = List.copyOf(commands);
+        this.counters = new AtomicReferenceArray<>(commands.size());
+    }
+
+    /**
+     * Returns the upper bound of a latency bucket.
+     *
+     * @param bucket the bucket index
+     * @return the inclusive upper bound in nanoseconds, or {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long bucketBoundNanos(int bucket) {
+        return bucket < BUCKET_BOUNDS_NANOS.length ? BUCKET_BOUNDS_NANOS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Records an invocation of a command.
+     *
+     * @param command      the command id
+     * @param elapsedNanos the time the handler took
+     * @param outcome      the result of the handler
+     */
+    public void record(int command, long elapsedNanos, @NotNull Outcome outcome) {
+        Counters counters = this.counters.get(command);
+        if (counters == null) {
+            this.counters.compareAndSet(command, null, new Counters());
+            counters = this.counters.get(command);
+        }
+        counters.invocations.increment();
+        counters.totalNanos.add(elapsedNanos);
+        if (outcome == Outcome.USAGE) {
+            counters.usage.increment();
+        } else if (outcome == Outcome.ERROR) {
+            counters.errors.increment();
+        }
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_NANOS.length && elapsedNanos > BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        counters.buckets[bucket].increment();
+    }
+
+    /**
+     * Returns how often a command was invoked.
+     *
+     * @param command the command id
+     * @return the invocation count
+     */
+    public long invocations(int command) {
+        Counters counters = this.counters.get(command);
+        return counters != null ? counters.invocations.sum() : 0;
+    }
+
+    /**
+     * Returns how often a command returned {@code false}.
+     *
+     * @param command the command id
+     * @return the usage count
+     */
+    public long usage(int command) {
+        Counters counters = this.counters.get(command);
+        return counters != null ? counters.usage.sum() : 0;
+    }
+
+    /**
+     * Returns how often a command threw an exception.
+     *
+     * @param command the command id
+     * @return the error count
+     */
+    public long errors(int command) {
+        Counters counters = this.counters.get(command);
+        return counters != null ? counters.errors.sum() : 0;
+    }
+
+    /**
+     * Returns the time all invocations of a command took together.
+     *
+     * @param command the command id
+     * @return the total time in nanoseconds
+     */
+    public long totalNanos(int command) {
+        Counters counters = this.counters.get(command);
+        return counters != null ? counters.totalNanos.sum() : 0;
+    }
+
+    /**
+     * Returns a snapshot of the latency histogram of a command.
+     *
+     * @param command the command id
+     * @return the invocation count of every bucket, {@link #BUCKET_COUNT} in total
+     */
+    public long @NotNull [] histogram(int command) {
+        long[] histogram = new long[BUCKET_COUNT];
+        Counters counters = this.counters.get(command);
+        if (counters != null) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                histogram[i] = counters.buckets[i].sum();
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Estimates a latency percentile of a command from its histogram.
+     *
+     * @param command  the command id
+     * @param quantile the quantile, such as {@code 0.99}
+     * @return the upper bound of the bucket containing the quantile in nanoseconds, {@code 0} if
+     * the command was never invoked, or {@link Long#MAX_VALUE} if it lies in the last bucket
+     */
+    public long percentileNanos(int command, double quantile) {
+        long[] histogram = histogram(command);
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return bucketBoundNanos(i);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Resets the metrics of all commands.
+     */
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, null);
+        }
+    }
+
+    /**
+     * Writes the metrics of every invoked command to a file, one tab-separated line per command.
+     * <p>
+     * Lines hold the command name, the invocation, usage and error counts, the mean, median and
+     * 99th percentile latency in microseconds, and the counts of all buckets. The file is written
+     * next to its destination first and then moved over it, so readers never see a partial dump.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void dump(@NotNull Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder header = new StringBuilder("# command\tinvocations\tusage\terrors\tmean_us\tp50_us\tp99_us");
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            header.append(i < BUCKET_BOUNDS_NANOS.length ? "\tle_" + BUCKET_BOUNDS_NANOS[i] / 1000 + "us" : "\tinf");
+        }
+        lines.add(header.toString());
+
+        for (int command = 0; command < commands.size(); command++) {
+            long invocations = invocations(command);
+            if (invocations == 0) {
+                continue;
+            }
+            StringBuilder line = new StringBuilder(commands.get(command).name())
+                    .append('\t').append(invocations)
+                    .append('\t').append(usage(command))
+                    .append('\t').append(errors(command))
+                    .append('\t').append(totalNanos(command) / invocations / 1000)
+                    .append('\t').append(micros(percentileNanos(command, 0.5)))
+                    .append('\t').append(micros(percentileNanos(command, 0.99)));
+            for (long count : histogram(command)) {
+                line.append('\t').append(count);
+            }
+            lines.add(line.toString());
+        }
+
+        Path absolute = file.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.write(temporary, lines);
+        try {
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String micros(long nanos) {
+        return nanos == Long.MAX_VALUE ? "inf" : Long.toString(nanos / 1000);
+    }
+
+    private static final class Counters {
+
+        final LongAdder invocations = new LongAdder();
+        final LongAdder usage = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+        Counters() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+    }
+}
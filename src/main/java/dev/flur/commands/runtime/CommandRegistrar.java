@@ -0,0 +1,27 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Receives the commands of a generated registry.
+ * <p>
+ * Plugins implement this interface to bridge the generated metadata into their platform's
+ * command map, for example by creating a Bukkit {@code PluginCommand} for every descriptor.
+ *
+ * @since 1.1.0
+ */
+@FunctionalInterface
+public interface CommandRegistrar {
+
+    /**
+     * Registers a single command.
+     * <p>
+     * The handler is a {@link LazyCommandHandler}; registering it does not load the handler class.
+     *
+     * @param command the command metadata
+     * @param handler the handler stub, or {@code null} if the annotated class does not implement
+     *                {@link CommandHandler} or cannot be instantiated from the generated registry
+     */
+    void register(@NotNull CommandDescriptor command, @Nullable CommandHandler handler);
+}
@@ -0,0 +1,243 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Routes command lines on a proxy using the routing manifests of the plugins of every backend
+ * server.
+ * <p>
+ * The processor writes the {@value #MANIFEST} manifest when the {@code commands.routes} option is
+ * set. It lists every top-level command name and alias, also prefixed with the namespace given by
+ * the {@code commands.namespace} option, with the command it names and that command's permission
+ * as a hint, one tab-separated line each:
+ * <pre>
+ * # token	command	permission
+ * h	home
+ * home	home
+ * homes:h	home
+ * homes:home	home
+ * </pre>
+ * A router holds one open-addressing table per server, keyed by the lower-case tokens. Routing a
+ * line hashes and compares its first token in place, like a {@link DispatchTable}, so it neither
+ * splits nor copies the line.
+ * <p>
+ * A manifest only describes the commands of one plugin; vanilla commands and commands of plugins
+ * without a manifest are missing from it. Lines the manifests do not know are therefore always
+ * forwarded. Lines are only denied on the proxy when the router was loaded with permission checks,
+ * since the proxy's view of a player's permissions can differ from the backend's; the backend
+ * checks the permissions of the command and its subcommands either way. Routers are immutable and
+ * thread-safe.
+ *
+ * @since 1.1.0
+ */
+public final class CommandRouter {
+
+    /**
+     * The resource name of the routing manifest inside a plugin JAR.
+     */
+    public static final String MANIFEST = "commands.routes";
+
+    /**
+     * What the proxy should do with a command line.
+     */
+    public enum Decision {
+
+        /**
+         * Forward the line to the server, which decides how to handle it.
+         */
+        FORWARD,
+
+        /**
+         * A plugin of the server handles the command, permission checks are enabled and the player
+         * lacks its permission; drop the line.
+         */
+        DENY
+    }
+
+    /**
+     * A command of a backend server.
+     *
+     * @param server     the server handling the command
+     * @param command    the command name
+     * @param permission the permission of the command, or an empty string if none is required
+     */
+    public record Route(@NotNull String server, @NotNull String command, @NotNull String permission) {
+
+        /**
+         * Returns whether this command requires a permission.
+         *
+         * @return {@code true} if {@link #permission()} is not empty
+         */
+        public boolean hasPermission() {
+            return !permission.isEmpty();
+        }
+    }
+
+    private final Map<String, Table> servers;
+    private final boolean checkPermissions;
+
+    private CommandRouter(Map<String, Table> servers, boolean checkPermissions) {
+        this.servers = servers;
+        this.checkPermissions = checkPermissions;
+    }
+
+    /**
+     * Builds a router from the manifests of all backend plugins, forwarding every line.
+     *
+     * @param manifests the contents of the {@value #MANIFEST} manifest of every plugin, by server name
+     * @return the router
+     * @throws IllegalArgumentException if a manifest is malformed
+     * @see #load(Map, boolean)
+     */
+    public static @NotNull CommandRouter load(
+            @NotNull Map<String, ? extends Collection<? extends CharSequence>> manifests) {
+        return load(manifests, false);
+    }
+
+    /**
+     * Builds a router from the manifests of all backend plugins.
+     * <p>
+     * When two plugins of a server declare the same token, the first manifest wins, like the
+     * first plugin registering a command does on most platforms.
+     *
+     * @param manifests        the contents of the {@value #MANIFEST} manifest of every plugin, by server name
+     * @param checkPermissions whether lines for commands whose permission hint the player lacks
+     *                         are denied on the proxy; only enable this when the proxy sees the
+     *                         same permissions as the backends
+     * @return the router
+     * @throws IllegalArgumentException if a manifest is malformed
+     */
+    public static @NotNull CommandRouter load(
+            @NotNull Map<String, ? extends Collection<? extends CharSequence>> manifests, boolean checkPermissions) {
+        Map<String, Table> servers = new HashMap<>();
+        for (var server : manifests.entrySet()) {
+            Map<String, Route> routes = new LinkedHashMap<>();
+            for (CharSequence manifest : server.getValue()) {
+                parse(server.getKey(), manifest.toString(), routes);
+            }
+            servers.put(server.getKey(), new Table(routes));
+        }
+        return new CommandRouter(Map.copyOf(servers), checkPermissions);
+    }
+
+    /**
+     * Looks up the command the first token of a line names on a server.
+     *
+     * @param server the server the player is connected to
+     * @param line   the command line, with or without a leading slash
+     * @return the route, or {@code null} if the server has no manifest or no command with that token
+     */
+    public @Nullable Route route(@NotNull String server, @NotNull CharSequence line) {
+        Table table = servers.get(server);
+        if (table == null) {
+            return null;
+        }
+        int length = line.length();
+        int start = DispatchTable.commandStart(line, length);
+        int end = start;
+        while (end < length && line.charAt(end) != ' ') {
+            end++;
+        }
+        return start < end ? table.find(line, start, end) : null;
+    }
+
+    /**
+     * Decides whether to forward a command line to the server the player is connected to.
+     *
+     * @param server the server the player is connected to
+     * @param player the player, as seen by the proxy
+     * @param line   the command line, with or without a leading slash
+     * @return the decision
+     */
+    public @NotNull Decision decide(@NotNull String server, @NotNull CommandSource player, @NotNull CharSequence line) {
+        if (!checkPermissions) {
+            return Decision.FORWARD;
+        }
+        Route route = route(server, line);
+        return route == null || !route.hasPermission() || player.hasPermission(route.permission())
+                ? Decision.FORWARD
+                : Decision.DENY;
+    }
+
+    /**
+     * Returns whether a manifest of the given server was loaded.
+     *
+     * @param server the server name
+     * @return {@code true} if lines for the server are routed by its manifests
+     */
+    public boolean isKnown(@NotNull String server) {
+        return servers.containsKey(server);
+    }
+
+    private static void parse(String server, String manifest, Map<String, Route> routes) {
+        int lineNumber = 0;
+        for (String line : manifest.split("\r?\n")) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if (columns.length < 2 || columns.length > 3 || columns[0].isEmpty() || columns[1].isEmpty()) {
+                throw new IllegalArgumentException("Invalid route on line " + lineNumber + " of a manifest of server "
+                        + server + ": '" + line + "', expected a token, a command and an optional permission");
+            }
+            routes.putIfAbsent(columns[0].toLowerCase(Locale.ROOT),
+                    new Route(server, columns[1], columns.length == 3 ? columns[2] : ""));
+        }
+    }
+
+    /**
+     * An open-addressing hash table of lower-case tokens, probed linearly.
+     */
+    private static final class Table {
+
+        private final String[] tokens;
+        private final Route[] routes;
+        private final int mask;
+
+        Table(Map<String, Route> byToken) {
+            int capacity = Integer.highestOneBit(Math.max(1, byToken.size()) * 2) * 2;
+            this.tokens = new String[capacity];
+            this.routes = new Route[capacity];
+            this.mask = capacity - 1;
+            for (var entry : byToken.entrySet()) {
+                String token = entry.getKey();
+                int slot = DispatchTable.hash(0, 0, token, 0, token.length()) & mask;
+                while (tokens[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                tokens[slot] = token;
+                routes[slot] = entry.getValue();
+            }
+        }
+
+        Route find(CharSequence line, int start, int end) {
+            for (int slot = DispatchTable.hash(0, 0, line, start, end) & mask; tokens[slot] != null;
+                 slot = (slot + 1) & mask) {
+                if (matches(tokens[slot], line, start, end)) {
+                    return routes[slot];
+                }
+            }
+            return null;
+        }
+
+        private static boolean matches(String token, CharSequence line, int start, int end) {
+            if (token.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < token.length(); i++) {
+                if (Character.toLowerCase(line.charAt(start + i)) != token.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs the handlers of commands declared with {@code execution = ASYNC} off the main thread and
+ * hands their results back to it.
+ * <p>
+ * {@link VirtualThreadScheduler} runs handlers on virtual threads and is the scheduler plugins
+ * normally use. Tests can supply any other implementation, for example one that queues both kinds
+ * of tasks and runs them on the test thread.
+ *
+ * @since 1.1.0
+ */
+public interface CommandScheduler {
+
+    /**
+     * Runs a task off the main thread.
+     *
+     * @param task the task running a command handler
+     */
+    void runAsync(@NotNull Runnable task);
+
+    /**
+     * Runs a task on the main thread, for example through the server's scheduler.
+     *
+     * @param task the task handing a result back to the main thread
+     */
+    void runSync(@NotNull Runnable task);
+}
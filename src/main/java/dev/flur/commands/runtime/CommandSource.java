@@ -0,0 +1,44 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * The sender of a command, as seen by a {@link CommandHandler}.
+ * <p>
+ * Plugins adapt their platform's sender, for example a Bukkit {@code CommandSender}, to this
+ * interface when they invoke a handler.
+ *
+ * @since 1.1.0
+ */
+public interface CommandSource {
+
+    /**
+     * Returns whether this source has the given permission.
+     *
+     * @param permission the permission node
+     * @return {@code true} if the permission is granted
+     */
+    boolean hasPermission(@NotNull String permission);
+
+    /**
+     * Sends a message to this source.
+     *
+     * @param message the message to send
+     */
+    void sendMessage(@NotNull String message);
+
+    /**
+     * Returns the unique id of this source, used as the key of per-player caches.
+     * <p>
+     * The default implementation returns {@code null}, which disables caching for this source.
+     * Plugins return the player's unique id for players and {@code null} for the console.
+     *
+     * @return the unique id, or {@code null} if this source is not a player
+     */
+    default @Nullable UUID uniqueId() {
+        return null;
+    }
+}
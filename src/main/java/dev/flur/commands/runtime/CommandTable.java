@@ -0,0 +1,184 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the full command table: every command with its names, aliases,
+ * subcommands, permission and handler.
+ * <p>
+ * A snapshot is built completely before it is published, usually through a
+ * {@link CommandTableHolder}, and never changes afterwards. Dispatch and tab-completion threads
+ * therefore read it without locks, and a reload replaces the whole table with a single reference
+ * swap instead of mutating maps other threads are reading. Readers should fetch the current
+ * snapshot once per operation and use it throughout, so a reload never mixes two tables.
+ * <p>
+ * Snapshots are created by the generated {@code GeneratedCommandRegistry.snapshot} methods.
+ *
+ * @since 1.1.0
+ */
+public final class CommandTable {
+
+    /**
+     * The table without any command.
+     */
+    public static final CommandTable EMPTY = new CommandTable(List.of(), new CommandHandler[0],
+            new DispatchTable(new int[]{-1}, new int[0], new String[0], new int[0], new int[0], new int[0]),
+            new PermissionTable(new int[0], new int[0], new int[0], new int[0], new CommandDescriptor[0]));
+
+    private final List<CommandDescriptor> commands;
+    private final CommandHandler[] handlers;
+    private final DispatchTable dispatchTable;
+    private final PermissionTable permissionTable;
+    private final List<CommandDescriptor>[] subcommands;
+
+    /**
+     * Creates a snapshot of the given commands.
+     * <p>
+     * The handlers are copied, so changing the array afterwards does not affect the snapshot.
+     *
+     * @param commands        the commands, indexed by id
+     * @param handlers        the handler of every command, or {@code null} for commands without one
+     * @param dispatchTable   the table resolving the names, aliases and subcommands of the commands
+     * @param permissionTable the permissions of the commands
+     */
+    public CommandTable(@NotNull List<CommandDescriptor> commands, @Nullable CommandHandler @NotNull [] handlers,
+                        @NotNull DispatchTable dispatchTable, @NotNull PermissionTable permissionTable) {
+        if (handlers.length != commands.size()) {
+            throw new IllegalArgumentException("Inconsistent command table");
+        }
+        this.commands = List.copyOf(commands);
+        this.handlers = handlers.clone();
+        this.dispatchTable = dispatchTable;
+        this.permissionTable = permissionTable;
+
+        Map<String, Integer> ids = new HashMap<>();
+        for (CommandDescriptor command : this.commands) {
+            ids.put(command.name(), command.id());
+        }
+        @SuppressWarnings("unchecked")
+        List<CommandDescriptor>[] children = (List<CommandDescriptor>[]) new List<?>[this.commands.size()];
+        Arrays.fill(children, List.of());
+        for (CommandDescriptor command : this.commands) {
+            int dot = command.name().lastIndexOf('.');
+            Integer parent = dot > 0 ? ids.get(command.name().substring(0, dot)) : null;
+            if (parent != null) {
+                if (children[parent].isEmpty()) {
+                    children[parent] = new ArrayList<>();
+                }
+                children[parent].add(command);
+            }
+        }
+        for (int id = 0; id < children.length; id++) {
+            children[id] = List.copyOf(children[id]);
+        }
+        this.subcommands = children;
+    }
+
+    /**
+     * Returns the number of commands.
+     *
+     * @return the command count
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * Returns the descriptor of a command.
+     *
+     * @param id the command id
+     * @return the descriptor
+     */
+    public @NotNull CommandDescriptor command(int id) {
+        return commands.get(id);
+    }
+
+    /**
+     * Returns all commands, ordered by id.
+     *
+     * @return the immutable list of descriptors
+     */
+    public @NotNull List<CommandDescriptor> commands() {
+        return commands;
+    }
+
+    /**
+     * Returns the handler of a command.
+     *
+     * @param id the command id
+     * @return the handler, or {@code null} if the command has none
+     */
+    public @Nullable CommandHandler handler(int id) {
+        return handlers[id];
+    }
+
+    /**
+     * Returns the direct subcommands of a command, such as {@code parent.create} of {@code parent}.
+     *
+     * @param id the command id
+     * @return the immutable list of subcommands, ordered by id
+     */
+    public @NotNull List<CommandDescriptor> subcommands(int id) {
+        return subcommands[id];
+    }
+
+    /**
+     * Returns the table resolving command names, aliases and subcommands.
+     *
+     * @return the dispatch table
+     */
+    public @NotNull DispatchTable dispatchTable() {
+        return dispatchTable;
+    }
+
+    /**
+     * Returns the permissions of all commands.
+     *
+     * @return the permission table
+     */
+    public @NotNull PermissionTable permissionTable() {
+        return permissionTable;
+    }
+
+    /**
+     * Resolves a command line to the deepest command it names.
+     *
+     * @param line the command line
+     * @return the command, or {@code null} if the line names no command
+     * @see DispatchTable#resolve(CharSequence)
+     */
+    public @Nullable CommandDescriptor find(@NotNull CharSequence line) {
+        int id = DispatchTable.commandOf(dispatchTable.resolve(line));
+        return id >= 0 ? commands.get(id) : null;
+    }
+
+    /**
+     * Checks whether a source has the permission of a command.
+     *
+     * @param source the source
+     * @param id     the command id
+     * @return {@code true} if the command requires no permission or the source has it
+     */
+    public boolean isPermitted(@NotNull CommandSource source, int id) {
+        return permissionTable.test(source, permissionTable.permissionOf(id));
+    }
+
+    /**
+     * Resolves a script of command lines against this snapshot. Execute it with
+     * {@code table::handler} to run the handlers of this snapshot.
+     *
+     * @param lines the command lines, with or without a leading slash
+     * @return the prepared batch
+     * @see CommandBatch#prepare(DispatchTable, List, List)
+     */
+    public @NotNull CommandBatch prepareBatch(@NotNull List<? extends CharSequence> lines) {
+        return CommandBatch.prepare(dispatchTable, commands, lines);
+    }
+}
@@ -0,0 +1,69 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the current {@link CommandTable} to every thread through a single atomic reference.
+ * <p>
+ * Reading the current table is a volatile read and never blocks. A reload builds the next
+ * snapshot off the main thread, for example from {@code GeneratedCommandRegistry.snapshot}, and
+ * publishes it with one swap: threads that already fetched the previous table finish with it, and
+ * every later read sees the new one. No thread ever observes a partially registered table.
+ * <p>
+ * Holders are thread-safe.
+ *
+ * @since 1.1.0
+ */
+public final class CommandTableHolder {
+
+    private final AtomicReference<CommandTable> table;
+
+    /**
+     * Creates a holder publishing {@link CommandTable#EMPTY}.
+     */
+    public CommandTableHolder() {
+        this(CommandTable.EMPTY);
+    }
+
+    /**
+     * Creates a holder publishing the given table.
+     *
+     * @param table the initial table
+     */
+    public CommandTableHolder(@NotNull CommandTable table) {
+        this.table = new AtomicReference<>(table);
+    }
+
+    /**
+     * Returns the current table.
+     *
+     * @return the table published last
+     */
+    public @NotNull CommandTable get() {
+        return table.get();
+    }
+
+    /**
+     * Publishes a table, replacing the current one.
+     *
+     * @param table the new table
+     * @return the table it replaced
+     */
+    public @NotNull CommandTable publish(@NotNull CommandTable table) {
+        return this.table.getAndSet(table);
+    }
+
+    /**
+     * Publishes a table only if the current table is the expected one, so concurrent reloads
+     * cannot overwrite each other unnoticed.
+     *
+     * @param expected the table the new one was derived from
+     * @param table    the new table
+     * @return {@code true} if the table was published
+     */
+    public boolean publish(@NotNull CommandTable expected, @NotNull CommandTable table) {
+        return this.table.compareAndSet(expected, table);
+    }
+}
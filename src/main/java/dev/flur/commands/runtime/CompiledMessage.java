@@ -0,0 +1,156 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A message whose color codes and placeholders were parsed at compile time.
+ * <p>
+ * The processor translates the {@code &} color codes of every {@code permissionMessage},
+ * {@code usage}, {@code description} and {@code cooldownMessage} and splits them into literal
+ * runs around placeholders such as <code>{player}</code>; malformed codes and placeholders fail
+ * the build. Rendering a message without placeholders returns its single literal, and rendering
+ * any other message fills one builder sized for the literals up front.
+ * <p>
+ * Messages are created by the generated {@code GeneratedCommandRegistry} and are immutable.
+ *
+ * @since 1.1.0
+ */
+public final class CompiledMessage {
+
+    /**
+     * Separates the literal runs and placeholder names of an encoded message.
+     */
+    public static final char SEPARATOR = '\u001f';
+
+    /**
+     * The empty message.
+     */
+    public static final CompiledMessage EMPTY = new CompiledMessage(new String[]{""}, new String[0]);
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private CompiledMessage(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Decodes a message encoded by the processor: literal runs alternating with placeholder
+     * names, separated by the unit separator {@code U+001F}, starting and ending with a literal run.
+     *
+     * @param encoded the encoded message
+     * @return the message
+     */
+    public static @NotNull CompiledMessage decode(@NotNull String encoded) {
+        if (encoded.isEmpty()) {
+            return EMPTY;
+        }
+        int separators = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            if (encoded.charAt(i) == SEPARATOR) {
+                separators++;
+            }
+        }
+        if (separators % 2 != 0) {
+            throw new IllegalArgumentException("Expected an even number of separators in an encoded message");
+        }
+        String[] literals = new String[separators / 2 + 1];
+        String[] placeholders = new String[separators / 2];
+        int start = 0;
+        for (int segment = 0; segment <= separators; segment++) {
+            int end = encoded.indexOf(SEPARATOR, start);
+            String value = encoded.substring(start, end < 0 ? encoded.length() : end);
+            if (segment % 2 == 0) {
+                literals[segment / 2] = value;
+            } else {
+                placeholders[segment / 2] = value;
+            }
+            start = end + 1;
+        }
+        return new CompiledMessage(literals, placeholders);
+    }
+
+    /**
+     * Returns whether the message has no placeholders, so {@link #render()} returns a constant.
+     */
+    public boolean isConstant() {
+        return placeholders.length == 0;
+    }
+
+    /**
+     * Returns the placeholder names in order of appearance, possibly with duplicates.
+     */
+    public @NotNull List<String> placeholders() {
+        return List.of(placeholders);
+    }
+
+    /**
+     * Renders the message, keeping placeholders as they were written.
+     *
+     * @return the message with translated color codes
+     */
+    public @NotNull String render() {
+        return placeholders.length == 0 ? literals[0] : render(name -> null);
+    }
+
+    /**
+     * Renders the message with the given value for every placeholder, in order of appearance.
+     *
+     * @param values the values of the placeholders; missing or {@code null} values keep the placeholder
+     * @return the rendered message
+     */
+    public @NotNull String render(@Nullable String @NotNull ... values) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder(literalLength + 16 * placeholders.length);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]);
+            appendValue(builder, i, i < values.length ? values[i] : null);
+        }
+        return builder.append(literals[placeholders.length]).toString();
+    }
+
+    /**
+     * Renders the message with the value of every placeholder looked up by name.
+     *
+     * @param values returns the value of a placeholder name, or {@code null} to keep the placeholder
+     * @return the rendered message
+     */
+    public @NotNull String render(@NotNull Function<? super String, ?> values) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder(literalLength + 16 * placeholders.length);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]);
+            Object value = values.apply(placeholders[i]);
+            appendValue(builder, i, value != null ? value.toString() : null);
+        }
+        return builder.append(literals[placeholders.length]).toString();
+    }
+
+    private void appendValue(StringBuilder builder, int placeholder, String value) {
+        if (value != null) {
+            builder.append(value);
+        } else {
+            builder.append('{').append(placeholders[placeholder]).append('}');
+        }
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
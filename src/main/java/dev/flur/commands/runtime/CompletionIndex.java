@@ -0,0 +1,280 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * A precomputed, prefix-searchable index of command names, aliases and subcommand tokens for
+ * tab completion.
+ * <p>
+ * The index covers the same tree as the {@link DispatchTable}: every node lists its child tokens
+ * in one contiguous, lower-case sorted range, so the tokens starting with a prefix form a
+ * sub-range found by two binary searches. Queries compare characters case-insensitively in place
+ * and return the token strings held by the index, so completing a line allocates nothing but
+ * what the caller's collection needs to hold the results.
+ * <p>
+ * Every token carries the permission index of the command it leads to. Tokens the source lacks
+ * the permission for are skipped, and so are the subcommands below them. Permissions are either
+ * checked against the source or tested in a bitset from a {@link PermissionCache}.
+ * <p>
+ * Indexes are created by the generated {@code GeneratedCommandRegistry} and are immutable.
+ *
+ * @since 1.1.0
+ */
+public final class CompletionIndex {
+
+    private final int[] childOffsets;
+    private final String[] tokens;
+    private final int[] targets;
+    private final PermissionTable permissionTable;
+    private final int[] permissions;
+
+    /**
+     * Creates a completion index from precomputed arrays.
+     *
+     * @param childOffsets    the index of the first token of every node, followed by the token count
+     * @param tokens          the lower-case tokens, sorted within the range of every node
+     * @param targets         the child node every token leads to
+     * @param commands        the command id of the node every token leads to, or {@code -1}
+     * @param permissionTable the permissions of all commands
+     */
+    public CompletionIndex(int @NotNull [] childOffsets, String @NotNull [] tokens, int @NotNull [] targets,
+                           int @NotNull [] commands, @NotNull PermissionTable permissionTable) {
+        if (childOffsets.length == 0 || childOffsets[childOffsets.length - 1] != tokens.length
+                || targets.length != tokens.length || commands.length != tokens.length) {
+            throw new IllegalArgumentException("Inconsistent completion index");
+        }
+        this.childOffsets = childOffsets;
+        this.tokens = tokens;
+        this.targets = targets;
+        this.permissionTable = permissionTable;
+        this.permissions = new int[tokens.length];
+        for (int i = 0; i < commands.length; i++) {
+            permissions[i] = commands[i] >= 0 ? permissionTable.permissionOf(commands[i]) : PermissionTable.NONE;
+        }
+    }
+
+    /**
+     * Returns the number of tree nodes, including the root.
+     *
+     * @return the node count
+     */
+    public int nodeCount() {
+        return childOffsets.length - 1;
+    }
+
+    /**
+     * Returns the token with the given index.
+     *
+     * @param token the token index
+     * @return the lower-case token
+     */
+    public @NotNull String token(int token) {
+        return tokens[token];
+    }
+
+    /**
+     * Returns the node the token with the given index leads to.
+     *
+     * @param token the token index
+     * @return the child node
+     */
+    public int target(int token) {
+        return targets[token];
+    }
+
+    /**
+     * Returns whether the given source may complete the token with the given index.
+     *
+     * @param token  the token index
+     * @param source the source completing the command
+     * @return {@code true} if the token needs no permission or the source has it
+     */
+    public boolean isPermitted(int token, @NotNull CommandSource source) {
+        return permissionTable.test(source, permissions[token]);
+    }
+
+    /**
+     * Returns whether the token with the given index may be completed with the given permissions.
+     *
+     * @param token       the token index
+     * @param permissions the permission bitset of the source completing the command
+     * @return {@code true} if the token needs no permission or its bit is set
+     */
+    public boolean isPermitted(int token, long @NotNull [] permissions) {
+        return PermissionTable.test(permissions, this.permissions[token]);
+    }
+
+    /**
+     * Finds the children of a node whose token starts with the given prefix.
+     *
+     * @param node  the parent node
+     * @param input the characters containing the prefix
+     * @param start the index of the first character of the prefix
+     * @param end   the index after the last character of the prefix
+     * @return the packed token range; see {@link #rangeStart(long)} and {@link #rangeEnd(long)}
+     */
+    public long range(int node, @NotNull CharSequence input, int start, int end) {
+        int low = childOffsets[node];
+        int high = childOffsets[node + 1];
+
+        // First token not ordered before the prefix
+        int from = low;
+        int to = high;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (compare(tokens[middle], input, start, end, false) < 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+
+        // First token after all tokens starting with the prefix
+        int first = from;
+        to = high;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (compare(tokens[middle], input, start, end, true) <= 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return ((long) first << 32) | from;
+    }
+
+    /**
+     * Extracts the index of the first token from a range returned by {@link #range}.
+     *
+     * @param range the packed range
+     * @return the first token index
+     */
+    public static int rangeStart(long range) {
+        return (int) (range >>> 32);
+    }
+
+    /**
+     * Extracts the index after the last token from a range returned by {@link #range}.
+     *
+     * @param range the packed range
+     * @return the end token index, exclusive
+     */
+    public static int rangeEnd(long range) {
+        return (int) range;
+    }
+
+    /**
+     * Looks up the child of a node by its complete token.
+     *
+     * @param node  the parent node
+     * @param input the characters containing the token
+     * @param start the index of the first character of the token
+     * @param end   the index after the last character of the token
+     * @return the token index, or {@code -1} if the node has no child with that token
+     */
+    public int find(int node, @NotNull CharSequence input, int start, int end) {
+        int from = childOffsets[node];
+        int to = childOffsets[node + 1] - 1;
+        while (from <= to) {
+            int middle = (from + to) >>> 1;
+            int comparison = compare(tokens[middle], input, start, end, false);
+            if (comparison < 0) {
+                from = middle + 1;
+            } else if (comparison > 0) {
+                to = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Completes the last token of a command line.
+     * <p>
+     * The line is split into tokens like {@link DispatchTable#resolve(CharSequence)} splits it:
+     * leading spaces and a single slash are ignored and tokens are separated by any number of
+     * spaces. Every token but the last must name a command or subcommand the source is permitted
+     * to use; the last token is the prefix to complete and may be empty. For {@code "/p cr"}, where
+     * {@code p} is an alias of {@code parent}, the subcommand tokens of {@code parent} starting
+     * with {@code cr} are added. Lines whose earlier tokens do not resolve, such as arguments of a
+     * command, add nothing.
+     *
+     * @param line   the command line typed so far
+     * @param source the source completing the command
+     * @param out    receives the matching tokens in sorted order
+     * @return the number of tokens added
+     */
+    public int complete(@NotNull CharSequence line, @NotNull CommandSource source,
+                        @NotNull Collection<? super String> out) {
+        return complete(line, source, null, out);
+    }
+
+    /**
+     * Completes the last token of a command line like {@link #complete(CharSequence, CommandSource, Collection)},
+     * testing permissions in a bitset instead of checking them against the source.
+     *
+     * @param line        the command line typed so far
+     * @param permissions the permission bitset of the source completing the command
+     * @param out         receives the matching tokens in sorted order
+     * @return the number of tokens added
+     */
+    public int complete(@NotNull CharSequence line, long @NotNull [] permissions,
+                        @NotNull Collection<? super String> out) {
+        return complete(line, null, permissions, out);
+    }
+
+    private int complete(CharSequence line, CommandSource source, long[] bits, Collection<? super String> out) {
+        int length = line.length();
+        int position = DispatchTable.commandStart(line, length);
+
+        int node = DispatchTable.ROOT;
+        while (true) {
+            int end = position;
+            while (end < length && line.charAt(end) != ' ') {
+                end++;
+            }
+            if (end == length) {
+                break;
+            }
+            int token = find(node, line, position, end);
+            if (token < 0 || !isPermitted(token, source, bits)) {
+                return 0;
+            }
+            node = targets[token];
+            position = DispatchTable.skipSpaces(line, end, length);
+        }
+
+        long range = range(node, line, position, length);
+        int added = 0;
+        for (int token = rangeStart(range), last = rangeEnd(range); token < last; token++) {
+            if (isPermitted(token, source, bits)) {
+                out.add(tokens[token]);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private boolean isPermitted(int token, CommandSource source, long[] bits) {
+        return bits != null ? PermissionTable.test(bits, permissions[token]) : permissionTable.test(source, permissions[token]);
+    }
+
+    /**
+     * Compares a lower-case token with the characters of the input case-insensitively. With
+     * {@code prefix} set, tokens starting with the input compare as equal.
+     */
+    private static int compare(String token, CharSequence input, int start, int end, boolean prefix) {
+        int length = end - start;
+        int common = Math.min(token.length(), length);
+        for (int i = 0; i < common; i++) {
+            int difference = token.charAt(i) - Character.toLowerCase(input.charAt(start + i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return prefix && token.length() >= length ? 0 : token.length() - length;
+    }
+}
@@ -0,0 +1,237 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * The cooldown and rate limit state of every player and command.
+ * <p>
+ * Entries are keyed by the player's unique id and the command id and hold two timestamps: the end
+ * of the cooldown, and the theoretical arrival time of the generic cell rate algorithm, which
+ * spreads a rate limit of {@code n} uses per period evenly while still allowing bursts of
+ * {@code n} uses. Both fit in primitive arrays, so recording a use allocates nothing.
+ * <p>
+ * The table is split into {@value #STRIPES} stripes, each an open addressing hash table guarded by
+ * its own lock, so players rarely contend with each other. An entry whose timestamps have both
+ * passed limits nothing and is dropped whenever its stripe is rehashed, which happens before the
+ * stripe grows; {@link #evictExpired()} drops all of them at once.
+ * <p>
+ * The generated {@code GeneratedCommandRegistry} shares one table between all its commands; see
+ * {@link LimitedCommandHandler}.
+ *
+ * @since 1.1.0
+ */
+public final class CooldownTable {
+
+    private static final int STRIPES = 16;
+    private static final int STRIPE_SHIFT = 60;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongSupplier clock;
+
+    /**
+     * Creates an empty table measuring time with {@link System#nanoTime()}.
+     */
+    public CooldownTable() {
+        this(() -> System.nanoTime() / 1_000_000L);
+    }
+
+    /**
+     * Creates an empty table measuring time with the given clock.
+     *
+     * @param clock the current time in milliseconds, never decreasing
+     */
+    public CooldownTable(@NotNull LongSupplier clock) {
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Records a use of a command by a player, unless the cooldown or rate limit forbids it.
+     * <p>
+     * A forbidden use is not recorded, so it does not extend the time the player has to wait.
+     *
+     * @param player                the unique id of the player
+     * @param command               the command id
+     * @param cooldownMillis        the cooldown in milliseconds, or {@code 0} for none
+     * @param rateLimit             the number of uses within the period, or {@code 0} for none
+     * @param rateLimitPeriodMillis the rate limit period in milliseconds
+     * @return {@code 0} if the use was recorded, otherwise the milliseconds until it is allowed
+     */
+    public long acquire(@NotNull UUID player, int command, long cooldownMillis, int rateLimit,
+                        long rateLimitPeriodMillis) {
+        long most = player.getMostSignificantBits();
+        long least = player.getLeastSignificantBits();
+        long hash = hash(most, least, command);
+        long interval = rateLimit > 0 ? rateLimitPeriodMillis / rateLimit : 0;
+        long tolerance = rateLimit > 0 ? rateLimitPeriodMillis - interval : 0;
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].acquire(most, least, command, (int) hash,
+                cooldownMillis, interval, tolerance, clock.getAsLong());
+    }
+
+    /**
+     * Returns the number of entries, including expired entries that have not been evicted yet.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Drops all entries that no longer limit their player.
+     */
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        for (Stripe stripe : stripes) {
+            stripe.evict(now);
+        }
+    }
+
+    /**
+     * Drops all entries, lifting every cooldown and rate limit.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private static long hash(long most, long least, int command) {
+        long hash = most * 0x9E3779B97F4A7C15L ^ least;
+        hash = (hash ^ command) * 0xC2B2AE3D27D4EB4FL;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * One open addressing hash table with linear probing. Empty slots have the command {@code -1}.
+     */
+    private static final class Stripe {
+
+        private long[] mostBits;
+        private long[] leastBits;
+        private int[] commands;
+        private long[] cooldownEnds;
+        private long[] arrivalTimes;
+        private int size;
+
+        Stripe() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        synchronized long acquire(long most, long least, int command, int hash, long cooldownMillis,
+                                  long interval, long tolerance, long now) {
+            int mask = commands.length - 1;
+            int slot = hash & mask;
+            while (commands[slot] >= 0
+                    && (commands[slot] != command || mostBits[slot] != most || leastBits[slot] != least)) {
+                slot = (slot + 1) & mask;
+            }
+            boolean found = commands[slot] >= 0;
+
+            long arrival = found ? Math.max(arrivalTimes[slot], now) : now;
+            long wait = found ? cooldownEnds[slot] - now : 0;
+            if (interval > 0) {
+                wait = Math.max(wait, arrival - tolerance - now);
+            }
+            if (wait > 0) {
+                return wait;
+            }
+
+            if (!found) {
+                if ((size + 1) * 4 > commands.length * 3) {
+                    rehash(now, size + 1);
+                    mask = commands.length - 1;
+                    slot = hash & mask;
+                    while (commands[slot] >= 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                }
+                mostBits[slot] = most;
+                leastBits[slot] = least;
+                commands[slot] = command;
+                size++;
+            }
+            cooldownEnds[slot] = now + cooldownMillis;
+            arrivalTimes[slot] = arrival + interval;
+            return 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void evict(long now) {
+            rehash(now, 0);
+        }
+
+        synchronized void clear() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Rebuilds the table without expired entries, sized for the live entries and the given
+         * number of additional entries.
+         */
+        private void rehash(long now, int additional) {
+            long[] oldMostBits = mostBits;
+            long[] oldLeastBits = leastBits;
+            int[] oldCommands = commands;
+            long[] oldCooldownEnds = cooldownEnds;
+            long[] oldArrivalTimes = arrivalTimes;
+
+            int live = 0;
+            for (int i = 0; i < oldCommands.length; i++) {
+                if (oldCommands[i] >= 0 && isLive(oldCooldownEnds[i], oldArrivalTimes[i], now)) {
+                    live++;
+                }
+            }
+            int capacity = INITIAL_CAPACITY;
+            while ((live + additional) * 2 > capacity) {
+                capacity <<= 1;
+            }
+
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int i = 0; i < oldCommands.length; i++) {
+                if (oldCommands[i] < 0 || !isLive(oldCooldownEnds[i], oldArrivalTimes[i], now)) {
+                    continue;
+                }
+                int slot = (int) hash(oldMostBits[i], oldLeastBits[i], oldCommands[i]) & mask;
+                while (commands[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                mostBits[slot] = oldMostBits[i];
+                leastBits[slot] = oldLeastBits[i];
+                commands[slot] = oldCommands[i];
+                cooldownEnds[slot] = oldCooldownEnds[i];
+                arrivalTimes[slot] = oldArrivalTimes[i];
+            }
+            size = live;
+        }
+
+        private void allocate(int capacity) {
+            mostBits = new long[capacity];
+            leastBits = new long[capacity];
+            commands = new int[capacity];
+            Arrays.fill(commands, -1);
+            cooldownEnds = new long[capacity];
+            arrivalTimes = new long[capacity];
+            size = 0;
+        }
+
+        private static boolean isLive(long cooldownEnd, long arrivalTime, long now) {
+            return cooldownEnd > now || arrivalTime > now;
+        }
+    }
+}
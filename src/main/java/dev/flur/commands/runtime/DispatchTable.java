@@ -0,0 +1,218 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A precomputed, allocation-free lookup table resolving command lines to command ids.
+ * <p>
+ * Command names, aliases and dotted subcommand names form a tree: the root node has one child
+ * per command name and alias, and a command named {@code parent.create} is the child
+ * {@code create} of the {@code parent} node. Every edge of that tree is a key of a minimal
+ * perfect hash table built at compile time, so resolving a line costs a single hash probe per
+ * token. Tokens are hashed and compared case-insensitively in place; the input is never split,
+ * copied or lower-cased.
+ * <p>
+ * Tables are created by the generated {@code GeneratedCommandRegistry} and are immutable.
+ *
+ * @since 1.1.0
+ */
+public final class DispatchTable {
+
+    /**
+     * The result of {@link #resolve(CharSequence)} when no command matches.
+     */
+    public static final long NOT_FOUND = -1L;
+
+    /**
+     * The id of the root node of the command tree.
+     */
+    public static final int ROOT = 0;
+
+    private final int[] nodeCommands;
+    private final int[] keyParents;
+    private final String[] keyTokens;
+    private final int[] keyTargets;
+    private final int[] displacements;
+    private final int[] slots;
+
+    /**
+     * Creates a dispatch table from precomputed arrays.
+     *
+     * @param nodeCommands  the command id of every tree node, or {@code -1} for inner nodes
+     * @param keyParents    the parent node of every key
+     * @param keyTokens     the lower-case token of every key
+     * @param keyTargets    the child node every key leads to
+     * @param displacements the hash seed of every bucket, or {@code -slot - 1} for single-key buckets
+     * @param slots         the key stored in every slot of the table
+     */
+    public DispatchTable(int @NotNull [] nodeCommands, int @NotNull [] keyParents, String @NotNull [] keyTokens,
+                         int @NotNull [] keyTargets, int @NotNull [] displacements, int @NotNull [] slots) {
+        if (keyParents.length != keyTokens.length || keyParents.length != keyTargets.length
+                || slots.length < keyParents.length || (displacements.length == 0 && slots.length > 0)) {
+            throw new IllegalArgumentException("Inconsistent dispatch table");
+        }
+        this.nodeCommands = nodeCommands;
+        this.keyParents = keyParents;
+        this.keyTokens = keyTokens;
+        this.keyTargets = keyTargets;
+        this.displacements = displacements;
+        this.slots = slots;
+    }
+
+    /**
+     * Hashes a token case-insensitively under the given seed and parent node.
+     * <p>
+     * The processor uses the same function to build the table, so it must never change without
+     * regenerating all tables.
+     *
+     * @param seed   the hash seed
+     * @param parent the parent node of the token
+     * @param input  the characters containing the token
+     * @param start  the index of the first character of the token
+     * @param end    the index after the last character of the token
+     * @return the hash value
+     */
+    public static int hash(int seed, int parent, @NotNull CharSequence input, int start, int end) {
+        int h = 0x811c9dc5 ^ (seed * 0x9e3779b9) ^ (parent * 0x85ebca6b);
+        for (int i = start; i < end; i++) {
+            h ^= Character.toLowerCase(input.charAt(i));
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x7feb352d;
+        h ^= h >>> 15;
+        h *= 0x846ca68b;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Returns the number of tree nodes, including the root.
+     *
+     * @return the node count
+     */
+    public int nodeCount() {
+        return nodeCommands.length;
+    }
+
+    /**
+     * Returns the command id of the given node.
+     *
+     * @param node the node id
+     * @return the command id, or {@code -1} if the node is not a command
+     */
+    public int command(int node) {
+        return nodeCommands[node];
+    }
+
+    /**
+     * Looks up the child of a node by token.
+     *
+     * @param parent the parent node
+     * @param input  the characters containing the token
+     * @param start  the index of the first character of the token
+     * @param end    the index after the last character of the token
+     * @return the child node, or {@code -1} if the parent has no child with that token
+     */
+    public int child(int parent, @NotNull CharSequence input, int start, int end) {
+        if (slots.length == 0) {
+            return -1;
+        }
+        int displacement = displacements[Integer.remainderUnsigned(hash(0, parent, input, start, end), displacements.length)];
+        int slot = displacement < 0
+                ? -displacement - 1
+                : Integer.remainderUnsigned(hash(displacement, parent, input, start, end), slots.length);
+        int key = slots[slot];
+        if (key < 0 || keyParents[key] != parent) {
+            return -1;
+        }
+        String token = keyTokens[key];
+        int length = end - start;
+        if (token.length() != length) {
+            return -1;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toLowerCase(input.charAt(start + i)) != token.charAt(i)) {
+                return -1;
+            }
+        }
+        return keyTargets[key];
+    }
+
+    /**
+     * Resolves a command line to the deepest command it names.
+     * <p>
+     * A single leading slash is ignored and tokens are separated by spaces. For the line
+     * {@code "/p rm old"}, where {@code p} is an alias of {@code parent} and {@code rm} an alias
+     * of {@code parent.delete}, the result names {@code parent.delete} with arguments starting at
+     * {@code old}.
+     *
+     * @param line the command line
+     * @return the packed resolution, or {@link #NOT_FOUND}; see {@link #commandOf(long)} and
+     * {@link #argumentsStart(long)}
+     */
+    public long resolve(@NotNull CharSequence line) {
+        int length = line.length();
+        int position = commandStart(line, length);
+
+        int node = ROOT;
+        long result = NOT_FOUND;
+        while (position < length) {
+            int end = position;
+            while (end < length && line.charAt(end) != ' ') {
+                end++;
+            }
+            node = child(node, line, position, end);
+            if (node < 0) {
+                break;
+            }
+            position = skipSpaces(line, end, length);
+            int command = nodeCommands[node];
+            if (command >= 0) {
+                result = ((long) command << 32) | position;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extracts the command id from a resolution returned by {@link #resolve(CharSequence)}.
+     *
+     * @param resolution the packed resolution
+     * @return the command id, or {@code -1} for {@link #NOT_FOUND}
+     */
+    public static int commandOf(long resolution) {
+        return (int) (resolution >> 32);
+    }
+
+    /**
+     * Extracts the index of the first argument from a resolution returned by
+     * {@link #resolve(CharSequence)}.
+     *
+     * @param resolution the packed resolution
+     * @return the index of the first argument character, or the line length if there are none
+     */
+    public static int argumentsStart(long resolution) {
+        return (int) resolution;
+    }
+
+    /**
+     * Returns the index of the first token of a line, after leading spaces and an optional slash.
+     * Every reader of command lines starts there, so they agree on the tokens of a line.
+     */
+    static int commandStart(CharSequence line, int length) {
+        int position = skipSpaces(line, 0, length);
+        return position < length && line.charAt(position) == '/' ? position + 1 : position;
+    }
+
+    /**
+     * Returns the index of the first character at or after {@code position} that is not a space.
+     * Tokens are separated by any number of spaces.
+     */
+    static int skipSpaces(CharSequence line, int position, int length) {
+        while (position < length && line.charAt(position) == ' ') {
+            position++;
+        }
+        return position;
+    }
+}
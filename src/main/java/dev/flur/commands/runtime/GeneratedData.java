@@ -0,0 +1,132 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Decodes the compact array constants embedded in generated sources.
+ * <p>
+ * Large tables are emitted as string literals rather than array initializers, because array
+ * initializers compile to one bytecode sequence per element and quickly exceed the size limit
+ * of a static initializer. Integers are zigzag encoded as variable-length base-64 digits; each
+ * digit carries five bits of payload and a continuation bit. String tables are encoded as tokens
+ * separated by a single space, or by a line break for strings containing spaces.
+ * <p>
+ * This class is called by generated code and is not intended to be used directly.
+ *
+ * @since 1.1.0
+ */
+public final class GeneratedData {
+
+    /**
+     * The digit alphabet shared with the processor's encoder.
+     */
+    public static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz-_";
+
+    /**
+     * Separates the encoded messages of a {@link #messages} table, since messages may contain
+     * spaces and line breaks.
+     */
+    public static final char RECORD_SEPARATOR = '\u001e';
+
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            DIGITS[ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private GeneratedData() {
+    }
+
+    /**
+     * Decodes an integer array.
+     *
+     * @param length the number of encoded values
+     * @param chunks the encoded values, split into literals of bounded size
+     * @return the decoded array
+     */
+    public static int @NotNull [] ints(int length, @NotNull String... chunks) {
+        int[] values = new int[length];
+        int index = 0;
+        int value = 0;
+        int shift = 0;
+        for (String chunk : chunks) {
+            for (int i = 0; i < chunk.length(); i++) {
+                int digit = DIGITS[chunk.charAt(i)];
+                value |= (digit & 0x1f) << shift;
+                if ((digit & 0x20) != 0) {
+                    shift += 5;
+                } else {
+                    values[index++] = (value >>> 1) ^ -(value & 1);
+                    value = 0;
+                    shift = 0;
+                }
+            }
+        }
+        if (index != length) {
+            throw new IllegalArgumentException("Expected " + length + " values but decoded " + index);
+        }
+        return values;
+    }
+
+    /**
+     * Decodes a string array.
+     *
+     * @param length the number of encoded strings
+     * @param chunks the space separated strings, split into literals of bounded size
+     * @return the decoded array
+     */
+    public static String @NotNull [] strings(int length, @NotNull String... chunks) {
+        return split(length, ' ', chunks);
+    }
+
+    /**
+     * Decodes a string array whose values may contain spaces.
+     *
+     * @param length the number of encoded strings
+     * @param chunks the line separated strings, split into literals of bounded size
+     * @return the decoded array
+     */
+    public static String @NotNull [] lines(int length, @NotNull String... chunks) {
+        return split(length, '\n', chunks);
+    }
+
+    /**
+     * Decodes an array of compiled messages.
+     *
+     * @param length the number of encoded messages
+     * @param chunks the messages encoded for {@link CompiledMessage#decode(String)} and separated
+     *               by {@link #RECORD_SEPARATOR}, split into literals of bounded size
+     * @return the decoded array
+     */
+    public static CompiledMessage @NotNull [] messages(int length, @NotNull String... chunks) {
+        String[] encoded = split(length, RECORD_SEPARATOR, chunks);
+        CompiledMessage[] messages = new CompiledMessage[length];
+        for (int i = 0; i < length; i++) {
+            messages[i] = CompiledMessage.decode(encoded[i]);
+        }
+        return messages;
+    }
+
+    private static String[] split(int length, char separator, String[] chunks) {
+        String[] values = new String[length];
+        int index = 0;
+        for (String chunk : chunks) {
+            int start = 0;
+            for (int i = 0; i <= chunk.length(); i++) {
+                if (i == chunk.length() || chunk.charAt(i) == separator) {
+                    values[index++] = chunk.substring(start, i);
+                    start = i + 1;
+                }
+            }
+        }
+        if (index != length) {
+            throw new IllegalArgumentException("Expected " + length + " strings but decoded " + index);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,189 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Help pages of all commands, rendered at compile time and paginated once per set of permissions.
+ * <p>
+ * The processor renders one help line per command from its usage, description and aliases, sorted
+ * by command name. A view holds the pages of the lines whose command a permission bitset allows;
+ * it is built on the first request for that bitset and shared by every source with the same
+ * permissions, so serving a page afterwards builds no strings and copies no lines. Players mostly
+ * fall into a few permission groups, so few views exist; when more than {@value #MAX_VIEWS}
+ * accumulate, all of them are dropped and rebuilt on demand.
+ * <p>
+ * Indexes are created by the generated {@code GeneratedCommandRegistry}. The lines and page size
+ * are immutable; views are thread-safe.
+ *
+ * @since 1.1.0
+ */
+public final class HelpIndex {
+
+    /**
+     * The number of cached views above which all views are dropped.
+     */
+    public static final int MAX_VIEWS = 256;
+
+    private final String[] lines;
+    private final int[] permissions;
+    private final int pageSize;
+    private final PermissionTable permissionTable;
+    private final ConcurrentHashMap<Key, List<String>[]> views = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a help index from precomputed lines.
+     *
+     * @param lines           the help line of every command, sorted by command name
+     * @param commands        the command id of every line
+     * @param pageSize        the number of lines per page
+     * @param permissionTable the permissions of all commands
+     */
+    public HelpIndex(String @NotNull [] lines, int @NotNull [] commands, int pageSize,
+                     @NotNull PermissionTable permissionTable) {
+        if (commands.length != lines.length) {
+            throw new IllegalArgumentException("Inconsistent help index");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.lines = lines;
+        this.pageSize = pageSize;
+        this.permissionTable = permissionTable;
+        this.permissions = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            permissions[i] = permissionTable.permissionOf(commands[i]);
+        }
+    }
+
+    /**
+     * Returns the number of lines per page.
+     *
+     * @return the page size
+     */
+    public int pageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Returns the number of help lines, one per command.
+     *
+     * @return the line count
+     */
+    public int size() {
+        return lines.length;
+    }
+
+    /**
+     * Returns the help line of the command at the given position.
+     *
+     * @param line the line index
+     * @return the rendered line
+     */
+    public @NotNull String line(int line) {
+        return lines[line];
+    }
+
+    /**
+     * Returns a help page of the commands the source may use.
+     * <p>
+     * This computes the permission bitset of the source; pass a bitset from a
+     * {@link PermissionCache} to {@link #page(long[], int)} to avoid that.
+     *
+     * @param source the source requesting help
+     * @param page   the page index, starting at {@code 0}
+     * @return the lines of the page, empty if the page does not exist
+     */
+    public @NotNull List<String> page(@NotNull CommandSource source, int page) {
+        return page(permissionTable.compute(source), page);
+    }
+
+    /**
+     * Returns a help page of the commands the given permissions allow.
+     *
+     * @param permissions the permission bitset of the source requesting help
+     * @param page        the page index, starting at {@code 0}
+     * @return the lines of the page, empty if the page does not exist
+     */
+    public @NotNull List<String> page(long @NotNull [] permissions, int page) {
+        List<String>[] pages = view(permissions);
+        return page >= 0 && page < pages.length ? pages[page] : List.of();
+    }
+
+    /**
+     * Returns the number of help pages of the commands the given permissions allow.
+     *
+     * @param permissions the permission bitset of the source requesting help
+     * @return the page count, {@code 0} if no command is allowed
+     */
+    public int pageCount(long @NotNull [] permissions) {
+        return view(permissions).length;
+    }
+
+    /**
+     * Returns the number of views currently cached.
+     *
+     * @return the view count
+     */
+    public int viewCount() {
+        return views.size();
+    }
+
+    /**
+     * Drops all cached views.
+     */
+    public void clear() {
+        views.clear();
+    }
+
+    private List<String>[] view(long[] permissions) {
+        Key key = new Key(permissions);
+        List<String>[] pages = views.get(key);
+        if (pages == null) {
+            pages = paginate(permissions);
+            if (views.size() >= MAX_VIEWS) {
+                views.clear();
+            }
+            List<String>[] previous = views.putIfAbsent(new Key(permissions.clone()), pages);
+            if (previous != null) {
+                pages = previous;
+            }
+        }
+        return pages;
+    }
+
+    private List<String>[] paginate(long[] permissions) {
+        List<String> visible = new ArrayList<>(lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            if (PermissionTable.test(permissions, this.permissions[i])) {
+                visible.add(lines[i]);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<String>[] pages = (List<String>[]) new List<?>[(visible.size() + pageSize - 1) / pageSize];
+        for (int page = 0; page < pages.length; page++) {
+            pages[page] = List.copyOf(visible.subList(page * pageSize, Math.min((page + 1) * pageSize, visible.size())));
+        }
+        return pages;
+    }
+
+    /**
+     * A permission bitset compared by content.
+     */
+    private record Key(long[] bits) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(bits, key.bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bits);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * A stub standing in for a command handler until the command is first used.
+ * <p>
+ * The generated registry registers one stub per command instead of the handler itself. The
+ * handler class is only loaded and instantiated on the first {@link #execute execution} or
+ * {@link #complete completion}, so commands that are never used cost neither class loading
+ * nor metaspace.
+ *
+ * @since 1.1.0
+ */
+public final class LazyCommandHandler implements CommandHandler {
+
+    private final CommandDescriptor command;
+    private final IntFunction<? extends CommandHandler> factory;
+    private volatile CommandHandler handler;
+
+    /**
+     * Creates a stub for the given command.
+     *
+     * @param command the command metadata
+     * @param factory creates the handler of a command id
+     */
+    public LazyCommandHandler(@NotNull CommandDescriptor command, @NotNull IntFunction<? extends CommandHandler> factory) {
+        this.command = command;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the metadata of the command, without loading the handler.
+     */
+    public @NotNull CommandDescriptor command() {
+        return command;
+    }
+
+    /**
+     * Returns whether the handler has been instantiated.
+     */
+    public boolean isLoaded() {
+        return handler != null;
+    }
+
+    /**
+     * Returns the handler, loading and instantiating its class on the first call.
+     *
+     * @throws IllegalStateException if the factory did not create a handler
+     */
+    public @NotNull CommandHandler get() {
+        CommandHandler result = handler;
+        if (result == null) {
+            synchronized (this) {
+                result = handler;
+                if (result == null) {
+                    result = factory.apply(command.id());
+                    if (result == null) {
+                        throw new IllegalStateException("No handler for command " + command.name());
+                    }
+                    handler = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Executes the handler, recording a {@link CommandExecutionEvent} if it is enabled.
+     */
+    @Override
+    public boolean execute(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        if (!CommandExecutionEvent.enabled()) {
+            return get().execute(source, label, args);
+        }
+        CommandExecutionEvent event = new CommandExecutionEvent();
+        event.begin();
+        boolean handled = false;
+        try {
+            handled = get().execute(source, label, args);
+            return handled;
+        } finally {
+            if (event.shouldCommit()) {
+                event.commit(command.name(), label, handled);
+            }
+        }
+    }
+
+    @Override
+    public @NotNull List<String> complete(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return get().complete(source, label, args);
+    }
+
+    @Override
+    public String toString() {
+        return "LazyCommandHandler[" + command.name() + (isLoaded() ? ", loaded]" : "]");
+    }
+}
@@ -0,0 +1,101 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Enforces the cooldown and rate limit of a command before running its handler.
+ * <p>
+ * The generated registry wraps the handlers of commands declared with a {@code cooldown} or
+ * {@code rateLimit}. The limit is checked and the use recorded on the dispatching thread, before
+ * an asynchronous handler is scheduled, so a player cannot slip a second use past the check while
+ * the first one is still running. Sources without a {@linkplain CommandSource#uniqueId() unique
+ * id} are never limited, and every attempt that passes the check counts as a use, even if the
+ * handler then rejects its arguments. Rejected uses are answered with the compiled
+ * {@code cooldownMessage} of the command.
+ *
+ * @since 1.1.0
+ */
+public final class LimitedCommandHandler implements CommandHandler {
+
+    private final CommandDescriptor command;
+    private final CompiledMessage message;
+    private final CommandHandler handler;
+    private final CooldownTable cooldowns;
+
+    /**
+     * Creates a handler enforcing the limits of the given command.
+     *
+     * @param command   the command metadata, providing the limits
+     * @param message   the compiled message telling the source how long to wait
+     * @param handler   the handler to run when the limits allow it
+     * @param cooldowns the table recording the uses of all commands
+     */
+    public LimitedCommandHandler(@NotNull CommandDescriptor command, @NotNull CompiledMessage message,
+                                 @NotNull CommandHandler handler, @NotNull CooldownTable cooldowns) {
+        this.command = command;
+        this.message = message;
+        this.handler = handler;
+        this.cooldowns = cooldowns;
+    }
+
+    /**
+     * Returns the handler run when the limits allow it.
+     */
+    public @NotNull CommandHandler handler() {
+        return handler;
+    }
+
+    /**
+     * Runs the handler if the limits allow it; otherwise tells the source how long to wait and
+     * returns {@code true}.
+     */
+    @Override
+    public boolean execute(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return !tryAcquire(cooldowns, command, message, source) || handler.execute(source, label, args);
+    }
+
+    @Override
+    public @NotNull List<String> complete(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return handler.complete(source, label, args);
+    }
+
+    /**
+     * Records a use of a command by a source, or tells the source how long to wait.
+     * <p>
+     * Generated subcommand dispatchers call this method before invoking a limited subcommand.
+     *
+     * @param cooldowns the table recording the uses of all commands
+     * @param command   the command metadata, providing the limits
+     * @param message   the compiled message telling the source how long to wait
+     * @param source    the source using the command
+     * @return {@code true} if the source may use the command
+     */
+    public static boolean tryAcquire(@NotNull CooldownTable cooldowns, @NotNull CommandDescriptor command,
+                                     @NotNull CompiledMessage message, @NotNull CommandSource source) {
+        UUID player = source.uniqueId();
+        if (player == null || !command.hasLimits()) {
+            return true;
+        }
+        long wait = cooldowns.acquire(player, command.id(), command.cooldownMillis(), command.rateLimit(),
+                command.rateLimitPeriodMillis());
+        if (wait <= 0) {
+            return true;
+        }
+        long seconds = (wait + 999) / 1000;
+        source.sendMessage(message.render(placeholder -> switch (placeholder) {
+            case "seconds" -> seconds;
+            case "time" -> seconds + (seconds == 1 ? " second" : " seconds");
+            case "command" -> command.name();
+            default -> null;
+        }));
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "LimitedCommandHandler[" + command.name() + "]";
+    }
+}
@@ -0,0 +1,66 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Records the invocations of a command handler in {@link CommandMetrics}.
+ * <p>
+ * The generated registry only wraps handlers in this class when metrics are passed to
+ * {@code registerAll}. For asynchronous commands it runs inside the {@link AsyncCommandHandler},
+ * so the recorded latency is the time the handler took rather than the time it took to schedule
+ * it. Tab completion is not recorded.
+ *
+ * @since 1.1.0
+ */
+public final class MeteredCommandHandler implements CommandHandler {
+
+    private final CommandDescriptor command;
+    private final CommandHandler handler;
+    private final CommandMetrics metrics;
+
+    /**
+     * Creates a handler recording the invocations of the given handler.
+     *
+     * @param command the command metadata, providing the command id
+     * @param handler the handler to record
+     * @param metrics the metrics of all commands
+     */
+    public MeteredCommandHandler(@NotNull CommandDescriptor command, @NotNull CommandHandler handler,
+                                 @NotNull CommandMetrics metrics) {
+        this.command = command;
+        this.handler = handler;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the recorded handler.
+     */
+    public @NotNull CommandHandler handler() {
+        return handler;
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        long start = System.nanoTime();
+        CommandMetrics.Outcome outcome = CommandMetrics.Outcome.ERROR;
+        try {
+            boolean handled = handler.execute(source, label, args);
+            outcome = handled ? CommandMetrics.Outcome.HANDLED : CommandMetrics.Outcome.USAGE;
+            return handled;
+        } finally {
+            metrics.record(command.id(), System.nanoTime() - start, outcome);
+        }
+    }
+
+    @Override
+    public @NotNull List<String> complete(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return handler.complete(source, label, args);
+    }
+
+    @Override
+    public String toString() {
+        return "MeteredCommandHandler[" + command.name() + "]";
+    }
+}
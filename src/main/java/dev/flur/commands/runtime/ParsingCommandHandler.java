@@ -0,0 +1,83 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Adapts a {@link TypedCommandHandler} to a {@link CommandHandler} by parsing the raw arguments
+ * with a generated {@link ArgumentParser}.
+ * <p>
+ * Arguments that do not match the usage are reported to the source with the message of the
+ * {@link ArgumentException}, and {@code false} is returned so the usage message is shown. Parsing
+ * is recorded as an {@link ArgumentParseEvent} if that event is enabled.
+ *
+ * @param <A> the type of the parsed arguments
+ * @since 1.1.0
+ */
+public final class ParsingCommandHandler<A> implements CommandHandler {
+
+    private final String command;
+    private final TypedCommandHandler<A> handler;
+    private final ArgumentParser<A> parser;
+
+    /**
+     * Creates a handler parsing arguments with the given parser.
+     *
+     * @param command the command name, recorded in events
+     * @param handler the typed handler
+     * @param parser  the parser of its arguments
+     */
+    public ParsingCommandHandler(@NotNull String command, @NotNull TypedCommandHandler<A> handler,
+                                 @NotNull ArgumentParser<A> parser) {
+        this.command = command;
+        this.handler = handler;
+        this.parser = parser;
+    }
+
+    /**
+     * Parses the arguments and executes the typed handler.
+     *
+     * @param command the command name, recorded in events
+     * @return the result of the handler, or {@code false} if the arguments could not be parsed
+     */
+    public static <A> boolean execute(@NotNull String command, @NotNull TypedCommandHandler<A> handler,
+                                      @NotNull ArgumentParser<A> parser, @NotNull CommandSource source,
+                                      @NotNull String label, @NotNull String[] args) {
+        ArgumentParseEvent event = ArgumentParseEvent.enabled() ? new ArgumentParseEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        A arguments;
+        try {
+            arguments = parser.parse(args);
+        } catch (ArgumentException e) {
+            if (event != null && event.shouldCommit()) {
+                event.commit(command, label, false);
+            }
+            source.sendMessage(e.getMessage());
+            return false;
+        }
+        if (event != null && event.shouldCommit()) {
+            event.commit(command, label, true);
+        }
+        return handler.execute(source, label, arguments);
+    }
+
+    /**
+     * Returns the typed handler.
+     */
+    public @NotNull TypedCommandHandler<A> handler() {
+        return handler;
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return execute(command, handler, parser, source, label, args);
+    }
+
+    @Override
+    public @NotNull List<String> complete(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return handler.complete(source, label, args);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the permission bitset of every player, so command permission checks are bit tests.
+ * <p>
+ * The bitset of a source is computed by {@link PermissionTable#compute(CommandSource)} on first
+ * use and kept until it is invalidated. Plugins must call {@link #invalidate(UUID)} when the
+ * permissions of a player change, for example on a permission plugin's update event, and when
+ * the player quits. Sources without a {@link CommandSource#uniqueId() unique id}, such as the
+ * console, are never cached.
+ * <p>
+ * This class is thread-safe. A bitset computed while the same player is invalidated is discarded
+ * rather than cached, so an invalidation is never lost.
+ *
+ * @since 1.1.0
+ */
+public final class PermissionCache {
+
+    private final PermissionTable table;
+    private final ConcurrentHashMap<UUID, long[]> bits = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Creates an empty cache for the given table.
+     *
+     * @param table the permission table of the registry
+     */
+    public PermissionCache(@NotNull PermissionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns the permission table this cache computes bitsets for.
+     */
+    public @NotNull PermissionTable table() {
+        return table;
+    }
+
+    /**
+     * Returns the permission bitset of a source, computing and caching it if needed.
+     *
+     * @param source the source
+     * @return the bitset; callers must not modify it
+     */
+    public long @NotNull [] bits(@NotNull CommandSource source) {
+        UUID uniqueId = source.uniqueId();
+        if (uniqueId == null) {
+            return table.compute(source);
+        }
+        long[] cached = bits.get(uniqueId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long before = invalidations.get();
+        long[] computed = table.compute(source);
+        bits.put(uniqueId, computed);
+        if (invalidations.get() != before) {
+            // An invalidation raced with the computation, which may have seen the old permissions
+            bits.remove(uniqueId, computed);
+        }
+        return computed;
+    }
+
+    /**
+     * Returns whether a source may use a command.
+     *
+     * @param source  the source
+     * @param command the command id
+     * @return {@code true} if the command requires no permission or the source has it
+     */
+    public boolean hasPermission(@NotNull CommandSource source, int command) {
+        int permission = table.permissionOf(command);
+        return permission == PermissionTable.NONE || PermissionTable.test(bits(source), permission);
+    }
+
+    /**
+     * Discards the cached bitset of a player.
+     *
+     * @param uniqueId the unique id of the player
+     */
+    public void invalidate(@NotNull UUID uniqueId) {
+        invalidations.incrementAndGet();
+        bits.remove(uniqueId);
+    }
+
+    /**
+     * Discards all cached bitsets, for example after the permission plugin reloaded.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        bits.clear();
+    }
+
+    /**
+     * Returns the number of cached bitsets.
+     */
+    public int size() {
+        return bits.size();
+    }
+}
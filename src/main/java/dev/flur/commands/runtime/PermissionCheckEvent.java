@@ -0,0 +1,86 @@
+package dev.flur.commands.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Java Flight Recorder event covering a permission check made while dispatching a command.
+ * <p>
+ * The event is disabled by default; see {@link CommandLookupEvent} for enabling it. While it is
+ * disabled, {@link #check} asks the source directly without creating an event.
+ *
+ * @since 1.1.0
+ */
+@Name(PermissionCheckEvent.NAME)
+@Label("Command Permission Check")
+@Description("Permission check of a subcommand by a generated dispatcher")
+@Category({"Commands", "Dispatch"})
+@Enabled(false)
+@StackTrace(false)
+public final class PermissionCheckEvent extends Event {
+
+    /**
+     * The name of this event type.
+     */
+    public static final String NAME = "dev.flur.commands.PermissionCheck";
+
+    private static final EventType TYPE = EventType.getEventType(PermissionCheckEvent.class);
+
+    @Label("Command")
+    String command;
+
+    @Label("Alias")
+    String alias;
+
+    @Label("Permission")
+    String permission;
+
+    @Label("Granted")
+    boolean granted;
+
+    /**
+     * Returns whether any recording currently enables this event type.
+     *
+     * @return {@code true} if events of this type may be committed
+     */
+    public static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Checks a permission of a source, recording the check if this event is enabled.
+     * <p>
+     * Generated subcommand dispatchers call this method instead of
+     * {@link CommandSource#hasPermission(String)}.
+     *
+     * @param source     the source using the command
+     * @param permission the permission node
+     * @param command    the command name
+     * @param alias      the name or alias used
+     * @return {@code true} if the source has the permission
+     */
+    public static boolean check(@NotNull CommandSource source, @NotNull String permission, String command,
+                                String alias) {
+        if (!enabled()) {
+            return source.hasPermission(permission);
+        }
+        PermissionCheckEvent event = new PermissionCheckEvent();
+        event.begin();
+        boolean granted = source.hasPermission(permission);
+        if (event.shouldCommit()) {
+            event.command = command;
+            event.alias = alias;
+            event.permission = permission;
+            event.granted = granted;
+            event.commit();
+        }
+        return granted;
+    }
+}
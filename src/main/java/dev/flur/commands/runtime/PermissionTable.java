@@ -0,0 +1,225 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The distinct permission nodes of all commands, each with a dense index.
+ * <p>
+ * The processor sorts the permission nodes declared in {@code @CommandInfo} and numbers them,
+ * so the permissions of a source fit in a {@code long[]} bitset with one bit per node. Computing
+ * the bitset costs one {@link CommandSource#hasPermission} call per node; every later check is a
+ * bit test. See {@link PermissionCache} for caching bitsets per player.
+ * <p>
+ * The table also knows the wildcards implied by the nodes: {@code parent.create} implies
+ * {@code parent.*}. Because the nodes are sorted, the descendants of a wildcard are a contiguous
+ * range of indexes, so resolving a wildcard is a binary search and granting it fills a range of
+ * bits.
+ * <p>
+ * Tables are created by the generated {@code GeneratedCommandRegistry} and are immutable.
+ *
+ * @since 1.1.0
+ */
+public final class PermissionTable {
+
+    /**
+     * The permission index of commands that do not require a permission.
+     */
+    public static final int NONE = -1;
+
+    private final int[] commandPermissions;
+    private final String[] nodes;
+    private final String[] wildcards;
+    private final int[] wildcardStarts;
+    private final int[] wildcardEnds;
+
+    /**
+     * Creates a permission table from a precomputed mapping.
+     * <p>
+     * The nodes themselves are taken from the descriptors, so the generated code only holds
+     * their indexes.
+     *
+     * @param commandPermissions    the permission index of every command, or {@link #NONE}
+     * @param wildcardStarts        the index of the first node covered by every wildcard, in wildcard order
+     * @param wildcardEnds          the index after the last node covered by every wildcard
+     * @param wildcardPrefixLengths the length of every wildcard without its trailing {@code *}
+     * @param descriptors           the commands, indexed by id
+     */
+    public PermissionTable(int @NotNull [] commandPermissions, int @NotNull [] wildcardStarts,
+                           int @NotNull [] wildcardEnds, int @NotNull [] wildcardPrefixLengths,
+                           CommandDescriptor @NotNull [] descriptors) {
+        if (commandPermissions.length != descriptors.length || wildcardEnds.length != wildcardStarts.length
+                || wildcardPrefixLengths.length != wildcardStarts.length) {
+            throw new IllegalArgumentException("Inconsistent permission table");
+        }
+        int size = 0;
+        for (int permission : commandPermissions) {
+            size = Math.max(size, permission + 1);
+        }
+        this.commandPermissions = commandPermissions;
+        this.nodes = new String[size];
+        for (int id = 0; id < descriptors.length; id++) {
+            if (commandPermissions[id] != NONE) {
+                nodes[commandPermissions[id]] = descriptors[id].permission();
+            }
+        }
+        this.wildcardStarts = wildcardStarts;
+        this.wildcardEnds = wildcardEnds;
+        this.wildcards = new String[wildcardStarts.length];
+        for (int i = 0; i < wildcards.length; i++) {
+            wildcards[i] = nodes[wildcardStarts[i]].substring(0, wildcardPrefixLengths[i]) + "*";
+        }
+    }
+
+    /**
+     * Returns the number of distinct permission nodes.
+     *
+     * @return the node count
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the permission node with the given index.
+     *
+     * @param index the permission index
+     * @return the permission node
+     */
+    public @NotNull String node(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the index of the given permission node.
+     *
+     * @param node the permission node
+     * @return the permission index, or {@link #NONE} if no command declares it
+     */
+    public int indexOf(@NotNull String node) {
+        int index = Arrays.binarySearch(nodes, node);
+        return index >= 0 ? index : NONE;
+    }
+
+    /**
+     * Returns the permission index of a command.
+     *
+     * @param command the command id
+     * @return the permission index, or {@link #NONE} if the command requires no permission
+     */
+    public int permissionOf(int command) {
+        return commandPermissions[command];
+    }
+
+    /**
+     * Returns the number of wildcards implied by the permission nodes.
+     *
+     * @return the wildcard count
+     */
+    public int wildcardCount() {
+        return wildcards.length;
+    }
+
+    /**
+     * Returns the wildcard with the given index.
+     *
+     * @param wildcard the wildcard index
+     * @return the wildcard, ending in {@code .*}
+     */
+    public @NotNull String wildcard(int wildcard) {
+        return wildcards[wildcard];
+    }
+
+    /**
+     * Returns the index of the given wildcard.
+     *
+     * @param wildcard the wildcard, such as {@code parent.*}
+     * @return the wildcard index, or {@link #NONE} if no permission node lies below it
+     */
+    public int indexOfWildcard(@NotNull String wildcard) {
+        int index = Arrays.binarySearch(wildcards, wildcard);
+        return index >= 0 ? index : NONE;
+    }
+
+    /**
+     * Returns the index of the first permission node below a wildcard.
+     *
+     * @param wildcard the wildcard index
+     * @return the first permission index
+     */
+    public int descendantsStart(int wildcard) {
+        return wildcardStarts[wildcard];
+    }
+
+    /**
+     * Returns the index after the last permission node below a wildcard.
+     *
+     * @param wildcard the wildcard index
+     * @return the end permission index, exclusive
+     */
+    public int descendantsEnd(int wildcard) {
+        return wildcardEnds[wildcard];
+    }
+
+    /**
+     * Returns whether a wildcard grants a permission.
+     *
+     * @param wildcard   the wildcard index
+     * @param permission the permission index
+     * @return {@code true} if the permission node lies below the wildcard
+     */
+    public boolean implies(int wildcard, int permission) {
+        return permission >= wildcardStarts[wildcard] && permission < wildcardEnds[wildcard];
+    }
+
+    /**
+     * Sets the bits of all permission nodes below a wildcard.
+     *
+     * @param bits     the permission bitset to modify
+     * @param wildcard the wildcard index
+     */
+    public void grant(long @NotNull [] bits, int wildcard) {
+        for (int i = wildcardStarts[wildcard], end = wildcardEnds[wildcard]; i < end; i++) {
+            bits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    /**
+     * Computes the permission bitset of a source with one permission check per node.
+     *
+     * @param source the source
+     * @return the bitset, with bit {@code i} set if the source has permission {@code i}
+     */
+    public long @NotNull [] compute(@NotNull CommandSource source) {
+        long[] bits = new long[(nodes.length + 63) >>> 6];
+        for (int i = 0; i < nodes.length; i++) {
+            if (source.hasPermission(nodes[i])) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Tests a permission in a bitset computed by {@link #compute(CommandSource)}.
+     *
+     * @param bits       the permission bitset
+     * @param permission the permission index, or {@link #NONE}
+     * @return {@code true} if the permission is {@link #NONE} or its bit is set
+     */
+    public static boolean test(long @NotNull [] bits, int permission) {
+        return permission < 0 || (bits[permission >>> 6] & (1L << permission)) != 0;
+    }
+
+    /**
+     * Checks a permission directly against a source, without a bitset.
+     *
+     * @param source     the source
+     * @param permission the permission index, or {@link #NONE}
+     * @return {@code true} if the permission is {@link #NONE} or the source has it
+     */
+    public boolean test(@NotNull CommandSource source, int permission) {
+        return permission < 0 || source.hasPermission(nodes[permission]);
+    }
+}
@@ -0,0 +1,279 @@
+package dev.flur.commands.runtime;
+
+import dev.flur.commands.CacheScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache of the responses of read-only commands.
+ * <p>
+ * Responses are keyed by the command id and, depending on the {@link CacheScope} of the command,
+ * the sender's unique id and a copy of the arguments, compared one by one so that {@code ["a b"]}
+ * and {@code ["a", "b"]} are different keys. Every response expires after the time to live of its
+ * command. Hits and misses are counted per command with {@link LongAdder}s, so counting does not
+ * contend between threads.
+ * <p>
+ * The cache is split into up to {@value #STRIPES} stripes chosen by the hash of the key, each an
+ * access ordered map guarded by its own lock and holding an equal share of the capacity, so
+ * lookups of different keys rarely contend. When a stripe is full, its least recently used
+ * response is evicted.
+ * <p>
+ * The generated {@code GeneratedCommandRegistry} shares one cache between all its commands; see
+ * {@link CachingCommandHandler}.
+ *
+ * @since 1.1.0
+ */
+public final class ResponseCache {
+
+    /**
+     * The number of responses kept by {@link #ResponseCache(CommandDescriptor[])} unless specified otherwise.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int STRIPES = 16;
+
+    private final int capacity;
+    private final LongSupplier clock;
+    private final Stripe[] stripes;
+    private final LongAdder[] hits;
+    private final LongAdder[] misses;
+
+    /**
+     * Creates an empty cache of {@value #DEFAULT_CAPACITY} responses, measuring time with {@link System#nanoTime()}.
+     *
+     * @param commands the commands, indexed by id
+     */
+    public ResponseCache(CommandDescriptor @NotNull [] commands) {
+        this(commands, DEFAULT_CAPACITY, () -> System.nanoTime() / 1_000_000L);
+    }
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param commands the commands, indexed by id; only cached commands get hit and miss counters
+     * @param capacity the maximum number of responses kept
+     * @param clock    the current time in milliseconds, never decreasing
+     */
+    public ResponseCache(CommandDescriptor @NotNull [] commands, int capacity, @NotNull LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.clock = clock;
+        this.stripes = new Stripe[Math.min(STRIPES, Integer.highestOneBit(capacity))];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(capacity / stripes.length + (i < capacity % stripes.length ? 1 : 0));
+        }
+        this.hits = new LongAdder[commands.length];
+        this.misses = new LongAdder[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            if (commands[i].isCached()) {
+                hits[i] = new LongAdder();
+                misses[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * Returns the key of a use of a command, or {@code null} if the use cannot be cached because
+     * the scope is {@link CacheScope#SENDER} and the source has no unique id.
+     *
+     * @param command the command metadata, providing the scope
+     * @param source  the source using the command
+     * @param args    the arguments
+     * @return the key, or {@code null}
+     */
+    public @Nullable Object key(@NotNull CommandDescriptor command, @NotNull CommandSource source,
+                                @NotNull String[] args) {
+        return switch (command.cacheScope()) {
+            case GLOBAL -> new Key(command.id(), null, null);
+            case ARGUMENTS -> new Key(command.id(), null, List.of(args));
+            case SENDER -> {
+                UUID sender = source.uniqueId();
+                yield sender != null ? new Key(command.id(), sender, List.of(args)) : null;
+            }
+        };
+    }
+
+    /**
+     * Returns the response stored under a key, counting a hit or a miss of its command.
+     *
+     * @param key a key returned by {@link #key} for a cached command
+     * @return the response, or {@code null} if there is none or it expired
+     */
+    public @Nullable Response get(@NotNull Object key) {
+        Key k = (Key) key;
+        Response response = stripe(k).get(k, clock.getAsLong());
+        (response != null ? hits : misses)[k.command()].increment();
+        return response;
+    }
+
+    /**
+     * Stores a response under a key, possibly evicting the least recently used response of its stripe.
+     *
+     * @param key      a key returned by {@link #key}
+     * @param messages the messages the handler sent
+     * @param result   the result of the handler
+     * @param ttl      the time the response is reused in milliseconds
+     */
+    public void put(@NotNull Object key, @NotNull String[] messages, boolean result, long ttl) {
+        Response response = new Response(messages, result, clock.getAsLong() + ttl);
+        Key k = (Key) key;
+        stripe(k).put(k, response);
+    }
+
+    /**
+     * Returns the number of stored responses, including expired responses that have not been accessed since.
+     *
+     * @return the response count
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of stored responses.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Drops all stored responses, keeping the hit and miss counts.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Drops the stored responses of a command, for example after the data it shows changed.
+     *
+     * @param command the command id
+     */
+    public void invalidate(int command) {
+        for (Stripe stripe : stripes) {
+            stripe.invalidate(command);
+        }
+    }
+
+    /**
+     * Returns how often a response of a command was served from the cache.
+     *
+     * @param command the command id
+     * @return the hit count, {@code 0} if the command is not cached
+     */
+    public long hits(int command) {
+        return hits[command] != null ? hits[command].sum() : 0;
+    }
+
+    /**
+     * Returns how often a command was run because no response was cached.
+     *
+     * @param command the command id
+     * @return the miss count, {@code 0} if the command is not cached
+     */
+    public long misses(int command) {
+        return misses[command] != null ? misses[command].sum() : 0;
+    }
+
+    /**
+     * Returns how often a response of any command was served from the cache.
+     *
+     * @return the total hit count
+     */
+    public long hits() {
+        long sum = 0;
+        for (int command = 0; command < hits.length; command++) {
+            sum += hits(command);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns how often any command was run because no response was cached.
+     *
+     * @return the total miss count
+     */
+    public long misses() {
+        long sum = 0;
+        for (int command = 0; command < misses.length; command++) {
+            sum += misses(command);
+        }
+        return sum;
+    }
+
+    private Stripe stripe(Key key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param messages  the messages the handler sent, in order
+     * @param result    the result of the handler
+     * @param expiresAt the time the response expires, in milliseconds of the cache's clock
+     */
+    public record Response(@NotNull String[] messages, boolean result, long expiresAt) {
+    }
+
+    private record Key(int command, UUID sender, List<String> arguments) {
+    }
+
+    /**
+     * One access ordered map of responses, evicting its least recently used response when full.
+     */
+    private static final class Stripe {
+
+        private final Map<Key, Response> responses;
+
+        Stripe(int capacity) {
+            this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Response> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized @Nullable Response get(Key key, long now) {
+            Response response = responses.get(key);
+            if (response != null && response.expiresAt() - now <= 0) {
+                responses.remove(key);
+                return null;
+            }
+            return response;
+        }
+
+        synchronized void put(Key key, Response response) {
+            responses.put(key, response);
+        }
+
+        synchronized int size() {
+            return responses.size();
+        }
+
+        synchronized void clear() {
+            responses.clear();
+        }
+
+        synchronized void invalidate(int command) {
+            responses.keySet().removeIf(key -> key.command() == command);
+        }
+    }
+}
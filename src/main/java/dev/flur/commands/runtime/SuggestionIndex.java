@@ -0,0 +1,178 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A precomputed BK-tree of command names and aliases, suggesting the closest ones for a mistyped
+ * command.
+ * <p>
+ * Every node of the tree holds a lower-case token, and the children of a node are keyed by their
+ * edit distance to it. By the triangle inequality, a child at distance {@code e} from a node at
+ * distance {@code d} from the input can only be within {@code max} of the input if
+ * {@code |d - e| <= max}, so a query visits a small part of the tree instead of comparing the
+ * input with every name. Nodes are laid out breadth-first with the children of every node in one
+ * contiguous range sorted by distance.
+ * <p>
+ * Distances are Levenshtein distances compared case-insensitively. Indexes are created by the
+ * generated {@code GeneratedCommandRegistry} and are immutable.
+ *
+ * @since 1.1.0
+ */
+public final class SuggestionIndex {
+
+    private final int[] childOffsets;
+    private final String[] tokens;
+    private final int[] distances;
+    private final PermissionTable permissionTable;
+    private final int[] permissions;
+
+    /**
+     * Creates a suggestion index from precomputed arrays.
+     *
+     * @param childOffsets    the index of the first child of every node, followed by the node count
+     * @param tokens          the lower-case tokens of the nodes, the root first
+     * @param distances       the edit distance of every node to its parent, {@code 0} for the root
+     * @param commands        the command id of every node
+     * @param permissionTable the permissions of all commands
+     */
+    public SuggestionIndex(int @NotNull [] childOffsets, String @NotNull [] tokens, int @NotNull [] distances,
+                           int @NotNull [] commands, @NotNull PermissionTable permissionTable) {
+        if (childOffsets.length != tokens.length + 1 || childOffsets[tokens.length] != tokens.length
+                || distances.length != tokens.length || commands.length != tokens.length) {
+            throw new IllegalArgumentException("Inconsistent suggestion index");
+        }
+        this.childOffsets = childOffsets;
+        this.tokens = tokens;
+        this.distances = distances;
+        this.permissionTable = permissionTable;
+        this.permissions = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            permissions[i] = permissionTable.permissionOf(commands[i]);
+        }
+    }
+
+    /**
+     * Returns the number of tokens in the index.
+     *
+     * @return the token count
+     */
+    public int size() {
+        return tokens.length;
+    }
+
+    /**
+     * Suggests the command names and aliases closest to the first token of a command line.
+     * <p>
+     * The first token is found like {@link DispatchTable#resolve(CharSequence)} finds it, ignoring
+     * leading spaces and a single slash. Tokens the source lacks the permission for are never
+     * suggested. Suggestions are ordered by distance, then alphabetically.
+     *
+     * @param line        the command line
+     * @param source      the source that mistyped the command
+     * @param maxDistance the maximum edit distance of a suggestion
+     * @param limit       the maximum number of suggestions
+     * @return the closest tokens, possibly empty
+     */
+    public @NotNull List<String> suggest(@NotNull CharSequence line, @NotNull CommandSource source, int maxDistance,
+                                         int limit) {
+        int length = line.length();
+        int start = DispatchTable.commandStart(line, length);
+        int end = start;
+        while (end < length && line.charAt(end) != ' ') {
+            end++;
+        }
+        if (tokens.length == 0 || start == end || limit <= 0) {
+            return List.of();
+        }
+
+        int[] previous = new int[end - start + 1];
+        int[] current = new int[end - start + 1];
+        int[] matches = new int[Math.min(limit, tokens.length)];
+        int[] matchDistances = new int[matches.length];
+        int matchCount = 0;
+        int[] stack = new int[tokens.length];
+        int top = 0;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = distance(tokens[node], line, start, end, previous, current);
+            if (distance <= maxDistance && permissionTable.test(source, permissions[node])) {
+                matchCount = insert(matches, matchDistances, matchCount, node, distance);
+            }
+            int low = distance - maxDistance;
+            int high = distance + maxDistance;
+            for (int child = childOffsets[node], last = childOffsets[node + 1]; child < last; child++) {
+                if (distances[child] > high) {
+                    break;
+                }
+                if (distances[child] >= low) {
+                    stack[top++] = child;
+                }
+            }
+        }
+
+        List<String> suggestions = new ArrayList<>(matchCount);
+        for (int i = 0; i < matchCount; i++) {
+            suggestions.add(tokens[matches[i]]);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Computes the Levenshtein distance between a lower-case token and characters of the input,
+     * comparing them case-insensitively.
+     *
+     * @param token the lower-case token
+     * @param input the characters to compare with
+     * @param start the index of the first character
+     * @param end   the index after the last character
+     * @return the number of single character insertions, deletions and substitutions
+     */
+    public static int distance(@NotNull String token, @NotNull CharSequence input, int start, int end) {
+        return distance(token, input, start, end, new int[end - start + 1], new int[end - start + 1]);
+    }
+
+    private static int distance(String token, CharSequence input, int start, int end, int[] previous, int[] current) {
+        int length = end - start;
+        for (int j = 0; j <= length; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= token.length(); i++) {
+            current[0] = i;
+            char c = token.charAt(i - 1);
+            for (int j = 1; j <= length; j++) {
+                int substitution = previous[j - 1] + (Character.toLowerCase(input.charAt(start + j - 1)) == c ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[length];
+    }
+
+    /**
+     * Inserts a match into the arrays kept sorted by distance and token, dropping the farthest match
+     * once they are full.
+     */
+    private int insert(int[] matches, int[] matchDistances, int count, int node, int distance) {
+        int position = count;
+        while (position > 0 && (matchDistances[position - 1] > distance
+                || matchDistances[position - 1] == distance && tokens[matches[position - 1]].compareTo(tokens[node]) > 0)) {
+            position--;
+        }
+        if (position == matches.length) {
+            return count;
+        }
+        int moved = Math.min(count, matches.length - 1) - position;
+        System.arraycopy(matches, position, matches, position + 1, moved);
+        System.arraycopy(matchDistances, position, matchDistances, position + 1, moved);
+        matches[position] = node;
+        matchDistances[position] = distance;
+        return Math.min(count + 1, matches.length);
+    }
+}
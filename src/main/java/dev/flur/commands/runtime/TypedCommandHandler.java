@@ -0,0 +1,40 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Executes a command with arguments parsed by its generated argument parser.
+ * <p>
+ * A {@code @CommandInfo} class with {@link dev.flur.commands.CommandInfo#parseArguments() parseArguments}
+ * enabled implements this interface with the generated {@code <Class>Arguments} record as type
+ * argument. The generated registry wraps it in a {@link ParsingCommandHandler}.
+ *
+ * @param <A> the type of the parsed arguments
+ * @since 1.1.0
+ */
+public interface TypedCommandHandler<A> {
+
+    /**
+     * Executes the command.
+     *
+     * @param source    the source that sent the command
+     * @param label     the name or alias the command was invoked with
+     * @param arguments the parsed arguments
+     * @return {@code false} if the usage message should be shown, {@code true} otherwise
+     */
+    boolean execute(@NotNull CommandSource source, @NotNull String label, @NotNull A arguments);
+
+    /**
+     * Returns tab-completion candidates for the last argument.
+     *
+     * @param source the source requesting the completion
+     * @param label  the name or alias the command was invoked with
+     * @param args   the raw arguments following the command, the last one being completed
+     * @return the completion candidates, empty by default
+     */
+    default @NotNull List<String> complete(@NotNull CommandSource source, @NotNull String label, @NotNull String[] args) {
+        return List.of();
+    }
+}
@@ -0,0 +1,63 @@
+package dev.flur.commands.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link CommandScheduler} running every asynchronous handler on its own virtual thread.
+ * <p>
+ * Results are handed back through the given main thread executor, for example
+ * {@code task -> Bukkit.getScheduler().runTask(plugin, task)}. Plugins close the scheduler when
+ * they are disabled, which waits briefly for running handlers to finish.
+ *
+ * @since 1.1.0
+ */
+public final class VirtualThreadScheduler implements CommandScheduler, AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final ExecutorService executor;
+    private final Executor mainThread;
+
+    /**
+     * Creates a scheduler handing results back through the given executor.
+     *
+     * @param mainThread runs tasks on the server's main thread
+     */
+    public VirtualThreadScheduler(@NotNull Executor mainThread) {
+        ThreadFactory threads = Thread.ofVirtual().name("command-", 0).factory();
+        this.executor = Executors.newThreadPerTaskExecutor(threads);
+        this.mainThread = mainThread;
+    }
+
+    @Override
+    public void runAsync(@NotNull Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void runSync(@NotNull Runnable task) {
+        mainThread.execute(task);
+    }
+
+    /**
+     * Stops accepting handlers and waits up to five seconds for running ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
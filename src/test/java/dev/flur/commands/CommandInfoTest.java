@@ -50,6 +50,10 @@ class CommandInfoTest {
         assertEquals("", annotation.permissionMessage(), "permissionMessage should default to empty string");
         assertEquals("", annotation.usage(), "usage should default to empty string");
         assertEquals(0, annotation.aliases().length, "aliases should default to empty array");
+        assertEquals("", annotation.cooldown(), "cooldown should default to empty string");
+        assertEquals("", annotation.rateLimit(), "rateLimit should default to empty string");
+        assertEquals("", annotation.cacheTtl(), "cacheTtl should default to empty string");
+        assertEquals(CacheScope.ARGUMENTS, annotation.cacheScope(), "cacheScope should default to ARGUMENTS");
     }
 
     // Test class with all annotation attributes
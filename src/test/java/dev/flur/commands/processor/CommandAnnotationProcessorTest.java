@@ -3,13 +3,79 @@ package dev.flur.commands.processor;
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.Compiler;
 import com.google.testing.compile.JavaFileObjects;
+import dev.flur.commands.runtime.ArgumentParseEvent;
+import dev.flur.commands.runtime.AsyncCommandHandler;
+import dev.flur.commands.runtime.CachingCommandHandler;
+import dev.flur.commands.runtime.CommandBatch;
+import dev.flur.commands.runtime.CommandDescriptor;
+import dev.flur.commands.runtime.CommandExecutionEvent;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandIndex;
+import dev.flur.commands.runtime.CommandLookupEvent;
+import dev.flur.commands.runtime.CommandMetrics;
+import dev.flur.commands.runtime.CommandRegistrar;
+import dev.flur.commands.runtime.CommandRouter;
+import dev.flur.commands.runtime.CommandScheduler;
+import dev.flur.commands.runtime.CommandSource;
+import dev.flur.commands.runtime.CommandTable;
+import dev.flur.commands.runtime.CommandTableHolder;
+import dev.flur.commands.runtime.CompiledMessage;
+import dev.flur.commands.runtime.CompletionIndex;
+import dev.flur.commands.runtime.CooldownTable;
+import dev.flur.commands.runtime.DispatchTable;
+import dev.flur.commands.runtime.HelpIndex;
+import dev.flur.commands.runtime.LazyCommandHandler;
+import dev.flur.commands.runtime.LimitedCommandHandler;
+import dev.flur.commands.runtime.MeteredCommandHandler;
+import dev.flur.commands.runtime.PermissionCache;
+import dev.flur.commands.runtime.PermissionCheckEvent;
+import dev.flur.commands.runtime.PermissionTable;
+import dev.flur.commands.runtime.ResponseCache;
+import dev.flur.commands.runtime.SuggestionIndex;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
 import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CommandAnnotationProcessorTest {
 
@@ -437,4 +503,1606 @@ class CommandAnnotationProcessorTest {
                 .contentsAsString(StandardCharsets.UTF_8)
                 .contains("  parent.list:");
     }
+
+    @Test
+    void testRegistryGeneration() {
+        // Load the test file with multiple @CommandInfo annotations from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("MultipleCommands.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful, including the generated registry
+        assertThat(compilation).succeeded();
+
+        // Verify the registry is generated into the package of the commands
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry");
+
+        // Verify the commands are sorted by name and get stable id constants
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("public static final int FIRST = 0;");
+
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("public static final int THIRD = 2;");
+
+        // Verify the metadata is held as constants
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("descriptors[1] = new CommandDescriptor(1, \"second\", "
+                        + "\"Second command in multiple commands file\", \"test.second\", \"\", "
+                        + "\"/second\", List.of(\"s\", \"sec\"), \"test.SecondCommand\");");
+
+        // Verify the handler classes are referenced directly
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("case 0 -> test.FirstCommand.class;");
+    }
+
+    @Test
+    void testRegistryPackageOption() {
+        // Load the test class with @CommandInfo annotation from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("FullCommand.java");
+
+        // Compile the test class with an explicit registry package
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .withOptions("-Acommands.package=generated.commands")
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify the registry is generated into the requested package
+        assertThat(compilation)
+                .generatedSourceFile("generated.commands.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("case 0 -> test.FullCommand.class;");
+    }
+
+    @Test
+    void testRegistryInaccessibleHandler() {
+        // Load the test file with package-private commands from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("MultipleCommands.java");
+
+        // Compile the test class with a registry package the handlers are not visible from
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .withOptions("-Acommands.package=generated.commands")
+                .compile(testClass);
+
+        // Verify compilation was successful and the handlers were reported
+        assertThat(compilation).succeeded();
+
+        assertThat(compilation)
+                .hadWarningContaining("test.FirstCommand, which is not accessible from package 'generated.commands'");
+
+        // Verify the metadata is still registered without a handler reference
+        assertThat(compilation)
+                .generatedSourceFile("generated.commands.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .doesNotContain("test.FirstCommand.class");
+    }
+
+    @Test
+    void testStatsReport() {
+        // Load the test file with multiple commands from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("MultipleCommands.java");
+
+        // Compile the test class with the timing report enabled
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .withOptions("-Acommands.stats=true")
+                .compile(testClass);
+
+        // Verify compilation was successful and every round was reported
+        assertThat(compilation).succeeded();
+
+        assertThat(compilation)
+                .hadNoteContaining("Round 1: 3 elements, 3 commands");
+
+        // Verify the report lists the rounds and the total
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "commands-processor-stats.txt")
+                .contentsAsString(StandardCharsets.UTF_8)
+                .contains("round 1: elements=3 commands=3");
+
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "commands-processor-stats.txt")
+                .contentsAsString(StandardCharsets.UTF_8)
+                .contains("total: rounds=3");
+    }
+
+    @Test
+    void testDispatchTable() throws ReflectiveOperationException {
+        // Load the test class with subcommands from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("SubcommandExample.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Load the generated dispatch table
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        DispatchTable table = (DispatchTable) registry.getMethod("dispatchTable").invoke(null);
+
+        // Verify names, aliases and subcommands resolve to the expected command ids
+        assertEquals(0, DispatchTable.commandOf(table.resolve("parent")));
+        assertEquals(0, DispatchTable.commandOf(table.resolve("/P")));
+        assertEquals(1, DispatchTable.commandOf(table.resolve("parent create home")));
+        assertEquals(2, DispatchTable.commandOf(table.resolve("/p RM home")));
+        assertEquals(3, DispatchTable.commandOf(table.resolve("p  list")));
+
+        // Verify unknown subcommands fall back to the parent command
+        long resolution = table.resolve("/parent unknown arg");
+        assertEquals(0, DispatchTable.commandOf(resolution));
+        assertEquals(8, DispatchTable.argumentsStart(resolution));
+
+        // Verify the arguments start after the deepest matched token
+        assertEquals(15, DispatchTable.argumentsStart(table.resolve("/parent delete old")));
+
+        // Verify unknown commands are not resolved
+        assertEquals(DispatchTable.NOT_FOUND, table.resolve("/unknown"));
+        assertEquals(DispatchTable.NOT_FOUND, table.resolve("create"));
+        assertEquals(DispatchTable.NOT_FOUND, table.resolve(""));
+    }
+
+    @Test
+    void testPermissionCache() throws ReflectiveOperationException {
+        // Load the test class with subcommands from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("SubcommandExample.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify every distinct permission node has a dense index in sorted order
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        PermissionTable table = (PermissionTable) registry.getMethod("permissionTable").invoke(null);
+        assertEquals(2, table.size());
+        assertEquals("parent.create", table.node(0));
+        assertEquals(1, table.indexOf("parent.delete"));
+        assertEquals(PermissionTable.NONE, table.permissionOf(0));
+        assertEquals(1, table.permissionOf(2));
+
+        UUID player = UUID.randomUUID();
+        List<String> permissions = new ArrayList<>(List.of("parent.delete"));
+        List<String> checked = new ArrayList<>();
+        CommandSource source = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                checked.add(permission);
+                return permissions.contains(permission);
+            }
+
+            @Override
+            public void sendMessage(String message) {
+            }
+
+            @Override
+            public UUID uniqueId() {
+                return player;
+            }
+        };
+
+        // Verify the bitset is computed once and then only tested
+        PermissionCache cache = new PermissionCache(table);
+        assertTrue(cache.hasPermission(source, 0));
+        assertFalse(cache.hasPermission(source, 1));
+        assertTrue(cache.hasPermission(source, 2));
+        assertEquals(List.of("parent.create", "parent.delete"), checked);
+        assertEquals(1, cache.size());
+
+        // Verify completion filters with the cached bitset
+        CompletionIndex index = (CompletionIndex) registry.getMethod("completionIndex").invoke(null);
+        List<String> out = new ArrayList<>();
+        index.complete("/parent ", cache.bits(source), out);
+        assertEquals(List.of("delete", "list", "remove", "rm"), out);
+
+        // Verify invalidation picks up changed permissions
+        permissions.add("parent.create");
+        assertFalse(cache.hasPermission(source, 1));
+        cache.invalidate(player);
+        assertEquals(0, cache.size());
+        assertTrue(cache.hasPermission(source, 1));
+        assertEquals(4, checked.size());
+    }
+
+    @Test
+    void testPermissionHierarchy() throws ReflectiveOperationException {
+        // Load the test files with nested permission nodes from resources
+        JavaFileObject subcommands = JavaFileObjects.forResource("SubcommandExample.java");
+        JavaFileObject permission = JavaFileObjects.forResource("PermissionCommand.java");
+
+        // Compile the test classes with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(subcommands, permission);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify every wildcard lists its direct children
+        assertThat(compilation)
+                .generatedFile(StandardLocation.CLASS_OUTPUT, "commands.yml")
+                .contentsAsString(StandardCharsets.UTF_8)
+                .contains("permissions:\n"
+                        + "  \"parent.*\":\n"
+                        + "    description: \"Grants all permissions under parent\"\n"
+                        + "    children:\n"
+                        + "      \"parent.create\": true\n"
+                        + "      \"parent.delete\": true\n");
+
+        assertThat(compilation)
+                .generatedFile(StandardLocation.CLASS_OUTPUT, "commands.yml")
+                .contentsAsString(StandardCharsets.UTF_8)
+                .contains("  \"test.*\":\n"
+                        + "    description: \"Grants all permissions under test\"\n"
+                        + "    children:\n"
+                        + "      \"test.permission.*\": true\n");
+
+        // Verify wildcards resolve to the range of their descendants
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        PermissionTable table = (PermissionTable) registry.getMethod("permissionTable").invoke(null);
+        assertEquals(3, table.size());
+        assertEquals(3, table.wildcardCount());
+        int parent = table.indexOfWildcard("parent.*");
+        assertEquals(0, table.descendantsStart(parent));
+        assertEquals(2, table.descendantsEnd(parent));
+        assertTrue(table.implies(table.indexOfWildcard("test.*"), table.indexOf("test.permission.use")));
+        assertFalse(table.implies(parent, table.indexOf("test.permission.use")));
+        assertEquals(PermissionTable.NONE, table.indexOfWildcard("other.*"));
+
+        // Verify granting a wildcard sets the bits of all its descendants
+        long[] bits = new long[1];
+        table.grant(bits, parent);
+        assertEquals(0b011L, bits[0]);
+    }
+
+    @Test
+    void testCompletionIndex() throws ReflectiveOperationException {
+        // Load the test class with subcommands from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("SubcommandExample.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Load the generated completion index
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        CompletionIndex index = (CompletionIndex) registry.getMethod("completionIndex").invoke(null);
+
+        List<String> permissions = new ArrayList<>();
+        CommandSource source = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return permissions.contains(permission);
+            }
+
+            @Override
+            public void sendMessage(String message) {
+            }
+        };
+
+        // Verify names and aliases complete in sorted order and skip missing permissions
+        List<String> out = new ArrayList<>();
+        assertEquals(2, index.complete("/", source, out));
+        assertEquals(List.of("p", "parent"), out);
+
+        out.clear();
+        index.complete("/P ", source, out);
+        assertEquals(List.of("list"), out);
+
+        permissions.add("parent.delete");
+        out.clear();
+        index.complete("/parent ", source, out);
+        assertEquals(List.of("delete", "list", "remove", "rm"), out);
+
+        out.clear();
+        index.complete("p R", source, out);
+        assertEquals(List.of("remove", "rm"), out);
+
+        // Verify lines are tokenized like the dispatch table resolves them
+        out.clear();
+        index.complete("  /parent   R", source, out);
+        assertEquals(List.of("remove", "rm"), out);
+
+        // Verify arguments and unknown commands complete nothing
+        out.clear();
+        assertEquals(0, index.complete("/parent delete ", source, out));
+        assertEquals(0, index.complete("/unknown ", source, out));
+        assertEquals(0, index.complete("/parent create ", source, out));
+        assertTrue(out.isEmpty());
+
+        // Verify prefix ranges without a permission check
+        long range = index.range(DispatchTable.ROOT, "PAR", 0, 3);
+        assertEquals(1, CompletionIndex.rangeEnd(range) - CompletionIndex.rangeStart(range));
+        assertEquals("parent", index.token(CompletionIndex.rangeStart(range)));
+    }
+
+    @Test
+    void testLazyHandlers() throws ReflectiveOperationException {
+        // Load the test file with a command handler from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("LazyHandlerCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Register all commands of the generated registry
+        CompiledClassLoader loader = new CompiledClassLoader(compilation);
+        Class<?> registry = loader.loadClass("test.GeneratedCommandRegistry");
+        Map<String, CommandHandler> handlers = new HashMap<>();
+        CommandRegistrar registrar = (command, handler) -> handlers.put(command.name(), handler);
+        registry.getMethod("registerAll", CommandRegistrar.class).invoke(null, registrar);
+
+        // Verify only commands implementing CommandHandler get a stub
+        assertEquals(2, handlers.size());
+        assertNull(handlers.get("plain"));
+        LazyCommandHandler lazy = (LazyCommandHandler) handlers.get("lazy");
+        assertEquals("lazy", lazy.command().name());
+
+        // Verify registration did not load the handler class
+        assertFalse(lazy.isLoaded());
+        assertFalse(loader.isLoaded("test.LazyHandlerCommand"));
+
+        // Verify the first execution loads and instantiates the handler
+        List<String> messages = new ArrayList<>();
+        CommandSource source = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return true;
+            }
+
+            @Override
+            public void sendMessage(String message) {
+                messages.add(message);
+            }
+        };
+        assertTrue(lazy.execute(source, "lazy", new String[]{"a", "b"}));
+        assertTrue(lazy.isLoaded());
+        assertTrue(loader.isLoaded("test.LazyHandlerCommand"));
+        assertEquals(List.of("Executed lazy with 2 arguments"), messages);
+
+        // Verify the instance is reused
+        assertSame(lazy.get(), lazy.get());
+    }
+
+    @Test
+    void testHandlerWithoutConstructor() {
+        // Load the test class with an unusable handler from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("HandlerWithoutConstructor.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify the handler was rejected
+        assertThat(compilation).failed();
+
+        assertThat(compilation)
+                .hadErrorContaining("Command handler test.HandlerWithoutConstructor has no non-private no-argument constructor");
+    }
+
+    @Test
+    void testMethodSubcommands() throws ReflectiveOperationException {
+        // Load the test class with method subcommands from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("MethodSubcommands.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify the method subcommands are listed like class subcommands
+        assertThat(compilation)
+                .generatedFile(StandardLocation.CLASS_OUTPUT, "commands.yml")
+                .contentsAsString(StandardCharsets.UTF_8)
+                .contains("  home.set:\n    description: \"Set a home\"");
+
+        // Verify the dispatcher routes with a switch and calls the methods directly
+        assertThat(compilation)
+                .generatedSourceFile("test.MethodSubcommandsSubcommands")
+                .contentsAsUtf8String()
+                .contains("case \"set\", \"add\" -> {");
+
+        assertThat(compilation)
+                .generatedSourceFile("test.MethodSubcommandsSubcommands")
+                .contentsAsUtf8String()
+                .contains("return command.set(source, label, args);");
+
+        // Load the generated registry and resolve the subcommands
+        CompiledClassLoader loader = new CompiledClassLoader(compilation);
+        Class<?> registry = loader.loadClass("test.GeneratedCommandRegistry");
+        DispatchTable table = (DispatchTable) registry.getMethod("dispatchTable").invoke(null);
+        int home = DispatchTable.commandOf(table.resolve("/home"));
+        int list = DispatchTable.commandOf(table.resolve("/h list"));
+        assertEquals(2, DispatchTable.commandOf(table.resolve("/home ADD")));
+
+        // Verify the parent dispatcher checks permissions and routes case-insensitively
+        List<String> messages = new ArrayList<>();
+        List<String> permissions = new ArrayList<>();
+        CommandSource source = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return permissions.contains(permission);
+            }
+
+            @Override
+            public void sendMessage(String message) {
+                messages.add(message);
+            }
+        };
+        CommandHandler parent = (CommandHandler) registry.getMethod("handler", int.class).invoke(null, home);
+        assertTrue(parent.execute(source, "home", new String[]{"set", "base"}));
+        assertEquals(List.of("You cannot set homes"), messages);
+
+        permissions.add("home.set");
+        assertTrue(parent.execute(source, "home", new String[]{"SET", "base"}));
+        assertTrue(parent.execute(source, "home", new String[]{"add", "mine"}));
+        assertFalse(parent.execute(source, "home", new String[]{"set"}));
+        assertFalse(parent.execute(source, "home", new String[]{"unknown"}));
+
+        // Verify subcommand handlers from the registry share the instance of the parent
+        messages.clear();
+        CommandHandler listHandler = (CommandHandler) registry.getMethod("handler", int.class).invoke(null, list);
+        assertTrue(listHandler.execute(source, "h", new String[0]));
+        assertEquals(List.of("h: base, mine"), messages);
+
+        // Verify completion of the subcommand tokens
+        assertEquals(List.of("list", "set", "add"), parent.complete(source, "home", new String[]{""}));
+        assertEquals(List.of("list"), parent.complete(source, "home", new String[]{"L"}));
+    }
+
+    @Test
+    void testInvalidMethodSubcommand() {
+        // Load the test class with an invalid subcommand method from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("InvalidMethodSubcommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify the method was rejected
+        assertThat(compilation).failed();
+
+        assertThat(compilation)
+                .hadErrorContaining("Subcommand method go must accept (CommandSource, String, String[])");
+    }
+
+    @Test
+    void testTypedArguments() throws ReflectiveOperationException {
+        // Load the test class with typed arguments from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("TypedArgumentsCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify the players see the usage without the type declarations
+        assertThat(compilation)
+                .generatedFile(StandardLocation.CLASS_OUTPUT, "commands.yml")
+                .contentsAsString(StandardCharsets.UTF_8)
+                .contains("    usage: \"/give <player> <amount> [reason...]\"");
+
+        // Verify the arguments record has one component per parameter
+        assertThat(compilation)
+                .generatedSourceFile("test.TypedArgumentsCommandArguments")
+                .contentsAsUtf8String()
+                .contains("public record TypedArgumentsCommandArguments(String player, int amount, String reason) {");
+
+        // Parse arguments through the handler created by the registry
+        List<String> messages = new ArrayList<>();
+        CommandSource source = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return true;
+            }
+
+            @Override
+            public void sendMessage(String message) {
+                messages.add(message);
+            }
+        };
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        CommandHandler handler = (CommandHandler) registry.getMethod("handler", int.class).invoke(null, 0);
+
+        assertTrue(handler.execute(source, "give", new String[]{"Steve", "5"}));
+        assertTrue(handler.execute(source, "give", new String[]{"Alex", "-12", "for", "the", "win"}));
+        assertFalse(handler.execute(source, "give", new String[]{"Steve"}));
+        assertFalse(handler.execute(source, "give", new String[]{"Steve", "5x"}));
+        assertEquals(List.of(
+                "Steve +5",
+                "Alex +-12 (for the win)",
+                "Missing argument <amount>",
+                "Invalid number for <amount>: '5x'"
+        ), messages);
+    }
+
+    @Test
+    void testInvalidUsage() {
+        // Load the test class with a malformed usage from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("InvalidUsageCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify the usage was rejected
+        assertThat(compilation).failed();
+
+        assertThat(compilation)
+                .hadErrorContaining("Cannot parse usage '/pay [player] <amount:int>' of command pay: "
+                        + "required parameter '<amount:int>' follows an optional one");
+    }
+
+    @Test
+    void testAsyncExecution() throws ReflectiveOperationException, InterruptedException {
+        // Load the test class with asynchronous execution from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("AsyncCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("\"test.AsyncCommand\", Execution.ASYNC);");
+
+        // Run asynchronous tasks on a named thread and queue the tasks for the main thread
+        List<Thread> workers = new ArrayList<>();
+        List<Runnable> mainThread = new ArrayList<>();
+        CommandScheduler scheduler = new CommandScheduler() {
+            @Override
+            public void runAsync(Runnable task) {
+                Thread worker = new Thread(task, "async");
+                workers.add(worker);
+                worker.start();
+            }
+
+            @Override
+            public void runSync(Runnable task) {
+                mainThread.add(task);
+            }
+        };
+
+        // Verify asynchronous commands are not silently run on the dispatching thread without a scheduler
+        Map<String, CommandHandler> handlers = new HashMap<>();
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        InvocationTargetException missing = assertThrows(InvocationTargetException.class,
+                () -> registry.getMethod("registerAll", CommandRegistrar.class)
+                        .invoke(null, (CommandRegistrar) (command, handler) -> handlers.put(command.name(), handler)));
+        assertEquals("Commands backup, backup.list are declared with execution = ASYNC and need a CommandScheduler",
+                missing.getCause().getMessage());
+        assertTrue(handlers.isEmpty());
+
+        registry.getMethod("registerAll", CommandRegistrar.class, CommandScheduler.class)
+                .invoke(null, (CommandRegistrar) (command, handler) -> handlers.put(command.name(), handler), scheduler);
+        assertTrue(handlers.get("backup") instanceof AsyncCommandHandler);
+        assertTrue(handlers.get("backup.list") instanceof AsyncCommandHandler);
+
+        List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        CommandSource source = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return true;
+            }
+
+            @Override
+            public void sendMessage(String message) {
+                messages.add(message + (Thread.currentThread().getName().equals("async") ? "" : " (main)"));
+            }
+        };
+
+        // Verify the handler runs off the calling thread and its messages are sent on the main thread
+        assertTrue(handlers.get("backup").execute(source, "backup", new String[]{"world"}));
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(messages.isEmpty());
+        assertEquals(1, mainThread.size());
+        mainThread.remove(0).run();
+        assertEquals(List.of("Backup world #1 on async (main)"), messages);
+
+        // Verify the usage is sent on the main thread
+        messages.clear();
+        assertTrue(handlers.get("backup").execute(source, "backup", new String[0]));
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(1, mainThread.size());
+        mainThread.remove(0).run();
+        assertEquals(List.of("\u00a7e/backup <name> (main)"), messages);
+
+        // Verify exceptions are rethrown on the main thread
+        assertTrue(handlers.get("backup").execute(source, "backup", new String[]{"fail"}));
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Runnable failure = mainThread.remove(0);
+        assertEquals("Backup failed", assertThrows(IllegalStateException.class, failure::run).getMessage());
+    }
+
+    @Test
+    void testCommandMetrics(@TempDir Path directory) throws ReflectiveOperationException, IOException {
+        // Load the test class with asynchronous execution from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("AsyncCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Run all tasks on the calling thread
+        CommandScheduler scheduler = new CommandScheduler() {
+            @Override
+            public void runAsync(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            public void runSync(Runnable task) {
+                task.run();
+            }
+        };
+
+        // Verify handlers are only wrapped when metrics are given
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        Map<String, CommandHandler> plain = new HashMap<>();
+        registry.getMethod("registerAll", CommandRegistrar.class, CommandScheduler.class, CommandMetrics.class)
+                .invoke(null, (CommandRegistrar) (command, handler) -> plain.put(command.name(), handler), scheduler, null);
+        assertFalse(((AsyncCommandHandler) plain.get("backup")).handler() instanceof MeteredCommandHandler);
+
+        @SuppressWarnings("unchecked")
+        List<CommandDescriptor> commands = (List<CommandDescriptor>) registry.getMethod("commands").invoke(null);
+        CommandMetrics metrics = new CommandMetrics(commands);
+        Map<String, CommandHandler> handlers = new HashMap<>();
+        registry.getMethod("registerAll", CommandRegistrar.class, CommandScheduler.class, CommandMetrics.class)
+                .invoke(null, (CommandRegistrar) (command, handler) -> handlers.put(command.name(), handler),
+                        scheduler, metrics);
+        assertTrue(((AsyncCommandHandler) handlers.get("backup")).handler() instanceof MeteredCommandHandler);
+
+        // Verify every outcome is counted
+        CommandSource source = new LimitedSource(null, new ArrayList<>());
+        assertTrue(handlers.get("backup").execute(source, "backup", new String[]{"world"}));
+        assertTrue(handlers.get("backup").execute(source, "backup", new String[0]));
+        assertThrows(IllegalStateException.class,
+                () -> handlers.get("backup").execute(source, "backup", new String[]{"fail"}));
+        assertTrue(handlers.get("backup.list").execute(source, "backup", new String[0]));
+
+        int backup = commands.stream().filter(command -> command.name().equals("backup")).findFirst().orElseThrow().id();
+        assertEquals(3, metrics.invocations(backup));
+        assertEquals(1, metrics.usage(backup));
+        assertEquals(1, metrics.errors(backup));
+        assertEquals(3, Arrays.stream(metrics.histogram(backup)).sum());
+        assertTrue(metrics.percentileNanos(backup, 0.99) > 0);
+
+        // Verify the dump holds one line per invoked command
+        Path dump = directory.resolve("metrics.tsv");
+        metrics.dump(dump);
+        List<String> lines = Files.readAllLines(dump);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("# command\tinvocations\tusage\terrors"));
+        assertTrue(lines.get(1).startsWith("backup\t3\t1\t1\t"));
+        assertTrue(lines.get(2).startsWith("backup.list\t1\t0\t0\t"));
+    }
+
+    @Test
+    void testFlightRecorderEvents(@TempDir Path directory) throws ReflectiveOperationException, IOException {
+        // Load the test classes with typed arguments and permission-guarded subcommands from resources
+        JavaFileObject typed = JavaFileObjects.forResource("TypedArgumentsCommand.java");
+        JavaFileObject subcommands = JavaFileObjects.forResource("MethodSubcommands.java");
+
+        // Compile the test classes with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(typed, subcommands);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify the events are disabled unless a recording enables them
+        for (Class<? extends Event> event : List.of(CommandLookupEvent.class, ArgumentParseEvent.class,
+                PermissionCheckEvent.class, CommandExecutionEvent.class)) {
+            assertFalse(EventType.getEventType(event).isEnabled());
+        }
+
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        Map<String, CommandHandler> handlers = new HashMap<>();
+        registry.getMethod("registerAll", CommandRegistrar.class)
+                .invoke(null, (CommandRegistrar) (command, handler) -> handlers.put(command.name(), handler));
+        CommandSource source = new LimitedSource(null, new ArrayList<>());
+
+        // Record one use of every dispatch step
+        Path file = directory.resolve("commands.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CommandLookupEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(ArgumentParseEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(PermissionCheckEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(CommandExecutionEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            registry.getMethod("resolve", CharSequence.class).invoke(null, "  /h add spawn");
+            registry.getMethod("resolve", CharSequence.class).invoke(null, "/unknown");
+            handlers.get("give").execute(source, "give", new String[]{"Steve", "many"});
+            handlers.get("home").execute(source, "h", new String[]{"add", "spawn"});
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<RecordedEvent>> events = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            events.computeIfAbsent(event.getEventType().getName(), name -> new ArrayList<>()).add(event);
+        }
+
+        // Verify lookups record the resolved command and the alias used
+        List<RecordedEvent> lookups = events.get(CommandLookupEvent.NAME);
+        assertEquals(2, lookups.size());
+        assertEquals("home.set", lookups.get(0).getString("command"));
+        assertEquals("h", lookups.get(0).getString("alias"));
+        assertNull(lookups.get(1).getString("command"));
+        assertEquals("unknown", lookups.get(1).getString("alias"));
+
+        // Verify the malformed amount was recorded as a failed parse
+        RecordedEvent parse = events.get(ArgumentParseEvent.NAME).get(0);
+        assertEquals("give", parse.getString("command"));
+        assertFalse(parse.getBoolean("success"));
+
+        // Verify the subcommand permission check was recorded
+        RecordedEvent check = events.get(PermissionCheckEvent.NAME).get(0);
+        assertEquals("home.set", check.getString("command"));
+        assertEquals("add", check.getString("alias"));
+        assertEquals("home.set", check.getString("permission"));
+        assertTrue(check.getBoolean("granted"));
+
+        // Verify both executions were recorded with their result
+        List<RecordedEvent> executions = events.get(CommandExecutionEvent.NAME);
+        assertEquals(2, executions.size());
+        assertEquals("give", executions.get(0).getString("command"));
+        assertFalse(executions.get(0).getBoolean("handled"));
+        assertEquals("home", executions.get(1).getString("command"));
+        assertEquals("h", executions.get(1).getString("alias"));
+        assertTrue(executions.get(1).getBoolean("handled"));
+    }
+
+    @Test
+    void testCommandBatch() throws ReflectiveOperationException {
+        // Load test classes with typed arguments, method subcommands, a throwing handler and a permission
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(JavaFileObjects.forResource("TypedArgumentsCommand.java"),
+                        JavaFileObjects.forResource("MethodSubcommands.java"),
+                        JavaFileObjects.forResource("AsyncCommand.java"),
+                        JavaFileObjects.forResource("PermissionCommand.java"));
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Prepare a script once
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        CommandBatch batch = (CommandBatch) registry.getMethod("prepareBatch", List.class).invoke(null, List.of(
+                "# set up homes",
+                "/home set spawn",
+                "h  Add   base",
+                "",
+                "/home list",
+                "give Steve 5",
+                "give Steve many",
+                "backup fail",
+                "/unknown command",
+                "permcmd"));
+        assertEquals(10, batch.size());
+        assertEquals(4, batch.groupCount());
+        assertEquals(batch.command(1), batch.command(2));
+        assertEquals(-1, batch.command(0));
+        assertEquals(-1, batch.command(8));
+
+        // Execute it with the plain handlers, and a handler for the command without one
+        int permcmd = ((CommandDescriptor) registry.getMethod("command", int.class)
+                .invoke(null, batch.command(9))).id();
+        List<String> messages = new ArrayList<>();
+        CommandSource source = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return !permission.equals("test.permission.use");
+            }
+
+            @Override
+            public void sendMessage(String message) {
+                messages.add(message);
+            }
+        };
+        Method handler = registry.getMethod("handler", int.class);
+        CommandBatch.Result result = batch.execute(source, id -> {
+            try {
+                return id == permcmd ? (s, label, args) -> true : (CommandHandler) handler.invoke(null, id);
+            } catch (ReflectiveOperationException e) {
+                throw new AssertionError(e);
+            }
+        });
+
+        // Verify every line reports its outcome without aborting the batch
+        assertEquals(List.of(CommandBatch.Status.SKIPPED, CommandBatch.Status.HANDLED, CommandBatch.Status.HANDLED,
+                CommandBatch.Status.SKIPPED, CommandBatch.Status.HANDLED, CommandBatch.Status.HANDLED,
+                CommandBatch.Status.USAGE, CommandBatch.Status.ERROR, CommandBatch.Status.UNKNOWN,
+                CommandBatch.Status.DENIED), IntStream.range(0, result.size())
+                .mapToObj(result::status).toList());
+        assertTrue(result.error(7) instanceof IllegalStateException);
+        assertNull(result.error(6));
+        assertEquals(4, result.count(CommandBatch.Status.HANDLED));
+        assertEquals(List.of("home: spawn, base", "Steve +5", "Invalid number for <amount>: 'many'"), messages);
+    }
+
+    @Test
+    void testCommandTableSnapshot() throws ReflectiveOperationException, InterruptedException {
+        // Load test classes with aliases, method subcommands and a permission
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(JavaFileObjects.forResource("MethodSubcommands.java"),
+                        JavaFileObjects.forResource("PermissionCommand.java"));
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify a snapshot holds names, aliases, subcommands, permissions and handlers
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        CommandTable table = (CommandTable) registry.getMethod("snapshot").invoke(null);
+        assertEquals(registry.getMethod("size").invoke(null), table.size());
+        CommandDescriptor home = Objects.requireNonNull(table.find("/h"));
+        CommandDescriptor set = Objects.requireNonNull(table.find("h Add spawn"));
+        assertEquals("home", home.name());
+        assertEquals("home.set", set.name());
+        assertEquals(List.of("home.list", "home.set"),
+                table.subcommands(home.id()).stream().map(CommandDescriptor::name).sorted().toList());
+        assertEquals(List.of(), table.subcommands(set.id()));
+        assertNull(table.find("unknown"));
+        assertSame(registry.getMethod("handler", int.class).invoke(null, home.id()), table.handler(home.id()));
+        CommandTable reloaded = (CommandTable) registry.getMethod("snapshot").invoke(null);
+        assertSame(table.handler(home.id()), reloaded.handler(home.id()));
+        CommandDescriptor permcmd = Objects.requireNonNull(table.find("permcmd"));
+        assertNull(table.handler(permcmd.id()));
+        CommandSource denied = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return false;
+            }
+
+            @Override
+            public void sendMessage(String message) {
+            }
+        };
+        assertFalse(table.isPermitted(denied, permcmd.id()));
+        assertTrue(table.isPermitted(denied, home.id()));
+        assertEquals(home.id(), table.prepareBatch(List.of("home list")).command(0));
+
+        // Verify readers see either the empty table or a complete snapshot while reloads swap it
+        CommandTableHolder holder = new CommandTableHolder();
+        assertSame(CommandTable.EMPTY, holder.get());
+        assertNull(holder.get().find("home"));
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread reader = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                CommandTable current = holder.get();
+                CommandDescriptor found = current.find("h add");
+                if (current.size() > 0 && (found == null || current.handler(found.id()) == null)) {
+                    failures.add(String.valueOf(found));
+                }
+            }
+        });
+        CommandTable previous = holder.get();
+        for (int i = 0; i < 1_000; i++) {
+            CommandTable next = (CommandTable) registry.getMethod("snapshot").invoke(null);
+            assertTrue(holder.publish(previous, next));
+            previous = next;
+        }
+        reader.join();
+        assertEquals(List.of(), failures);
+
+        // Verify a reload based on a stale table is rejected
+        assertFalse(holder.publish(table, CommandTable.EMPTY));
+        assertSame(previous, holder.publish(table));
+        assertSame(table, holder.get());
+    }
+
+    @Test
+    void testCommandIndex(@TempDir Path directory) throws IOException {
+        // Compile test classes with aliases, method subcommands and a permission, with the binary index enabled
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .withOptions("-Acommands.index=true")
+                .compile(JavaFileObjects.forResource("MethodSubcommands.java"),
+                        JavaFileObjects.forResource("PermissionCommand.java"));
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Map the generated index like a proxy would
+        Path file = directory.resolve("commands.idx");
+        try (InputStream in = compilation.generatedFile(StandardLocation.CLASS_OUTPUT, "commands.idx")
+                .orElseThrow().openInputStream()) {
+            Files.copy(in, file);
+        }
+        CommandIndex index = CommandIndex.map(file);
+
+        // Verify records are ordered by name and strings are decoded on demand
+        assertEquals(4, index.size());
+        assertEquals(List.of("home", "home.list", "home.set", "permcmd"),
+                IntStream.range(0, index.size()).mapToObj(index::name).toList());
+        int home = index.find("HOME");
+        assertEquals(0, home);
+        assertEquals("Manage homes", index.description(home));
+        assertEquals("/home", index.usage(home));
+        assertFalse(index.hasPermission(home));
+        assertEquals(1, index.aliasCount(home));
+        assertEquals("h", index.alias(home, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.alias(home, 1));
+
+        // Verify names and aliases resolve, with subcommand aliases keyed under their parent
+        int set = index.find("home.add");
+        assertEquals(home, index.find("h"));
+        assertEquals(set, index.find("home.set"));
+        assertEquals("home.set", index.name(set));
+        assertEquals("Add", index.alias(set, 0));
+        assertTrue(index.hasPermission(set));
+        assertEquals("home.set", index.permission(set));
+        assertEquals("You cannot set homes", index.permissionMessage(set));
+        assertEquals(-1, index.find("add"));
+        assertEquals(-1, index.find("unknown"));
+        assertEquals("test.permission.use", index.permission(index.find("permcmd")));
+
+        // Verify the index is only written when enabled, and other files are rejected
+        assertFalse(Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(JavaFileObjects.forResource("MethodSubcommands.java"))
+                .generatedFile(StandardLocation.CLASS_OUTPUT, "commands.idx")
+                .isPresent());
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandIndex.of(ByteBuffer.wrap("commands:\n".repeat(8).getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testCommandRouting() throws ReflectiveOperationException, IOException {
+        // Compile a backend plugin with aliases, method subcommands and a permission, with the manifest enabled
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .withOptions("-Acommands.routes=true", "-Acommands.namespace=Homes")
+                .compile(JavaFileObjects.forResource("MethodSubcommands.java"),
+                        JavaFileObjects.forResource("PermissionCommand.java"));
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify the manifest lists top-level names and aliases, also namespaced, with their permission hints
+        String manifest = compilation.generatedFile(StandardLocation.CLASS_OUTPUT, CommandRouter.MANIFEST)
+                .orElseThrow().getCharContent(true).toString();
+        assertEquals("# token\tcommand\tpermission\nh\thome\nhome\thome\nhomes:h\thome\nhomes:home\thome\n"
+                + "homes:permcmd\tpermcmd\ttest.permission.use\npermcmd\tpermcmd\ttest.permission.use\n", manifest);
+
+        // Stand in for a backend server receiving the lines forwarded to it
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        CommandSource player = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return permission.equals("home.set");
+            }
+
+            @Override
+            public void sendMessage(String message) {
+            }
+        };
+        List<String> lines = List.of("/home set base", "H list", "/homes:permcmd", "/permcmd", "/hub", "/tp Steve",
+                "/other:home", "  ", "");
+        Map<String, List<String>> manifests = Map.of(
+                "survival", List.of(manifest, "# token\tcommand\tpermission\nhub\thub\nhome\tother\n"),
+                "lobby", List.of("hub\thub\r\nl\thub\r\n"));
+
+        // Stand in for a proxy that only forwards, unless permission checks are enabled
+        CommandRouter router = CommandRouter.load(manifests);
+        for (String line : lines) {
+            assertEquals(CommandRouter.Decision.FORWARD, router.decide("survival", player, line));
+        }
+        CommandRouter checking = CommandRouter.load(manifests, true);
+        List<String> forwarded = new ArrayList<>();
+        for (String line : lines) {
+            if (checking.decide("survival", player, line) == CommandRouter.Decision.FORWARD) {
+                forwarded.add(line);
+                long resolution = (long) registry.getMethod("resolve", CharSequence.class).invoke(null, line);
+                assertTrue(resolution != DispatchTable.NOT_FOUND || !line.startsWith("/home") && !line.startsWith("H"));
+            }
+        }
+
+        // Verify only lines for commands whose permission hint the player lacks are denied; vanilla commands,
+        // commands of plugins without a manifest and unknown namespaces are still forwarded
+        assertEquals(List.of("/home set base", "H list", "/hub", "/tp Steve", "/other:home", "  ", ""), forwarded);
+        assertEquals(new CommandRouter.Route("survival", "home", ""), router.route("survival", "/HOME"));
+        assertEquals(new CommandRouter.Route("survival", "home", ""), router.route("survival", "/homes:h x"));
+        assertEquals(new CommandRouter.Route("lobby", "hub", ""), router.route("lobby", "l"));
+        assertNull(router.route("lobby", "home"));
+        assertNull(router.route("survival", "/tp"));
+        assertTrue(router.isKnown("lobby"));
+
+        // Verify servers without a manifest are forwarded as before, and malformed manifests are rejected
+        assertFalse(router.isKnown("creative"));
+        assertEquals(CommandRouter.Decision.FORWARD, router.decide("creative", player, "/unknown"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> CommandRouter.load(Map.of("lobby", List.of("hub\thub\n\tbroken\n"))));
+        assertTrue(e.getMessage().startsWith("Invalid route on line 2 of a manifest of server lobby"));
+    }
+
+    @Test
+    void testSuggestions() throws ReflectiveOperationException {
+        // Load test classes with several top-level commands and aliases from resources
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(JavaFileObjects.forResource("SubcommandExample.java"),
+                        JavaFileObjects.forResource("MethodSubcommands.java"),
+                        JavaFileObjects.forResource("AsyncCommand.java"),
+                        JavaFileObjects.forResource("TypedArgumentsCommand.java"),
+                        JavaFileObjects.forResource("PermissionCommand.java"));
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify only top-level names and aliases are indexed
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        SuggestionIndex index = (SuggestionIndex) registry.getMethod("suggestionIndex").invoke(null);
+        assertEquals(7, index.size());
+
+        // Verify suggestions are ordered by distance, then alphabetically
+        LimitedSource source = new LimitedSource(null, new ArrayList<>());
+        assertEquals(List.of("home", "h"), index.suggest("/hme set", source, 2, 5));
+        assertEquals(List.of("home"), index.suggest("HOMR", source, 1, 5));
+        assertEquals(List.of("h"), index.suggest("o", source, 1, 1));
+        assertEquals(List.of("h", "p"), index.suggest("o", source, 1, 5));
+        assertEquals(List.of(), index.suggest("/", source, 2, 5));
+
+        // Verify commands the source may not use are never suggested
+        CommandSource denied = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return false;
+            }
+
+            @Override
+            public void sendMessage(String message) {
+            }
+        };
+        assertEquals(List.of("permcmd"), index.suggest("permcnd", source, 2, 5));
+        assertEquals(List.of(), index.suggest("permcnd", denied, 2, 5));
+
+        // Verify the tree finds exactly the tokens a linear scan finds
+        List<String> tokens = List.of("backup", "give", "h", "home", "p", "parent", "permcmd");
+        for (String input : List.of("bakup", "giv", "hom", "paren", "prent", "xyz", "homes", "perm", "pa")) {
+            for (int maxDistance = 0; maxDistance <= 3; maxDistance++) {
+                int max = maxDistance;
+                List<String> expected = tokens.stream()
+                        .filter(token -> SuggestionIndex.distance(token, input, 0, input.length()) <= max)
+                        .sorted(Comparator.comparingInt((String token) -> SuggestionIndex.distance(token, input, 0,
+                                input.length())).thenComparing(Comparator.naturalOrder()))
+                        .toList();
+                assertEquals(expected, index.suggest(input, source, maxDistance, tokens.size()), input + " " + max);
+            }
+        }
+    }
+
+    @Test
+    void testHelpPages() throws ReflectiveOperationException {
+        // Load test classes with subcommands, aliases and permissions from resources
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .withOptions("-Acommands.helpPageSize=3")
+                .compile(JavaFileObjects.forResource("SubcommandExample.java"),
+                        JavaFileObjects.forResource("MethodSubcommands.java"),
+                        JavaFileObjects.forResource("TypedArgumentsCommand.java"),
+                        JavaFileObjects.forResource("PermissionCommand.java"));
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify every command has a line rendered from its usage, description and aliases
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        HelpIndex index = (HelpIndex) registry.getMethod("helpIndex").invoke(null);
+        assertEquals(3, index.pageSize());
+        assertEquals(9, index.size());
+        assertEquals("/give <player> <amount> [reason...] - Give coins to a player", index.line(0));
+        assertEquals("/home - Manage homes (aliases: h)", index.line(1));
+        assertEquals("/home set - Set a home (aliases: Add)", index.line(3));
+
+        // Verify pages only hold the commands the source may use
+        PermissionTable permissions = (PermissionTable) registry.getMethod("permissionTable").invoke(null);
+        long[] all = permissions.compute(new LimitedSource(null, new ArrayList<>()));
+        long[] none = new long[all.length];
+        assertEquals(3, index.pageCount(all));
+        assertEquals(2, index.pageCount(none));
+        assertEquals(List.of(index.line(6), index.line(7), index.line(8)), index.page(all, 2));
+        assertEquals(List.of(index.line(0), index.line(1), index.line(2)), index.page(none, 0));
+        assertEquals(List.of(index.line(4), index.line(7)), index.page(none, 1));
+        assertEquals(List.of(), index.page(none, 2));
+        assertEquals(List.of(), index.page(none, -1));
+
+        // Verify views are built once per set of permissions and shared
+        assertSame(index.page(all, 0), index.page(all.clone(), 0));
+        assertEquals(2, index.viewCount());
+        index.clear();
+        assertEquals(0, index.viewCount());
+
+        // Verify the registry checks the permissions of a player once for every help page
+        List<String> checks = new ArrayList<>();
+        UUID playerId = UUID.randomUUID();
+        CommandSource player = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                checks.add(permission);
+                return true;
+            }
+
+            @Override
+            public void sendMessage(String message) {
+            }
+
+            @Override
+            public UUID uniqueId() {
+                return playerId;
+            }
+        };
+        Method help = registry.getMethod("help", CommandSource.class, int.class);
+        assertEquals(List.of(index.line(0), index.line(1), index.line(2)), help.invoke(null, player, 0));
+        int computed = checks.size();
+        assertEquals(List.of(index.line(3), index.line(4), index.line(5)), help.invoke(null, player, 1));
+        assertEquals(computed, checks.size());
+        assertEquals(1, ((PermissionCache) registry.getMethod("permissionCache").invoke(null)).size());
+    }
+
+    @Test
+    void testInvalidHelpPageSize() {
+        // Compile a command with a help page size that is not a positive number
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .withOptions("-Acommands.helpPageSize=0")
+                .compile(JavaFileObjects.forResource("MinimalCommand.java"));
+
+        // Verify the option was rejected
+        assertThat(compilation).failed();
+        assertThat(compilation)
+                .hadErrorContaining("Invalid commands.helpPageSize '0', expected a positive number");
+    }
+
+    @Test
+    void testCompiledMessages() throws ReflectiveOperationException {
+        // Load the test class with colored messages and placeholders from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("MessagesCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful
+        assertThat(compilation).succeeded();
+
+        // Verify color codes are translated and placeholders split out at compile time
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        Method permissionMessage = registry.getMethod("permissionMessage", int.class);
+        Method usageMessage = registry.getMethod("usageMessage", int.class);
+        Method descriptionMessage = registry.getMethod("descriptionMessage", int.class);
+        int warp = 0;
+        int delete = 1;
+        int set = 2;
+        assertEquals("warp.delete", ((CommandDescriptor) registry.getMethod("command", int.class).invoke(null, delete)).name());
+
+        CompiledMessage description = (CompiledMessage) descriptionMessage.invoke(null, warp);
+        assertEquals(List.of("kind"), description.placeholders());
+        assertEquals("\u00a7aTeleport \u00a77to a public warp", description.render("public"));
+        assertEquals("\u00a7aTeleport \u00a77to a {kind} warp", description.render());
+
+        CompiledMessage usage = (CompiledMessage) usageMessage.invoke(null, warp);
+        assertTrue(usage.isConstant());
+        assertSame(usage.render(), usage.render());
+        assertEquals("/warp <name> & more", usage.render());
+        assertEquals("/warp.set", ((CompiledMessage) usageMessage.invoke(null, set)).render());
+
+        // Verify a doubled ampersand is a literal ampersand rather than a color code
+        assertEquals("Set a warp, see Q&A or R&&D",
+                ((CompiledMessage) descriptionMessage.invoke(null, set)).render());
+
+        CompiledMessage denied = (CompiledMessage) permissionMessage.invoke(null, warp);
+        assertEquals("\u00a7cYou need warp.use to use /w", denied.render(name -> switch (name) {
+            case "permission" -> "warp.use";
+            case "label" -> "w";
+            default -> null;
+        }));
+        assertEquals("You do not have permission to use this command.",
+                ((CompiledMessage) permissionMessage.invoke(null, set)).render());
+
+        // Verify the dispatcher fills the placeholders of subcommand permission messages
+        List<String> messages = new ArrayList<>();
+        CommandSource source = new CommandSource() {
+            @Override
+            public boolean hasPermission(String permission) {
+                return permission.equals("warp.use");
+            }
+
+            @Override
+            public void sendMessage(String message) {
+                messages.add(message);
+            }
+        };
+        CommandHandler handler = (CommandHandler) registry.getMethod("handler", int.class).invoke(null, warp);
+        assertTrue(handler.execute(source, "warp", new String[]{"DELETE", "spawn"}));
+        assertTrue(handler.execute(source, "warp", new String[]{"set", "spawn"}));
+        assertEquals(List.of("\u00a7cYou may not DELETE warps without \u00a7lwarp.delete\u00a7r, {sorry}",
+                "You do not have permission to use this command."), messages);
+
+        // Verify help lines show translated color codes
+        HelpIndex help = (HelpIndex) registry.getMethod("helpIndex").invoke(null);
+        assertEquals("/warp <name> & more - \u00a7aTeleport \u00a77to a {kind} warp", help.line(0));
+    }
+
+    @Test
+    void testInvalidMessages() {
+        // Load the test class with malformed messages from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("InvalidMessagesCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify every malformed message was reported
+        assertThat(compilation).failed();
+        assertThat(compilation)
+                .hadErrorContaining("Cannot parse description '&zBroken color' of command badmessages: "
+                        + "Unknown color code '&z', expected 0-9, a-f, k-o, r or x, or && for a literal ampersand");
+        assertThat(compilation)
+                .hadErrorContaining("Cannot parse usage '/badmessages {player' of command badmessages: "
+                        + "Unclosed placeholder '{player'");
+        assertThat(compilation)
+                .hadErrorContaining("Unknown placeholder {owner} in permission message of command badmessages, "
+                        + "expected {command}, {label} or {permission}");
+        assertThat(compilation)
+                .hadErrorContaining("Cannot parse description 'Uses {1st} placeholder' of command badmessages.sub: "
+                        + "Invalid placeholder '{1st}', expected a letter followed by letters, digits or underscores");
+    }
+
+    @Test
+    void testUnsafeAsyncExecution() {
+        // Load the test class with an unsafe asynchronous handler from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("UnsafeAsyncCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify the mutable field and the diverging subcommand were rejected
+        assertThat(compilation).failed();
+
+        assertThat(compilation)
+                .hadErrorContaining("Command handler test.UnsafeAsyncCommand runs asynchronously and must not "
+                        + "declare the field count that is neither final nor volatile");
+
+        assertThat(compilation)
+                .hadErrorContaining("Subcommand method reset cannot declare execution SYNC, "
+                        + "it runs like its class with execution ASYNC");
+    }
+
+    @Test
+    void testCooldownAndRateLimit() throws ReflectiveOperationException {
+        // Load the test class with limited commands from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("LimitedCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful and the limits were parsed into milliseconds
+        assertThat(compilation).succeeded();
+
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("\"test.LimitedCommand\", Execution.SYNC, 30000L, 0, 0L);");
+
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("\"test.LimitedCommand$Ping\", Execution.SYNC, 0L, 2, 60000L);");
+
+        Map<String, CommandHandler> handlers = new HashMap<>();
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        registry.getMethod("registerAll", CommandRegistrar.class)
+                .invoke(null, (CommandRegistrar) (command, handler) -> handlers.put(command.name(), handler));
+        assertTrue(handlers.get("heal") instanceof LimitedCommandHandler);
+        assertTrue(handlers.get("ping") instanceof LazyCommandHandler);
+        assertTrue(handlers.get("ping.now") instanceof LimitedCommandHandler);
+
+        List<String> messages = new ArrayList<>();
+        CommandSource alice = new LimitedSource(UUID.randomUUID(), messages);
+        CommandSource bob = new LimitedSource(UUID.randomUUID(), messages);
+        CommandSource console = new LimitedSource(null, messages);
+
+        // Verify the cooldown applies per player and not to the console
+        assertTrue(handlers.get("heal").execute(alice, "heal", new String[0]));
+        assertTrue(handlers.get("heal").execute(alice, "heal", new String[0]));
+        assertTrue(handlers.get("heal").execute(bob, "heal", new String[0]));
+        assertTrue(handlers.get("heal").execute(console, "heal", new String[0]));
+        assertTrue(handlers.get("heal").execute(console, "heal", new String[0]));
+        assertEquals(List.of("Healed", "You must wait 30 seconds before using this command again.",
+                "Healed", "Healed", "Healed"), messages);
+
+        // Verify the dispatcher enforces the rate limit of the subcommand in the shared table and
+        // renders its cooldown message
+        messages.clear();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(handlers.get("ping").execute(alice, "ping", new String[]{"now"}));
+        }
+        assertTrue(handlers.get("ping.now").execute(alice, "ping", new String[0]));
+        assertEquals(List.of("Pong", "Pong", "\u00a7cSlow down, ping.now is ready in 30s",
+                "\u00a7cSlow down, ping.now is ready in 30s"), messages);
+
+        // Verify expired entries are evicted
+        long[] now = {0};
+        CooldownTable table = new CooldownTable(() -> now[0]);
+        UUID player = UUID.randomUUID();
+        assertEquals(0, table.acquire(player, 0, 1000, 0, 0));
+        now[0] = 600;
+        assertEquals(400, table.acquire(player, 0, 1000, 0, 0));
+        for (int command = 1; command <= 100; command++) {
+            assertEquals(0, table.acquire(player, command, 0, 2, 1000));
+        }
+        assertEquals(101, table.size());
+        now[0] = 1099;
+        table.evictExpired();
+        assertEquals(100, table.size());
+        now[0] = 1100;
+        table.evictExpired();
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void testInvalidLimits() {
+        // Load the test class with malformed limits from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("InvalidLimitsCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify both limits and the cooldown message were rejected
+        assertThat(compilation).failed();
+
+        assertThat(compilation)
+                .hadErrorContaining("Cannot parse cooldown '5x' of command spam: "
+                        + "Unknown unit 'x' in duration '5x', expected ms, s, m or h");
+
+        assertThat(compilation)
+                .hadErrorContaining("Unknown placeholder {minutes} in cooldown message of command spam, "
+                        + "expected {seconds}, {time} or {command}");
+
+        assertThat(compilation)
+                .hadErrorContaining("Cannot parse rate limit '10' of command spam.more: "
+                        + "Expected a count and a duration separated by '/'");
+
+        assertThat(compilation)
+                .hadErrorContaining("Cannot parse cache TTL 'soon' of command spam.more: Invalid duration 'soon'");
+
+        assertThat(compilation)
+                .hadErrorContaining("Command spam declares a cache TTL but routes method subcommands; "
+                        + "declare it on the subcommands instead");
+    }
+
+    @Test
+    void testResponseCache() throws ReflectiveOperationException {
+        // Load the test class with cached commands from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("CachedCommand.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify compilation was successful and the time to live was parsed into milliseconds
+        assertThat(compilation).succeeded();
+
+        assertThat(compilation)
+                .generatedSourceFile("test.GeneratedCommandRegistry")
+                .contentsAsUtf8String()
+                .contains("\"test.CachedCommand\", Execution.SYNC, 0L, 0, 0L, 10000L, CacheScope.GLOBAL);");
+
+        Map<String, CommandHandler> handlers = new HashMap<>();
+        Class<?> registry = new CompiledClassLoader(compilation).loadClass("test.GeneratedCommandRegistry");
+        registry.getMethod("registerAll", CommandRegistrar.class)
+                .invoke(null, (CommandRegistrar) (command, handler) -> handlers.put(command.name(), handler));
+        assertTrue(handlers.get("baltop") instanceof CachingCommandHandler);
+        assertTrue(handlers.get("stats") instanceof LazyCommandHandler);
+        assertTrue(handlers.get("stats.player") instanceof CachingCommandHandler);
+
+        List<String> messages = new ArrayList<>();
+        CommandSource alice = new LimitedSource(UUID.randomUUID(), messages);
+        CommandSource bob = new LimitedSource(UUID.randomUUID(), messages);
+        CommandSource console = new LimitedSource(null, messages);
+
+        // Verify a global response is replayed to every sender regardless of the arguments
+        assertTrue(handlers.get("baltop").execute(alice, "baltop", new String[0]));
+        assertTrue(handlers.get("baltop").execute(alice, "baltop", new String[0]));
+        assertTrue(handlers.get("baltop").execute(bob, "baltop", new String[]{"2"}));
+        assertEquals(List.of("Top #1", "1. Notch", "Top #1", "1. Notch", "Top #1", "1. Notch"), messages);
+
+        // Verify the dispatcher caches a subcommand per sender and arguments, but not for the console
+        messages.clear();
+        assertTrue(handlers.get("stats").execute(alice, "stats", new String[]{"player", "a"}));
+        assertTrue(handlers.get("stats").execute(alice, "stats", new String[]{"player", "a"}));
+        assertTrue(handlers.get("stats").execute(bob, "stats", new String[]{"player", "a"}));
+        assertTrue(handlers.get("stats").execute(alice, "stats", new String[]{"player", "b"}));
+        assertTrue(handlers.get("stats").execute(console, "stats", new String[]{"player", "a"}));
+        assertTrue(handlers.get("stats.player").execute(alice, "stats", new String[]{"a"}));
+        assertEquals(List.of("Stats a #1", "Stats a #1", "Stats a #2", "Stats b #3", "Stats a #4", "Stats a #1"),
+                messages);
+
+        // Verify hits and misses were counted
+        ResponseCache cache = (ResponseCache) registry.getMethod("responseCache").invoke(null);
+        assertEquals(4, cache.hits());
+        assertEquals(4, cache.misses());
+        assertEquals(4, cache.size());
+
+        // Verify an argument containing a space is not confused with two arguments
+        @SuppressWarnings("unchecked")
+        List<CommandDescriptor> commands = (List<CommandDescriptor>) registry.getMethod("commands").invoke(null);
+        CommandDescriptor player = commands.stream()
+                .filter(command -> command.name().equals("stats.player"))
+                .findFirst()
+                .orElseThrow();
+        assertNotEquals(cache.key(player, alice, new String[]{"a b"}), cache.key(player, alice, new String[]{"a", "b"}));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testAliasCollision() {
+        // Load the test file with colliding aliases from resources
+        JavaFileObject testClass = JavaFileObjects.forResource("CollidingAliases.java");
+
+        // Compile the test class with our processor
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .compile(testClass);
+
+        // Verify the collision was reported
+        assertThat(compilation).failed();
+
+        assertThat(compilation)
+                .hadErrorContaining("Alias 'spawn' of command 'home' collides with command 'spawn'");
+    }
+
+    @Test
+    void testIncrementalCache(@TempDir Path directory) throws IOException, URISyntaxException {
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        Path generated = Files.createDirectories(directory.resolve("generated"));
+
+        // Full build of two commands
+        assertTrue(compileInto(classes, generated, "FullCommand.java", "MinimalCommand.java"));
+
+        // Incremental build that only recompiles a new command, with the previous output on the classpath
+        assertTrue(compileInto(classes, generated, "AliasCommand.java"));
+
+        // Verify the commands of the classes that were not recompiled were merged from the cache
+        String yaml = Files.readString(classes.resolve("commands.yml"));
+        assertTrue(yaml.contains("  fullcmd:"));
+        assertTrue(yaml.contains("  minimal:"));
+        assertTrue(yaml.contains("  aliascmd:"));
+
+        String registry = Files.readString(generated.resolve("test/GeneratedCommandRegistry.java"));
+        assertTrue(registry.contains("public static final int FULLCMD = 1;"));
+
+        // Remove a class and rebuild incrementally; its cached command must be dropped
+        Files.delete(classes.resolve("test/MinimalCommand.class"));
+        assertTrue(compileInto(classes, generated, "AliasCommand.java"));
+
+        yaml = Files.readString(classes.resolve("commands.yml"));
+        assertTrue(yaml.contains("  fullcmd:"));
+        assertFalse(yaml.contains("  minimal:"));
+    }
+
+    @Test
+    void testDeterministicOutput(@TempDir Path directory) throws IOException, URISyntaxException {
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        Path generated = Files.createDirectories(directory.resolve("generated"));
+
+        // Build once and age the generated resource
+        assertTrue(compileInto(classes, generated, "MultipleCommands.java"));
+        Path yaml = classes.resolve("commands.yml");
+        FileTime aged = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(yaml, aged);
+
+        // Verify the commands are written in name order
+        String content = Files.readString(yaml);
+        assertTrue(content.indexOf("  first:") < content.indexOf("  second:"));
+        assertTrue(content.indexOf("  second:") < content.indexOf("  third:"));
+
+        // Rebuild without changes and verify the resource was left untouched
+        assertTrue(compileInto(classes, generated, "MultipleCommands.java"));
+        assertEquals(aged, Files.getLastModifiedTime(yaml));
+        assertEquals(content, Files.readString(yaml));
+
+        // Rebuild with an additional command and verify the resource was rewritten
+        assertTrue(compileInto(classes, generated, "MultipleCommands.java", "MinimalCommand.java"));
+        assertTrue(Files.readString(yaml).contains("  minimal:"));
+    }
+
+    private static boolean compileInto(Path classes, Path generated, String... resources)
+            throws IOException, URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<Path> sources = new ArrayList<>();
+            for (String resource : resources) {
+                sources.add(Path.of(Objects.requireNonNull(
+                        CommandAnnotationProcessorTest.class.getClassLoader().getResource(resource)).toURI()));
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    List.of("-d", classes.toString(), "-s", generated.toString(),
+                            "-classpath", classes + File.pathSeparator + System.getProperty("java.class.path")),
+                    null, fileManager.getJavaFileObjectsFromPaths(sources));
+            task.setProcessors(List.of(new CommandAnnotationProcessor()));
+            return task.call();
+        }
+    }
+
+    /**
+     * A source with an optional unique id, collecting the messages it receives.
+     */
+    private record LimitedSource(UUID uniqueId, List<String> messages) implements CommandSource {
+
+        @Override
+        public boolean hasPermission(String permission) {
+            return true;
+        }
+
+        @Override
+        public void sendMessage(String message) {
+            messages.add(message);
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package dev.flur.commands.processor;
+
+import com.google.testing.compile.Compilation;
+
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads the classes produced by a compile-testing {@link Compilation}, so tests can exercise
+ * the generated code at runtime.
+ */
+final class CompiledClassLoader extends ClassLoader {
+
+    private static final String CLASS_OUTPUT = "/CLASS_OUTPUT/";
+
+    private final Map<String, byte[]> classes = new HashMap<>();
+
+    CompiledClassLoader(Compilation compilation) {
+        super(CompiledClassLoader.class.getClassLoader());
+        for (JavaFileObject file : compilation.generatedFiles()) {
+            String path = file.toUri().getPath();
+            int start = path.indexOf(CLASS_OUTPUT);
+            if (file.getKind() != JavaFileObject.Kind.CLASS || start < 0) {
+                continue;
+            }
+            String name = path.substring(start + CLASS_OUTPUT.length(), path.length() - ".class".length())
+                    .replace('/', '.');
+            try (InputStream in = file.openInputStream()) {
+                classes.put(name, in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the class with the given name has been loaded by this loader.
+     */
+    boolean isLoaded(String name) {
+        return findLoadedClass(name) != null;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.get(name);
+        if (bytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,115 @@
+package dev.flur.commands.processor;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.Compiler;
+import com.google.testing.compile.JavaFileObjects;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures how the processor scales with the number of commands in a compilation.
+ * <p>
+ * The harness is opt-in, run it with {@code mvn test -Dcommands.scalability=true}. It compiles
+ * synthetic modules of increasing size, written like the {@code MultipleCommands} test resource,
+ * and records the wall time and allocation of every compilation together with the per-round
+ * report of the processor in {@code target/processor-scalability.txt}.
+ */
+@EnabledIfSystemProperty(named = "commands.scalability", matches = "true")
+class ProcessorScalabilityTest {
+
+    private static final int[] SIZES = {100, 1_000, 5_000, 10_000};
+    private static final int COMMANDS_PER_FILE = 100;
+
+    @Test
+    void testScalability() throws IOException {
+        String report = measure();
+
+        // Verify every size was measured and reported by the processor
+        for (int size : SIZES) {
+            assertTrue(report.contains("commands=" + size + " files=" + size / COMMANDS_PER_FILE + " "),
+                    () -> "Missing measurement of " + size + " commands in\n" + report);
+        }
+
+        Path output = Path.of("target", "processor-scalability.txt");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, report, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compiles the synthetic module of every size and returns one report entry per compilation.
+     */
+    private static String measure() throws IOException {
+        StringBuilder report = new StringBuilder();
+
+        // Warm up the compiler so the first size is not dominated by class loading
+        compile(syntheticSources(SIZES[0]));
+
+        for (int size : SIZES) {
+            List<JavaFileObject> sources = syntheticSources(size);
+
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            Compilation compilation = compile(sources);
+            long nanos = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            // Verify compilation was successful
+            assertThat(compilation).succeeded();
+
+            // Record the compilation and the processor report
+            String stats = compilation
+                    .generatedFile(StandardLocation.SOURCE_OUTPUT, ProcessorStats.FILE_NAME)
+                    .orElseThrow()
+                    .getCharContent(true)
+                    .toString();
+
+            report.append(String.format(Locale.ROOT, "commands=%d files=%d time=%.1fms allocated=%dMB%n",
+                    size, sources.size(), nanos / 1_000_000.0, allocated >> 20));
+            report.append(stats).append('\n');
+        }
+        return report.toString();
+    }
+
+    private static Compilation compile(List<JavaFileObject> sources) {
+        return Compiler.javac()
+                .withProcessors(new CommandAnnotationProcessor())
+                .withOptions("-Acommands.stats=true")
+                .compile(sources);
+    }
+
+    private static List<JavaFileObject> syntheticSources(int size) {
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (int file = 0; file * COMMANDS_PER_FILE < size; file++) {
+            StringBuilder source = new StringBuilder(COMMANDS_PER_FILE * 160);
+            source.append("package test;\n\n");
+            source.append("import dev.flur.commands.CommandInfo;\n\n");
+            source.append("public class Commands").append(file).append(" {\n}\n");
+            for (int i = file * COMMANDS_PER_FILE; i < Math.min(size, (file + 1) * COMMANDS_PER_FILE); i++) {
+                source.append("\n@CommandInfo(name = \"cmd").append(i).append("\", description = \"Command ")
+                        .append(i).append("\", permission = \"test.cmd").append(i)
+                        .append("\", aliases = {\"c").append(i).append("\"})\n");
+                source.append("class Command").append(i).append(" {\n}\n");
+            }
+            sources.add(JavaFileObjects.forSourceString("test.Commands" + file, source.toString()));
+        }
+        return sources;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
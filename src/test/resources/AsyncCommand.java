@@ -0,0 +1,43 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.Execution;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Example of a command running off the main thread.
+ */
+@CommandInfo(
+    name = "backup",
+    description = "Back up the world",
+    usage = "&e/backup <name>",
+    execution = Execution.ASYNC
+)
+public class AsyncCommand implements CommandHandler {
+
+    private final AtomicInteger backups = new AtomicInteger();
+
+    @Override
+    public boolean execute(CommandSource source, String label, String[] args) {
+        if (args.length == 0) {
+            return false;
+        }
+        if (args[0].equals("fail")) {
+            throw new IllegalStateException("Backup failed");
+        }
+        source.sendMessage("Backup " + args[0] + " #" + backups.incrementAndGet() + " on "
+                + (Thread.currentThread().getName().equals("async") ? "async" : "main"));
+        return true;
+    }
+
+    /**
+     * Lists the backups, running asynchronously like its class.
+     */
+    @CommandInfo(name = "list")
+    void list(CommandSource source, String label, String[] args) {
+        source.sendMessage(backups.get() + " backups");
+    }
+}
@@ -0,0 +1,46 @@
+package test;
+
+import dev.flur.commands.CacheScope;
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Example of read-only commands whose responses are cached.
+ */
+@CommandInfo(
+    name = "baltop",
+    description = "Show the richest players",
+    cacheTtl = "10s",
+    cacheScope = CacheScope.GLOBAL
+)
+public class CachedCommand implements CommandHandler {
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Override
+    public boolean execute(CommandSource source, String label, String[] args) {
+        source.sendMessage("Top #" + runs.incrementAndGet());
+        source.sendMessage("1. Notch");
+        return true;
+    }
+
+    /**
+     * Example of a cached method subcommand.
+     */
+    @CommandInfo(name = "stats")
+    public static class Stats {
+
+        private final AtomicInteger runs = new AtomicInteger();
+
+        /**
+         * Shows statistics, cached per player and arguments.
+         */
+        @CommandInfo(name = "player", cacheTtl = "1m", cacheScope = CacheScope.SENDER)
+        void player(CommandSource source, String label, String[] args) {
+            source.sendMessage("Stats " + String.join(",", args) + " #" + runs.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+
+/**
+ * File containing commands whose aliases collide.
+ * This tests that alias collisions are reported at compile time.
+ */
+
+/**
+ * Command declaring an alias that is also the name of another command.
+ */
+@CommandInfo(
+    name = "home",
+    description = "Teleport home",
+    aliases = {"h", "spawn"}
+)
+class HomeCommand {
+    // Command implementation would go here in a real command
+}
+
+/**
+ * Command whose name is taken as an alias by another command.
+ */
+@CommandInfo(
+    name = "spawn",
+    description = "Teleport to spawn"
+)
+class SpawnCommand {
+    // Command implementation would go here in a real command
+}
@@ -0,0 +1,24 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+
+/**
+ * A command handler the generated registry cannot instantiate.
+ */
+@CommandInfo(name = "broken")
+public class HandlerWithoutConstructor implements CommandHandler {
+
+    private final String prefix;
+
+    public HandlerWithoutConstructor(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public boolean execute(CommandSource source, String label, String[] args) {
+        source.sendMessage(prefix + label);
+        return true;
+    }
+}
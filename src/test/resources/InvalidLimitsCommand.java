@@ -0,0 +1,29 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+
+/**
+ * Example of a command with malformed limits and cache settings.
+ */
+@CommandInfo(
+    name = "spam",
+    cooldown = "5x",
+    cooldownMessage = "Wait {minutes} minutes",
+    cacheTtl = "1m"
+)
+public class InvalidLimitsCommand implements CommandHandler {
+
+    @Override
+    public boolean execute(CommandSource source, String label, String[] args) {
+        return true;
+    }
+
+    /**
+     * A subcommand with a rate limit missing its period and a malformed cache TTL.
+     */
+    @CommandInfo(name = "more", rateLimit = "10", cacheTtl = "soon")
+    void more(CommandSource source, String label, String[] args) {
+    }
+}
@@ -0,0 +1,27 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandSource;
+
+/**
+ * Test command with malformed color codes and placeholders.
+ */
+@CommandInfo(
+    name = "badmessages",
+    description = "&zBroken color",
+    usage = "/badmessages {player",
+    permission = "bad.use",
+    permissionMessage = "Ask {owner} for access"
+)
+public class InvalidMessagesCommand {
+
+    /**
+     * A subcommand with a placeholder that is not a name.
+     */
+    @CommandInfo(
+        name = "sub",
+        description = "Uses {1st} placeholder"
+    )
+    void sub(CommandSource source, String label, String[] args) {
+    }
+}
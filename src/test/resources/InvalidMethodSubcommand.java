@@ -0,0 +1,15 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+
+/**
+ * A command with a subcommand method of the wrong signature.
+ */
+@CommandInfo(name = "warp")
+public class InvalidMethodSubcommand {
+
+    @CommandInfo(name = "go")
+    public boolean go(String target) {
+        return true;
+    }
+}
@@ -0,0 +1,15 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+
+/**
+ * Example of a command whose usage cannot be parsed into arguments.
+ */
+@CommandInfo(
+    name = "pay",
+    description = "Pay a player",
+    usage = "/pay [player] <amount:int>",
+    parseArguments = true
+)
+public class InvalidUsageCommand {
+}
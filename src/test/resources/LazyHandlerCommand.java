@@ -0,0 +1,29 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+
+/**
+ * A command whose handler is instantiated by the generated registry on first use.
+ */
+@CommandInfo(
+    name = "lazy",
+    description = "A command with a lazily loaded handler"
+)
+public class LazyHandlerCommand implements CommandHandler {
+
+    @Override
+    public boolean execute(CommandSource source, String label, String[] args) {
+        source.sendMessage("Executed " + label + " with " + args.length + " arguments");
+        return true;
+    }
+}
+
+/**
+ * A command without a handler implementation.
+ */
+@CommandInfo(name = "plain")
+class PlainCommand {
+    // Command implementation would go here in a real command
+}
@@ -0,0 +1,37 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+
+/**
+ * Example of commands limited per player.
+ */
+@CommandInfo(
+    name = "heal",
+    description = "Heal yourself",
+    cooldown = "30s"
+)
+public class LimitedCommand implements CommandHandler {
+
+    @Override
+    public boolean execute(CommandSource source, String label, String[] args) {
+        source.sendMessage("Healed");
+        return true;
+    }
+
+    /**
+     * Example of method subcommands with their own limits.
+     */
+    @CommandInfo(name = "ping")
+    public static class Ping {
+
+        /**
+         * Replies twice a minute at most, with its own cooldown message.
+         */
+        @CommandInfo(name = "now", rateLimit = "2/1m", cooldownMessage = "&cSlow down, {command} is ready in {seconds}s")
+        void now(CommandSource source, String label, String[] args) {
+            source.sendMessage("Pong");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+
+/**
+ * Example of a command with colored messages and placeholders.
+ */
+@CommandInfo(
+    name = "warp",
+    description = "&aTeleport &7to a {kind} warp",
+    usage = "/warp <name> & more",
+    permission = "warp.use",
+    permissionMessage = "&cYou need {permission} to use /{label}"
+)
+public class MessagesCommand implements CommandHandler {
+
+    @Override
+    public boolean execute(CommandSource source, String label, String[] args) {
+        return true;
+    }
+
+    /**
+     * Deletes a warp, guarded by its own permission.
+     */
+    @CommandInfo(
+        name = "delete",
+        permission = "warp.delete",
+        permissionMessage = "&cYou may not {label} warps without &l{permission}&r, {{sorry}"
+    )
+    void delete(CommandSource source, String label, String[] args) {
+        source.sendMessage("Deleted " + args[0]);
+    }
+
+    /**
+     * Sets a warp, guarded by a permission with the default message.
+     */
+    @CommandInfo(
+        name = "set",
+        description = "Set a warp, see Q&&A or R&&&&D",
+        permission = "warp.set"
+    )
+    void set(CommandSource source, String label, String[] args) {
+        source.sendMessage("Set " + args[0]);
+    }
+}
@@ -0,0 +1,49 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Example of a command declaring its subcommands as methods.
+ */
+@CommandInfo(
+    name = "home",
+    description = "Manage homes",
+    aliases = {"h"}
+)
+public class MethodSubcommands {
+
+    private final List<String> homes = new ArrayList<>();
+
+    /**
+     * Sets a home; returns false to show the usage when no name is given.
+     */
+    @CommandInfo(
+        name = "set",
+        description = "Set a home",
+        permission = "home.set",
+        permissionMessage = "You cannot set homes",
+        aliases = {"Add"}
+    )
+    public boolean set(CommandSource source, String label, String[] args) {
+        if (args.length == 0) {
+            return false;
+        }
+        homes.add(args[0]);
+        return true;
+    }
+
+    /**
+     * Lists all homes.
+     */
+    @CommandInfo(
+        name = "list",
+        description = "List homes"
+    )
+    void list(CommandSource source, String label, String[] args) {
+        source.sendMessage(label + ": " + String.join(", ", homes));
+    }
+}
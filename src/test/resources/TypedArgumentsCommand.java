@@ -0,0 +1,24 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.runtime.CommandSource;
+import dev.flur.commands.runtime.TypedCommandHandler;
+
+/**
+ * Example of a command receiving its arguments parsed from the usage.
+ */
+@CommandInfo(
+    name = "give",
+    description = "Give coins to a player",
+    usage = "/give <player> <amount:int> [reason...]",
+    parseArguments = true
+)
+public class TypedArgumentsCommand implements TypedCommandHandler<TypedArgumentsCommandArguments> {
+
+    @Override
+    public boolean execute(CommandSource source, String label, TypedArgumentsCommandArguments arguments) {
+        source.sendMessage(arguments.player() + " +" + arguments.amount()
+                + (arguments.reason() == null ? "" : " (" + arguments.reason() + ")"));
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package test;
+
+import dev.flur.commands.CommandInfo;
+import dev.flur.commands.Execution;
+import dev.flur.commands.runtime.CommandHandler;
+import dev.flur.commands.runtime.CommandSource;
+
+/**
+ * Example of an asynchronous command that would race on its state.
+ */
+@CommandInfo(
+    name = "count",
+    execution = Execution.ASYNC
+)
+public class UnsafeAsyncCommand implements CommandHandler {
+
+    private int count;
+
+    @Override
+    public boolean execute(CommandSource source, String label, String[] args) {
+        count++;
+        return true;
+    }
+
+    /**
+     * Tries to run synchronously although its class runs asynchronously.
+     */
+    @CommandInfo(name = "reset", execution = Execution.SYNC)
+    void reset(CommandSource source, String label, String[] args) {
+    }
+}